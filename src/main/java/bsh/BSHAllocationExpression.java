@@ -126,7 +126,8 @@ class BSHAllocationExpression extends SimpleNode
                 "Constructor error: " + e.getMessage(), this, callstack, e);
         } catch (InvocationTargetException e) {
             // No need to wrap this debug
-            Interpreter.debug("The constructor threw an exception:\n\t" + e.getTargetException());
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("The constructor threw an exception:\n\t" + e.getTargetException());
             throw new TargetError("Object constructor", e.getTargetException(), this, callstack, true);
         } finally {
             if (isGeneratedClass) {
@@ -30,12 +30,19 @@ package bsh;
 class BSHAmbiguousName extends SimpleNode
 {
     public String text;
+    /** Resolution plan shared by the names of this node. */
+    private transient Name.Plan plan;
+    /** Set once the name did not resolve to a variable, after which it is
+        no longer looked up as one ahead of the name resolution. */
+    private transient boolean generic;
 
     BSHAmbiguousName(int id) { super(id); }
 
     public Name getName( NameSpace namespace )
     {
-        return namespace.getNameResolver( text );
+        if ( plan == null )
+            plan = new Name.Plan( text );
+        return namespace.getNameResolver( text, plan );
     }
 
     public Object toObject( CallStack callstack, Interpreter interpreter )
@@ -49,6 +56,12 @@ class BSHAmbiguousName extends SimpleNode
         throws EvalError
     {
         try {
+            if ( !forceClass && !generic ) {
+                Object value = toVariable( callstack );
+                if ( value != Primitive.VOID )
+                    return value;
+                generic = true;
+            }
             return
                 getName( callstack.top() ).toObject(
                     callstack, interpreter, forceClass );
@@ -57,6 +70,20 @@ class BSHAmbiguousName extends SimpleNode
         }
     }
 
+    /**
+        The value of the variable named by a simple name, looked up directly
+        in the namespace as the name resolution would look it up first.
+        @return the value or Primitive.VOID if the name is not a simple
+        variable name or no such variable is defined
+    */
+    private Object toVariable( CallStack callstack ) throws UtilEvalError {
+        if ( Name.isCompound( text ) || text.equals("this")
+                || text.equals("super") || text.equals("global") )
+            return Primitive.VOID;
+        Object value = callstack.top().getVariable( text );
+        return value == null ? Primitive.NULL : value;
+    }
+
     public Class toClass( CallStack callstack, Interpreter interpreter )
         throws EvalError
     {
@@ -53,7 +53,8 @@ class BSHArrayDimensions extends SimpleNode
             Class type, CallStack callstack, Interpreter interpreter )
         throws EvalError
     {
-        Interpreter.debug("array base type = ", type);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("array base type = ", type);
         baseType = type;
         if ( null == cached )
             cached = eval( callstack, interpreter );
@@ -178,7 +178,8 @@ class BSHArrayInitializer extends SimpleNode {
                 // store the value in the array
                 Array.set(initializers, i, value);
             } catch( IllegalArgumentException e ) {
-                Interpreter.debug("illegal arg", e);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("illegal arg", e);
                 throwTypeError( baseType, value, i, callstack );
             }
         }
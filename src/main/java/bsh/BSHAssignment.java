@@ -31,6 +31,8 @@ package bsh;
 class BSHAssignment extends SimpleNode implements ParserConstants
 {
     public Integer operator;
+    /** The rhs can not assign variables, see isSideEffectFree(). */
+    private transient Boolean pureRhs;
 
     BSHAssignment(int id) { super(id); }
 
@@ -45,15 +47,37 @@ class BSHAssignment extends SimpleNode implements ParserConstants
             (BSHPrimaryExpression)jjtGetChild(0);
 
         boolean strictJava = interpreter.getStrictJava();
-        LHS lhs = lhsNode.toLHS( callstack, interpreter);
+
+        // Compound assignment to a typed primitive variable is done in place
+        // where possible, see PrimitiveVariable.
+        // Appending to a String variable is done in its buffer, see
+        // StringVariable.
+        PrimitiveVariable var = null;
+        StringVariable text = null;
+        StringBuilder buffer = null;
+        if ( operator != ASSIGN ) try {
+            var = PrimitiveVariable.assignable( lhsNode, callstack );
+            if ( var == null && operator == PLUSASSIGN
+                    && null != (text = StringVariable.assignable(
+                        lhsNode, callstack )) )
+                buffer = text.buffer();
+        } catch ( UtilEvalError e ) {
+            throw e.toEvalError( this, callstack );
+        }
+        int length = buffer == null ? 0 : buffer.length();
+        LHS lhs = var == null && buffer == null
+            ? lhsNode.toLHS( callstack, interpreter ) : null;
 
         // For operator-assign operations save the lhs value before evaluating
         // the rhs.  This is correct Java behavior for postfix operations
         // e.g. i=1; i+=i++; // should be 2 not 3
+        // A primitive variable can't change while evaluating a rhs without
+        // side effects, it is operated on in place without saving its value.
         Object lhsValue = null;
-        if ( operator != ASSIGN ) // assign doesn't need the pre-value
+        if ( operator != ASSIGN && buffer == null
+                && ( var == null || !isPureRhs() ) )
             try {
-                lhsValue = lhs.getValue();
+                lhsValue = var != null ? var.current() : lhs.getValue();
             } catch ( UtilEvalError e ) {
                 throw e.toEvalError( this, callstack );
             }
@@ -72,81 +96,122 @@ class BSHAssignment extends SimpleNode implements ParserConstants
             throw new EvalError("Void assignment.", this, callstack );
 
         try {
-            switch(operator)
-            {
-                case ASSIGN:
-                    if (lhs.isFinal()) {
-                        lhs.getVariable().setValue( rhs, Variable.ASSIGNMENT );
-                        return rhs;
-                    }
-                    return lhs.assign( rhs, strictJava );
-
-                case PLUSASSIGN:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, PLUS), strictJava );
-
-                case MINUSASSIGN:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, MINUS), strictJava );
-
-                case STARASSIGN:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, STAR), strictJava );
-
-                case SLASHASSIGN:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, SLASH), strictJava );
-
-                case ANDASSIGN:
-                case ANDASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, BIT_AND), strictJava );
-
-                case ORASSIGN:
-                case ORASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, BIT_OR), strictJava );
-
-                case XORASSIGN:
-                case XORASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, XOR), strictJava );
-
-                case MODASSIGN:
-                case MODASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, MOD), strictJava );
-
-                case POWERASSIGN:
-                case POWERASSIGNX:
-                    return lhs.assign(
-                            operation(lhsValue, rhs, POWER), strictJava );
-
-                case LSHIFTASSIGN:
-                case LSHIFTASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, LSHIFT), strictJava );
-
-                case RSIGNEDSHIFTASSIGN:
-                case RSIGNEDSHIFTASSIGNX:
-                    return lhs.assign(
-                    operation(lhsValue, rhs, RSIGNEDSHIFT ), strictJava );
-
-                case RUNSIGNEDSHIFTASSIGN:
-                case RUNSIGNEDSHIFTASSIGNX:
-                    return lhs.assign(
-                        operation(lhsValue, rhs, RUNSIGNEDSHIFT),
-                        strictJava );
-
-                default:
-                    throw new InterpreterError(
-                        "unimplemented operator in assignment BSH");
+            if ( operator == ASSIGN ) {
+                if (lhs.isFinal()) {
+                    lhs.getVariable().setValue( rhs, Variable.ASSIGNMENT );
+                    return rhs;
+                }
+                return lhs.assign( rhs, strictJava );
+            }
+
+            int kind = binaryOperator( operator );
+            if ( buffer != null ) {
+                if ( text.append( buffer, length, rhs ) )
+                    return isDiscarded() ? Primitive.VOID : text.getValue();
+                lhsValue = buffer.substring( 0, length );
+                lhs = lhsNode.toLHS( callstack, interpreter );
+            }
+            if ( var != null ) {
+                Object result = var.operation(
+                    (Primitive)lhsValue, rhs, kind, isDiscarded() );
+                if ( result != null )
+                    return result;
+                if ( lhsValue == null )
+                    lhsValue = var.current();
+                lhs = lhsNode.toLHS( callstack, interpreter );
             }
+            return lhs.assign( operation(lhsValue, rhs, kind), strictJava );
         } catch ( UtilEvalError e ) {
             throw e.toEvalError( this, callstack );
         }
     }
 
+    private boolean isPureRhs() {
+        if ( pureRhs == null )
+            pureRhs = isSideEffectFree( jjtGetChild(1) );
+        return pureRhs;
+    }
+
+    /**
+        The node is made of literals, simple names and operators only, so
+        evaluating it can not assign any variable.
+    */
+    private static boolean isSideEffectFree( Node node ) {
+        if ( node instanceof BSHAmbiguousName )
+            return !Name.isCompound( ((BSHAmbiguousName)node).text );
+        if ( node instanceof BSHUnaryExpression ) {
+            int kind = ((BSHUnaryExpression)node).kind;
+            if ( kind == INCR || kind == DECR )
+                return false;
+        } else if ( node instanceof BSHAssignment ) {
+            if ( ((BSHAssignment)node).operator != null )
+                return false;
+        } else if ( !(node instanceof BSHLiteral
+                || node instanceof BSHPrimaryExpression
+                || node instanceof BSHBinaryExpression
+                || node instanceof BSHTernaryExpression) )
+            return false;
+        for ( int i = 0; i < node.jjtGetNumChildren(); i++ )
+            if ( !isSideEffectFree( node.jjtGetChild(i) ) )
+                return false;
+        return true;
+    }
+
+    /** The binary operator of an operator-assign operator. */
+    private static int binaryOperator( int operator )
+    {
+        switch(operator)
+        {
+            case PLUSASSIGN:
+                return PLUS;
+
+            case MINUSASSIGN:
+                return MINUS;
+
+            case STARASSIGN:
+                return STAR;
+
+            case SLASHASSIGN:
+                return SLASH;
+
+            case ANDASSIGN:
+            case ANDASSIGNX:
+                return BIT_AND;
+
+            case ORASSIGN:
+            case ORASSIGNX:
+                return BIT_OR;
+
+            case XORASSIGN:
+            case XORASSIGNX:
+                return XOR;
+
+            case MODASSIGN:
+            case MODASSIGNX:
+                return MOD;
+
+            case POWERASSIGN:
+            case POWERASSIGNX:
+                return POWER;
+
+            case LSHIFTASSIGN:
+            case LSHIFTASSIGNX:
+                return LSHIFT;
+
+            case RSIGNEDSHIFTASSIGN:
+            case RSIGNEDSHIFTASSIGNX:
+                return RSIGNEDSHIFT;
+
+            case RUNSIGNEDSHIFTASSIGN:
+            case RUNSIGNEDSHIFTASSIGNX:
+                return RUNSIGNEDSHIFT;
+
+            default:
+                throw new InterpreterError(
+                    "unimplemented operator in assignment BSH");
+        }
+    }
+
     private Object operation( Object lhs, Object rhs, int kind )
         throws UtilEvalError
     {
@@ -40,8 +40,67 @@ class BSHBinaryExpression extends SimpleNode implements ParserConstants {
     public Object eval( CallStack callstack, Interpreter interpreter)
         throws EvalError
     {
+        // compare typed primitive variables without boxing
+        if ( isComparison() ) try {
+            Primitive result = PrimitiveVariable.compare(
+                kind, jjtGetChild(0), jjtGetChild(1), callstack );
+            if ( result != null )
+                return result;
+        } catch ( UtilEvalError e ) {
+            throw e.toEvalError( this, callstack );
+        }
+
+        // build a chain of string concatenations in one buffer
+        if ( kind == PLUS && isConcatenation( jjtGetChild(0) ) )
+            return concatenate( callstack, interpreter );
+
         Object lhs = ((SimpleNode)jjtGetChild(0)).eval(callstack, interpreter);
+        return operate( lhs, callstack, interpreter );
+    }
 
+    /**
+        Evaluate the chain of + operators down the left hand side of this
+        node.  The operands are evaluated left to right as usual and the
+        operators apply pairwise, until the value is a String.  From there on
+        each operator is a string concatenation, the operands are appended to
+        one StringBuilder instead of making a String for every operator.
+    */
+    private Object concatenate( CallStack callstack, Interpreter interpreter )
+        throws EvalError
+    {
+        int length = 1;
+        Node node = jjtGetChild(0);
+        for ( ; isConcatenation( node ); node = node.jjtGetChild(0) )
+            length++;
+        BSHBinaryExpression [] chain = new BSHBinaryExpression[length];
+        chain[--length] = this;
+        for ( node = jjtGetChild(0); length > 0; node = node.jjtGetChild(0) )
+            chain[--length] = (BSHBinaryExpression)node;
+
+        Object value = ((SimpleNode)node).eval( callstack, interpreter );
+        StringBuilder buffer = null;
+        for ( BSHBinaryExpression operator : chain ) {
+            if ( buffer == null && value instanceof String )
+                buffer = new StringBuilder( (String)value );
+            if ( buffer == null )
+                value = operator.operate( value, callstack, interpreter );
+            else
+                buffer.append( String.valueOf( ((SimpleNode)operator
+                    .jjtGetChild(1)).eval( callstack, interpreter ) ) );
+        }
+        return buffer == null ? value : buffer.toString();
+    }
+
+    /** The node is a + operator, continuing a chain of them. */
+    private static boolean isConcatenation( Node node ) {
+        return node instanceof BSHBinaryExpression
+            && ((BSHBinaryExpression)node).kind == PLUS;
+    }
+
+    /** Apply the operator to the evaluated lhs and the rhs node. */
+    private Object operate( Object lhs, CallStack callstack,
+        Interpreter interpreter ) throws EvalError
+    {
         /*
             Doing instanceof?  Next node is a type.
         */
@@ -125,6 +184,17 @@ class BSHBinaryExpression extends SimpleNode implements ParserConstants {
         }
     }
 
+    private boolean isComparison() {
+        switch ( kind ) {
+            case LT: case LTX: case LE: case LEX:
+            case GT: case GTX: case GE: case GEX:
+            case EQ: case NE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /** Get Variable for value at specified index.
      * @param index 0 for lhs val1 else 1
      * @param callstack the evaluation call stack
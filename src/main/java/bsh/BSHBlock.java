@@ -152,9 +152,9 @@ class BSHBlock extends SimpleNode
                 enumBlocks.remove(0).eval( callstack, interpreter );
         } finally {
             // make sure we put the namespace back when we leave.
-            // clear cached block name space, store as empty
+            // reset cached block name space, store as empty
             if ( !overrideNamespace ) {
-                callstack.top().clear();
+                callstack.top().reset();
                 callstack.swap( enclosingNameSpace );
             }
         }
@@ -36,6 +36,8 @@ package bsh;
     into it.
 */
 class BSHCastExpression extends SimpleNode {
+    /** The cast last made by this expression. */
+    private transient Specialization.Site<Specialization.Cast> castSite;
 
     public BSHCastExpression(int id) { super(id); }
 
@@ -55,10 +57,32 @@ class BSHCastExpression extends SimpleNode {
         // TODO: need to add isJavaCastable() test for strictJava
         // (as opposed to isJavaAssignable())
         try {
+            Specialization.Cast cast = cast( fromValue, toType );
+            if ( cast != null )
+                return cast.cast( fromValue );
             return Types.castObject( fromValue, toType, Types.CAST );
         } catch ( UtilEvalError e ) {
             throw e.toEvalError( this, callstack  );
         }
     }
 
+    /**
+        The cast for the class of the value, specialized when first seen.
+        @return the cast or null to take the general conversion
+    */
+    private Specialization.Cast cast( Object fromValue, Class<?> toType ) {
+        if ( fromValue == null )
+            return null;
+        Specialization.Site<Specialization.Cast> site = castSite;
+        if ( site == null )
+            castSite = site = new Specialization.Site<>();
+        Specialization.Cast cast = site.get( fromValue );
+        if ( cast != null && cast.toType == toType )
+            return cast;
+        if ( !site.isOpen() )
+            return null;
+        site.install( cast = Specialization.Cast.resolve( fromValue, toType ) );
+        return cast;
+    }
+
 }
@@ -25,6 +25,7 @@
  *****************************************************************************/
 package bsh;
 
+import java.lang.reflect.Array;
 import java.util.Iterator;
 
 /**
@@ -39,6 +40,10 @@ class BSHEnhancedForStatement extends SimpleNode implements ParserConstants {
 
     String varName;
     boolean isFinal = false;
+    /** Modifiers of the loop variable, shared by its declarations. */
+    private transient Modifiers modifiers;
+    /** Whether the statement may keep a reference to its scope. */
+    private transient Boolean capturesScope;
 
 
     BSHEnhancedForStatement(int id) {
@@ -47,9 +52,6 @@ class BSHEnhancedForStatement extends SimpleNode implements ParserConstants {
 
 
     public Object eval(CallStack callstack, Interpreter interpreter) throws EvalError {
-        Modifiers modifiers = new Modifiers(Modifiers.FIELD);
-        if (this.isFinal)
-            modifiers.addModifier("final");
         Class elementType = null;
         SimpleNode expression;
         SimpleNode statement = null;
@@ -75,17 +77,68 @@ class BSHEnhancedForStatement extends SimpleNode implements ParserConstants {
         if (!cm.isBshIterable(iteratee)) {
             throw new EvalError("Can't iterate over type: " + iteratee.getClass(), this, callstack);
         }
-        Iterator iterator = cm.getBshIterator(iteratee);
+        /*
+            Arrays of primitives are iterated by index, a typed loop
+            variable of the element type takes the elements unboxed.
+        */
+        final Object array = iteratee.getClass().isArray()
+            && iteratee.getClass().getComponentType().isPrimitive()
+            ? iteratee : null;
+        final int length = array == null ? 0 : Array.getLength(array);
+        Iterator iterator = array == null ? cm.getBshIterator(iteratee) : null;
+        int index = 0;
+        /*
+            Ranges, and numbers iterated as ranges, likewise give a typed
+            loop variable their values unboxed.
+        */
+        final Range.Values values = iterator instanceof Range.Values
+            ? (Range.Values) iterator : null;
+        /*
+            Each iteration has a scope of its own holding the loop variable.
+            One scope is reused for all iterations, the variable declared
+            afresh each time, unless the statement may capture the scope,
+            with a method or class declaration, in which case every iteration
+            gets a new one.
+        */
+        boolean reuseScope = !capturesScope(statement);
+        BlockNameSpace eachNameSpace = null;
+        Variable loopVariable = null;
         Object returnControl = Primitive.VOID;
-        while ( !Thread.interrupted() && iterator.hasNext() ) {
+        while ( !Thread.interrupted()
+                && ( array == null ? iterator.hasNext() : index < length ) ) {
             try {
-                BlockNameSpace eachNameSpace = new BlockNameSpace(enclosingNameSpace);
-                callstack.swap(eachNameSpace);
-                Object value = iterator.next();
-                if ( value == null )
+                if ( eachNameSpace == null || !reuseScope ) {
+                    eachNameSpace = new BlockNameSpace(enclosingNameSpace);
+                    callstack.swap(eachNameSpace);
+                    loopVariable = null;
+                } else if ( !eachNameSpace.declaresOnly(loopVariable) ) {
+                    eachNameSpace.reset();
+                    loopVariable = null;
+                }
+                Object value = null;
+                if ( values != null ) {
+                    long next = values.nextLong();
+                    if ( !(loopVariable instanceof PrimitiveVariable
+                            && ((PrimitiveVariable) loopVariable)
+                                .redeclare(next, values.isLong())) )
+                        value = values.box(next);
+                } else if ( array != null ) {
+                    if ( !(loopVariable instanceof PrimitiveVariable
+                            && ((PrimitiveVariable) loopVariable)
+                                .redeclare(array, index)) )
+                        value = BshArray.get(array, index);
+                    index++;
+                } else if ( null == (value = iterator.next()) )
                     value = Primitive.NULL;
-                eachNameSpace.setTypedVariable(
-                    varName, elementType, value, modifiers);
+                if ( value != null ) {
+                    if ( loopVariable != null )
+                        loopVariable.redeclare(value);
+                    else {
+                        eachNameSpace.setTypedVariable(
+                            varName, elementType, value, getModifiers());
+                        loopVariable = eachNameSpace.getVariableImpl(varName, false);
+                    }
+                }
             } catch ( UtilEvalError e ) {
                 throw e.toEvalError(
                     "for loop iterator variable:"+ varName, this, callstack );
@@ -116,4 +169,36 @@ class BSHEnhancedForStatement extends SimpleNode implements ParserConstants {
         return returnControl;
     }
 
+    private Modifiers getModifiers() {
+        if (modifiers == null) {
+            Modifiers mods = new Modifiers(Modifiers.FIELD);
+            if (this.isFinal)
+                mods.addModifier("final");
+            modifiers = mods;
+        }
+        return modifiers;
+    }
+
+    private boolean capturesScope(Node statement) {
+        if (capturesScope == null)
+            capturesScope = statement != null && declaresClosure(statement);
+        return capturesScope;
+    }
+
+    /** Whether the node declares a method or class, anonymous or not. */
+    private static boolean declaresClosure(Node node) {
+        if (node instanceof BSHMethodDeclaration
+                || node instanceof BSHClassDeclaration)
+            return true;
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            Node child = node.jjtGetChild(i);
+            if (node instanceof BSHAllocationExpression
+                    && child instanceof BSHBlock)
+                return true;
+            if (declaresClosure(child))
+                return true;
+        }
+        return false;
+    }
+
 }
@@ -41,7 +41,9 @@ class BSHImportDeclaration extends SimpleNode
         throws EvalError
     {
         NameSpace namespace = callstack.top();
-        BSHAmbiguousName ambigName = (BSHAmbiguousName) jjtGetChild(0);
+        // a super import has no name
+        BSHAmbiguousName ambigName = superImport
+            ? null : (BSHAmbiguousName) jjtGetChild(0);
         if ( superImport ) try {
             namespace.doSuperImport();
         } catch ( UtilEvalError e ) {
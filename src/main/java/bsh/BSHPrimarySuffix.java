@@ -44,6 +44,8 @@ class BSHPrimarySuffix extends SimpleNode
     public String field;
     public boolean slice = false, step = false,
         hasLeftIndex = false, hasRightIndex = false;
+    /** The field or getter last read through this suffix. */
+    private transient Specialization.Site<Specialization.Member> memberSite;
 
     BSHPrimarySuffix(int id) { super(id); }
 
@@ -157,11 +159,16 @@ class BSHPrimarySuffix extends SimpleNode
                     return new Primitive(Array.getLength(obj));
 
             // field access
-            if ( jjtGetNumChildren() == 0 )
-                if ( toLHS )
-                    return Reflect.getLHSObjectField(obj, field);
-                else
-                    return Reflect.getObjectFieldValue( obj, field );
+            if ( jjtGetNumChildren() == 0 ) {
+                Specialization.Member member = member( obj );
+                if ( toLHS ) {
+                    LHS lhs = member == null ? null : member.toLHS( obj );
+                    return lhs != null ? lhs
+                        : Reflect.getLHSObjectField( obj, field );
+                }
+                return member != null ? member.get( obj )
+                    : Reflect.getObjectFieldValue( obj, field );
+            }
 
             // Method invocation
             // (LHS or non LHS evaluation can both encounter method calls)
@@ -205,6 +212,21 @@ class BSHPrimarySuffix extends SimpleNode
         }
     }
 
+    /**
+        The field or getter read for the class of the object, specialized
+        when first seen.
+        @return the member or null to resolve it by name
+    */
+    private Specialization.Member member( Object obj ) throws UtilEvalError {
+        Specialization.Site<Specialization.Member> site = memberSite;
+        if ( site == null )
+            memberSite = site = new Specialization.Site<>();
+        Specialization.Member found = site.get( obj );
+        if ( found == null && site.isOpen() )
+            site.install( found = Specialization.Member.resolve( obj, field ) );
+        return found;
+    }
+
     /**
     */
     static int getIndexAux(Object obj, int idx, CallStack callstack,
@@ -220,7 +242,8 @@ class BSHPrimarySuffix extends SimpleNode
                     indexVal, Integer.TYPE, Types.ASSIGNMENT );
             index = ((Primitive) indexVal).intValue();
         } catch( UtilEvalError e ) {
-            Interpreter.debug("doIndex: "+e);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("doIndex: "+e);
             throw e.toEvalError(
                 "Arrays may only be indexed by integer types.",
                 callerInfo, callstack );
@@ -260,6 +283,19 @@ class BSHPrimarySuffix extends SimpleNode
                 }
                 return Reflect.getObjectProperty(obj, key);
             }
+            // plain index access for lists
+            if ( obj instanceof List && !this.slice ) {
+                int index = getIndexAux( obj, 0, callstack, interpreter, this );
+                if ( 0 > index )
+                    index += ((List) obj).size();
+                if ( toLHS )
+                    return new LHS(obj, index);
+                try {
+                    return BshArray.getIndex(obj, index);
+                } catch ( UtilEvalError e ) {
+                    throw e.toEvalError("Error array get index", this, callstack);
+                }
+            }
         }
 
         Class<?> cls = obj.getClass();
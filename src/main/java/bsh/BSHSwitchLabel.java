@@ -29,6 +29,8 @@ package bsh;
 
 class BSHSwitchLabel extends SimpleNode {
     boolean isDefault;
+    /** The enum constant named by this label, last resolved */
+    private transient Enum<?> enumConstant;
 
     public BSHSwitchLabel(int id) { super(id); }
 
@@ -40,4 +42,69 @@ class BSHSwitchLabel extends SimpleNode {
         SimpleNode label = ((SimpleNode)jjtGetChild(0));
         return label.eval( callstack, interpreter );
     }
+
+    /**
+        Evaluate the label of a switch on a value of an enum type.
+        As in Java a simple name labels the enum constant of that name,
+        any other label is evaluated as usual.
+    */
+    public Object evalEnum( Class<?> enumType,
+        CallStack callstack, Interpreter interpreter) throws EvalError
+    {
+        Enum<?> constant = enumConstant;
+        if ( constant != null && constant.getDeclaringClass() == enumType )
+            return constant;
+        String name = getSimpleName();
+        if ( name != null )
+            for ( Object value : enumType.getEnumConstants() )
+                if ( ((Enum<?>)value).name().equals(name) )
+                    return enumConstant = (Enum<?>)value;
+        return eval( callstack, interpreter );
+    }
+
+    /**
+        True if the label is a compile-time constant, built from literals
+        with unary and binary operators only.
+    */
+    boolean isConstant() {
+        return !isDefault && isConstant(jjtGetChild(0));
+    }
+
+    private static boolean isConstant(Node node) {
+        if ( node instanceof BSHLiteral )
+            return true;
+        if ( node instanceof BSHAssignment )
+            return ((BSHAssignment)node).operator == null
+                && node.jjtGetNumChildren() == 1
+                && isConstant(node.jjtGetChild(0));
+        if ( node instanceof BSHPrimaryExpression )
+            return node.jjtGetNumChildren() == 1
+                && isConstant(node.jjtGetChild(0));
+        if ( node instanceof BSHUnaryExpression ) {
+            int kind = ((BSHUnaryExpression)node).kind;
+            return kind != ParserConstants.INCR
+                && kind != ParserConstants.DECR
+                && isConstant(node.jjtGetChild(0));
+        }
+        if ( node instanceof BSHBinaryExpression )
+            return node.jjtGetNumChildren() == 2
+                && isConstant(node.jjtGetChild(0))
+                && isConstant(node.jjtGetChild(1));
+        return false;
+    }
+
+    /** The label if it is a simple name, otherwise null. */
+    String getSimpleName() {
+        if ( isDefault )
+            return null;
+        Node node = jjtGetChild(0);
+        while ( ( node instanceof BSHAssignment
+                || node instanceof BSHPrimaryExpression )
+                && node.jjtGetNumChildren() == 1 )
+            node = node.jjtGetChild(0);
+        if ( node instanceof BSHAmbiguousName
+                && !Name.isCompound(((BSHAmbiguousName)node).text) )
+            return ((BSHAmbiguousName)node).text;
+        return null;
+    }
 }
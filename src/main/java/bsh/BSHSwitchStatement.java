@@ -27,84 +27,107 @@
 
 package bsh;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 class BSHSwitchStatement
     extends SimpleNode
     implements ParserConstants
 {
+    /** Dispatch table over the case labels, built on first execution. */
+    private transient Dispatch dispatch;
 
     public BSHSwitchStatement(int id) { super(id); }
 
     public Object eval( CallStack callstack, Interpreter interpreter )
         throws EvalError
     {
-        int numchild = jjtGetNumChildren();
-        int child = 0;
-        SimpleNode switchExp = ((SimpleNode)jjtGetChild(child++));
+        SimpleNode switchExp = ((SimpleNode)jjtGetChild(0));
         Object switchVal = switchExp.eval( callstack, interpreter );
 
-        // import enum constants
-        if ( Primitive.unwrap(switchVal) != null && switchVal.getClass().isEnum() )
-            callstack.top().importStatic( switchVal.getClass() );
+        if ( jjtGetNumChildren() < 2 )
+            throw new EvalError("Empty switch statement.", this, callstack );
+
+        Dispatch table = dispatch;
+        if ( table == null )
+            dispatch = table = Dispatch.build( this, callstack, interpreter );
+
+        ReturnControl returnControl;
+        int label = table.lookup( switchVal );
+        if ( label == Dispatch.SCAN )
+            returnControl = scan( switchVal, switchExp, callstack, interpreter );
+        else if ( label == Dispatch.NONE )
+            returnControl = null;
+        else
+            returnControl = execute( label + 1, callstack, interpreter );
+
+        if ( returnControl != null && returnControl.kind == RETURN )
+            return returnControl;
+        else
+            return Primitive.VOID;
+    }
 
+    /**
+        Find the matching label by evaluating each label in turn.
+        The first label which is the default or equals the switch value
+        is taken.
+    */
+    private ReturnControl scan( Object switchVal, SimpleNode switchExp,
+        CallStack callstack, Interpreter interpreter ) throws EvalError
+    {
+        int numchild = jjtGetNumChildren();
+        int child = 1;
 
-        /*
-            Note: this could be made clearer by adding an inner class for the
-            cases and an object context for the child traversal.
-        */
-        // first label
-        BSHSwitchLabel label;
-        Object node;
-        ReturnControl returnControl=null;
+        // enum constant labels are resolved against the enum type
+        Class<?> enumType = switchVal instanceof Enum
+            ? ((Enum<?>)switchVal).getDeclaringClass() : null;
 
         // get the first label
-        if ( child >= numchild )
-            throw new EvalError("Empty switch statement.", this, callstack );
-        label = ((BSHSwitchLabel)jjtGetChild(child++));
+        BSHSwitchLabel label = ((BSHSwitchLabel)jjtGetChild(child++));
 
-        // while more labels or blocks and haven't hit return control
-        while ( child < numchild && returnControl == null )
+        while ( child < numchild )
         {
             // if label is default or equals switchVal
             if ( label.isDefault
                 || primitiveEquals(
-                    switchVal, label.eval( callstack, interpreter ),
+                    switchVal, enumType == null
+                        ? label.eval( callstack, interpreter )
+                        : label.evalEnum( enumType, callstack, interpreter ),
                     callstack, switchExp )
                 )
+                return execute( child, callstack, interpreter );
+
+            // skip nodes until next label
+            while ( child < numchild )
             {
-                // execute nodes, skipping labels, until a break or return
-                while ( child < numchild )
-                {
-                    node = jjtGetChild(child++);
-                    if ( node instanceof BSHSwitchLabel )
-                        continue;
-                    // eval it
-                    Object value =
-                        ((SimpleNode)node).eval( callstack, interpreter );
-
-                    // should check to disallow continue here?
-                    if ( value instanceof ReturnControl ) {
-                        returnControl = (ReturnControl)value;
-                        break;
-                    }
-                }
-            } else
-            {
-                // skip nodes until next label
-                while ( child < numchild )
-                {
-                    node = jjtGetChild(child++);
-                    if ( node instanceof BSHSwitchLabel ) {
-                        label = (BSHSwitchLabel)node;
-                        break;
-                    }
+                Node node = jjtGetChild(child++);
+                if ( node instanceof BSHSwitchLabel ) {
+                    label = (BSHSwitchLabel)node;
+                    break;
                 }
             }
         }
+        return null;
+    }
 
-        if ( returnControl != null && returnControl.kind == RETURN )
-            return returnControl;
-        else
-            return Primitive.VOID;
+    /** Execute nodes from child, skipping labels, until a break or return. */
+    private ReturnControl execute( int child,
+        CallStack callstack, Interpreter interpreter ) throws EvalError
+    {
+        int numchild = jjtGetNumChildren();
+        while ( child < numchild )
+        {
+            Node node = jjtGetChild(child++);
+            if ( node instanceof BSHSwitchLabel )
+                continue;
+            Object value = ((SimpleNode)node).eval( callstack, interpreter );
+
+            // should check to disallow continue here?
+            if ( value instanceof ReturnControl )
+                return (ReturnControl)value;
+        }
+        return null;
     }
 
     /**
@@ -133,5 +156,197 @@ class BSHSwitchStatement
         else
             return switchVal.equals( targetVal );
     }
-}
 
+    /**
+        Maps the switch value straight to the child index of the label to
+        execute from, when every case label is a constant. Integral labels
+        are held in an array indexed by value when dense, else in a hash
+        map, string and enum constant labels in a hash map. Values of any
+        other kind fall back to scanning the labels in turn, which keeps
+        the comparison rules and errors of primitiveEquals. As with the
+        scan a default label placed ahead of the matching label is taken.
+    */
+    private static final class Dispatch {
+        /** No table applies to the value, scan the labels. */
+        static final int SCAN = -2;
+        /** No label matches the value. */
+        static final int NONE = -1;
+        /** Table for switches whose labels are not all constants. */
+        static final Dispatch LINEAR =
+            new Dispatch(Kind.LINEAR, NONE, null, null, 0);
+
+        enum Kind { LINEAR, INTEGRAL, STRING, ENUM }
+
+        final Kind kind;
+        final int defaultIndex;
+        /** Sparse integral, string and enum constant name labels. */
+        final Map<Object, Integer> labels;
+        /** Dense integral labels, child index by value - min, or NONE. */
+        final int[] table;
+        final long min;
+        /** The last enum type found to declare all the label names. */
+        private volatile Class<?> enumType;
+
+        private Dispatch(Kind kind, int defaultIndex,
+            Map<Object, Integer> labels, int[] table, long min) {
+            this.kind = kind;
+            this.defaultIndex = defaultIndex;
+            this.labels = labels;
+            this.table = table;
+            this.min = min;
+        }
+
+        static Dispatch build( BSHSwitchStatement node,
+            CallStack callstack, Interpreter interpreter )
+        {
+            int numchild = node.jjtGetNumChildren();
+            int defaultIndex = NONE;
+            boolean constants = true, names = true;
+            for ( int i = 1; i < numchild; i++ )
+                if ( node.jjtGetChild(i) instanceof BSHSwitchLabel ) {
+                    BSHSwitchLabel label = (BSHSwitchLabel)node.jjtGetChild(i);
+                    if ( label.isDefault ) {
+                        if ( defaultIndex == NONE )
+                            defaultIndex = i;
+                        continue;
+                    }
+                    constants &= label.isConstant();
+                    names &= label.getSimpleName() != null;
+                }
+            if ( names && !constants )
+                return enumLabels( node, defaultIndex );
+            if ( !constants )
+                return LINEAR;
+            try {
+                return constantLabels(
+                    node, defaultIndex, callstack, interpreter );
+            } catch ( EvalError e ) {
+                // let the scan report it if the label is ever reached
+                return LINEAR;
+            }
+        }
+
+        private static Dispatch enumLabels(
+            BSHSwitchStatement node, int defaultIndex )
+        {
+            Map<Object, Integer> labels = new HashMap<>();
+            for ( int i = 1; i < node.jjtGetNumChildren(); i++ )
+                if ( node.jjtGetChild(i) instanceof BSHSwitchLabel ) {
+                    BSHSwitchLabel label = (BSHSwitchLabel)node.jjtGetChild(i);
+                    if ( !label.isDefault )
+                        labels.putIfAbsent( label.getSimpleName(), i );
+                }
+            return new Dispatch(Kind.ENUM, defaultIndex, labels, null, 0);
+        }
+
+        private static Dispatch constantLabels( BSHSwitchStatement node,
+            int defaultIndex, CallStack callstack, Interpreter interpreter )
+            throws EvalError
+        {
+            Map<Object, Integer> labels = new HashMap<>();
+            boolean integral = true, strings = true;
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for ( int i = 1; i < node.jjtGetNumChildren(); i++ ) {
+                if ( !(node.jjtGetChild(i) instanceof BSHSwitchLabel) )
+                    continue;
+                BSHSwitchLabel label = (BSHSwitchLabel)node.jjtGetChild(i);
+                if ( label.isDefault )
+                    continue;
+                Object value = label.eval( callstack, interpreter );
+                if ( isIntegral(value) ) {
+                    long key = longValue(value);
+                    min = Math.min(min, key);
+                    max = Math.max(max, key);
+                    labels.putIfAbsent( key, i );
+                    strings = false;
+                } else if ( value instanceof String ) {
+                    labels.putIfAbsent( value, i );
+                    integral = false;
+                } else
+                    return LINEAR;
+            }
+            if ( labels.isEmpty() || !integral && !strings )
+                return LINEAR;
+            if ( strings )
+                return new Dispatch(Kind.STRING, defaultIndex, labels, null, 0);
+            if ( max - min < 0 || max - min >= 4L * labels.size() + 16 )
+                return new Dispatch(
+                    Kind.INTEGRAL, defaultIndex, labels, null, 0);
+
+            int[] table = new int[(int)(max - min) + 1];
+            Arrays.fill( table, NONE );
+            for ( Map.Entry<Object, Integer> label : labels.entrySet() )
+                table[(int)((Long)label.getKey() - min)] = label.getValue();
+            return new Dispatch(Kind.INTEGRAL, defaultIndex, null, table, min);
+        }
+
+        /** The child index of the label to execute from, NONE or SCAN. */
+        int lookup( Object value ) {
+            Integer index;
+            switch ( kind ) {
+                case INTEGRAL:
+                    if ( !isIntegral(value) )
+                        return SCAN;
+                    long key = longValue(value);
+                    if ( table != null ) {
+                        long offset = key - min;
+                        return start( offset >= 0 && offset < table.length
+                            ? table[(int)offset] : NONE );
+                    }
+                    index = labels.get(key);
+                    break;
+                case STRING:
+                    if ( !(value instanceof String) )
+                        return SCAN;
+                    index = labels.get(value);
+                    break;
+                case ENUM:
+                    if ( !(value instanceof Enum) )
+                        return SCAN;
+                    Class<?> type = ((Enum<?>)value).getDeclaringClass();
+                    if ( type != enumType ) {
+                        if ( !declaresAll(type) )
+                            return SCAN;
+                        enumType = type;
+                    }
+                    index = labels.get(((Enum<?>)value).name());
+                    break;
+                default:
+                    return SCAN;
+            }
+            return start( index == null ? NONE : index );
+        }
+
+        /** The default label is taken first if placed ahead of the match. */
+        private int start( int index ) {
+            if ( index == NONE || defaultIndex != NONE && defaultIndex < index )
+                return defaultIndex;
+            return index;
+        }
+
+        /** Whether every label names a constant of the enum type. */
+        private boolean declaresAll( Class<?> type ) {
+            int found = 0;
+            for ( Object constant : type.getEnumConstants() )
+                if ( labels.containsKey(((Enum<?>)constant).name()) )
+                    found++;
+            return found == labels.size();
+        }
+
+        private static boolean isIntegral( Object value ) {
+            if ( value instanceof Primitive )
+                value = ((Primitive)value).getValue();
+            return value instanceof Integer || value instanceof Character
+                || value instanceof Long || value instanceof Short
+                || value instanceof Byte;
+        }
+
+        private static long longValue( Object value ) {
+            if ( value instanceof Primitive )
+                value = ((Primitive)value).getValue();
+            if ( value instanceof Character )
+                return (Character)value;
+            return ((Number)value).longValue();
+        }
+    }
+}
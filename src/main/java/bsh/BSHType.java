@@ -31,7 +31,6 @@ package bsh;
 import java.lang.reflect.Array;
 
 class BSHType extends SimpleNode
-    implements BshClassManager.Listener
 {
     /**
         baseType is used during evaluation of full type and retained for the
@@ -46,9 +45,12 @@ class BSHType extends SimpleNode
     private int arrayDims;
 
     /**
-        Internal cache of the type.  Cleared on classloader change.
+        Internal cache of the type.  Valid while the version of the class
+        manager which resolved it is unchanged.
     */
     private Class type;
+    private transient BshClassManager typeClassManager;
+    private long typeVersion;
 
     String descriptor;
 
@@ -138,7 +140,9 @@ class BSHType extends SimpleNode
         throws EvalError
     {
         // return cached type if available
-        if ( type != null )
+        BshClassManager bcm = interpreter.getClassManager();
+        if ( type != null && typeClassManager == bcm
+                && typeVersion == bcm.getVersion() )
             return type;
 
         //  first node will either be PrimitiveType or AmbiguousName
@@ -173,9 +177,8 @@ class BSHType extends SimpleNode
         } else
             type = baseType;
 
-        // hack... sticking to first interpreter that resolves this
-        // see comments on type instance variable
-        interpreter.getClassManager().addListener(this);
+        typeClassManager = bcm;
+        typeVersion = bcm.getVersion();
 
         return type;
     }
@@ -196,11 +199,6 @@ class BSHType extends SimpleNode
         return arrayDims;
     }
 
-    public void classLoaderChanged() {
-        type = null;
-        baseType = null;
-    }
-
     public static String getTypeDescriptor( Class clas )
     {
         if ( clas == Boolean.TYPE ) return "Z";
@@ -45,6 +45,18 @@ class BSHUnaryExpression extends SimpleNode implements ParserConstants
         // just do the unary operation for the value.
         try {
             if ( kind == INCR || kind == DECR ) {
+                // typed primitive variables are updated in place
+                PrimitiveVariable var =
+                    PrimitiveVariable.assignable( node, callstack );
+                int delta = kind == INCR ? 1 : -1;
+                if ( var != null && isDiscarded() ) {
+                    if ( var.add( delta ) )
+                        return Primitive.VOID;
+                } else if ( var != null ) {
+                    Object value = var.increment( delta, postfix );
+                    if ( value != null )
+                        return value;
+                }
                 LHS lhs = ((BSHPrimaryExpression)node).toLHS(
                     callstack, interpreter );
                 return lhsUnaryOperation( lhs, interpreter.getStrictJava() );
@@ -59,7 +71,8 @@ class BSHUnaryExpression extends SimpleNode implements ParserConstants
     private Object lhsUnaryOperation( LHS lhs, boolean strictJava )
         throws UtilEvalError
     {
-        Interpreter.debug("lhsUnaryOperation");
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("lhsUnaryOperation");
         Object prevalue, postvalue;
         prevalue = lhs.getValue();
         postvalue = unaryOperation(prevalue, kind);
@@ -13,6 +13,7 @@
  * limitations under the License. */
 package bsh;
 
+import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.util.AbstractList;
 import java.util.ArrayDeque;
@@ -26,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.RandomAccess;
 import java.util.Map.Entry;
@@ -42,10 +44,29 @@ public class BshArray {
      * @throws UtilTargetError wrapped Index out of bounds */
     public static Object getIndex(Object array, int index)
             throws UtilTargetError {
-        Interpreter.debug("getIndex: ", array, ", index=", index);
         try {
+            if ( array instanceof Object[] )
+                return Primitive.wrap( ((Object[]) array)[index],
+                    Types.arrayElementType(array.getClass()) );
             if ( array instanceof List )
                 return ((List<?>) array).get(index);
+            if ( array instanceof int[] )
+                return new Primitive(((int[]) array)[index]);
+            if ( array instanceof double[] )
+                return new Primitive(((double[]) array)[index]);
+            if ( array instanceof long[] )
+                return new Primitive(((long[]) array)[index]);
+            if ( array instanceof byte[] )
+                return new Primitive(((byte[]) array)[index]);
+            if ( array instanceof char[] )
+                return new Primitive(((char[]) array)[index]);
+            if ( array instanceof float[] )
+                return new Primitive(((float[]) array)[index]);
+            if ( array instanceof short[] )
+                return new Primitive(((short[]) array)[index]);
+            if ( array instanceof boolean[] )
+                return ((boolean[]) array)[index]
+                    ? Primitive.TRUE : Primitive.FALSE;
             Object val = Array.get(array, index);
             return Primitive.wrap( val, Types.arrayElementType(array.getClass()) );
         } catch( IndexOutOfBoundsException e1 ) {
@@ -70,7 +91,7 @@ public class BshArray {
             val = Primitive.unwrap(val);
             if ( array instanceof List )
                 ((List<Object>) array).set(index, val);
-            else
+            else if ( !setElement(array, index, val) )
                 Array.set(array, index, val);
         }
         catch( IllegalArgumentException e1 ) {
@@ -86,6 +107,67 @@ public class BshArray {
         }
     }
 
+    /** Get the element of an array at index, as Array.get does but without
+     * reflection for arrays of primitives and objects.
+     * @param array to retrieve from
+     * @param index of the element to retrieve
+     * @return the element, primitives boxed */
+    public static Object get(Object array, int index) {
+        if ( array instanceof Object[] )
+            return ((Object[]) array)[index];
+        if ( array instanceof int[] )
+            return ((int[]) array)[index];
+        if ( array instanceof double[] )
+            return ((double[]) array)[index];
+        if ( array instanceof long[] )
+            return ((long[]) array)[index];
+        if ( array instanceof byte[] )
+            return ((byte[]) array)[index];
+        if ( array instanceof char[] )
+            return ((char[]) array)[index];
+        if ( array instanceof float[] )
+            return ((float[]) array)[index];
+        if ( array instanceof short[] )
+            return ((short[]) array)[index];
+        if ( array instanceof boolean[] )
+            return ((boolean[]) array)[index];
+        return Array.get(array, index);
+    }
+
+    /** Store a value of the exact element type without reflection.
+     * Other values are left to Array.set for its widening conversions
+     * and errors.
+     * @param array to set value for
+     * @param index of the element to set
+     * @param val the unwrapped value
+     * @return whether the value was stored */
+    private static boolean setElement(Object array, int index, Object val) {
+        if ( array instanceof Object[] ) {
+            if ( val != null && !array.getClass()
+                    .getComponentType().isInstance(val) )
+                return false;
+            ((Object[]) array)[index] = val;
+        } else if ( array instanceof int[] && val instanceof Integer )
+            ((int[]) array)[index] = (Integer) val;
+        else if ( array instanceof double[] && val instanceof Double )
+            ((double[]) array)[index] = (Double) val;
+        else if ( array instanceof long[] && val instanceof Long )
+            ((long[]) array)[index] = (Long) val;
+        else if ( array instanceof byte[] && val instanceof Byte )
+            ((byte[]) array)[index] = (Byte) val;
+        else if ( array instanceof char[] && val instanceof Character )
+            ((char[]) array)[index] = (Character) val;
+        else if ( array instanceof float[] && val instanceof Float )
+            ((float[]) array)[index] = (Float) val;
+        else if ( array instanceof short[] && val instanceof Short )
+            ((short[]) array)[index] = (Short) val;
+        else if ( array instanceof boolean[] && val instanceof Boolean )
+            ((boolean[]) array)[index] = (Boolean) val;
+        else
+            return false;
+        return true;
+    }
+
     /** Slice the supplied list for range and step.
      * @param list to slice
      * @param from start index inclusive
@@ -101,11 +183,8 @@ public class BshArray {
             return list.subList(0, 0);
         if ( step == 0 || step == 1 )
             return list.subList(from, to);
-        List<Integer> slices = new ArrayList<>();
-        for ( int i = 0; i < length; i++ )
-            if ( i % step == 0 )
-                slices.add(step < 0 ? length-1-i : i+from);
-        return new SteppedSubList(list, slices);
+        return new SteppedSubList(list, step < 0 ? length-1 : from,
+            step, (length-1) / Math.abs(step) + 1);
     }
 
     /** Slice the supplied array for range and step.
@@ -115,7 +194,7 @@ public class BshArray {
      * @param step size of step or 0 if no step
      * @return a new array instance sliced */
     public static Object slice(Object arr, int from, int to, int step) {
-        Class<?> toType = Types.arrayElementType(arr.getClass());
+        Class<?> toType = arr.getClass().getComponentType();
         int length = Array.getLength(arr);
         if ( to > length ) to = length;
         if ( 0 > from ) from = 0;
@@ -127,32 +206,86 @@ public class BshArray {
             System.arraycopy(arr, from, toArray, 0, length);
             return toArray;
         }
-        Object[] tmp = new Object[(int)Math.ceil((0.0+length)/Math.abs(step))];
-        for ( int i = 0, j = 0; i < length; i++ )
-            if ( i % step == 0 )
-                tmp[j++] = Array.get(arr, step < 0 ? length-1-i : i+from);
-        Object toArray = Array.newInstance(toType, tmp.length);
-        copy(toType, toArray, (Object)tmp);
+        int first = step < 0 ? length-1 : from;
+        length = (length-1) / Math.abs(step) + 1;
+        Object toArray = Array.newInstance(toType, length);
+        step(arr, first, step, toArray, length);
         return toArray;
     }
 
+    /** Copy every step element of an array to an array of the same type
+     * with a plain loop for its element type.
+     * @param src the array to copy from
+     * @param first index of the first element to copy
+     * @param step size of step between the elements copied
+     * @param dst the array to copy to
+     * @param length number of elements to copy */
+    private static void step(Object src, int first, int step, Object dst, int length) {
+        if ( src instanceof Object[] ) {
+            Object[] from = (Object[]) src, to = (Object[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof int[] ) {
+            int[] from = (int[]) src, to = (int[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof double[] ) {
+            double[] from = (double[]) src, to = (double[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof long[] ) {
+            long[] from = (long[]) src, to = (long[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof byte[] ) {
+            byte[] from = (byte[]) src, to = (byte[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof char[] ) {
+            char[] from = (char[]) src, to = (char[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof float[] ) {
+            float[] from = (float[]) src, to = (float[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else if ( src instanceof short[] ) {
+            short[] from = (short[]) src, to = (short[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        } else {
+            boolean[] from = (boolean[]) src, to = (boolean[]) dst;
+            for ( int i = 0, j = first; i < length; i++, j += step )
+                to[i] = from[j];
+        }
+    }
+
     /** Repeat the contents of a list a number of times.
      * @param list the list to repeat
      * @param times number of repetitions
-     * @return a new list instance with repeated contents */
+     * @return a new list instance with repeated contents, an ArrayList for
+     *      array lists, other lists repeated more than once are a view of
+     *      the contents copied when modified */
     public static Object repeat(List<Object> list, int times) {
         if ( times < 1 )
             if (list instanceof Queue)
                 return new LinkedList<>();
             else
                 return new ArrayList<>(0);
-        List<Object> lst = list instanceof Queue
-                            ? new LinkedList<>(list)
-                            : new ArrayList<>(list);
-        if ( times == 1 )
+        if ( list instanceof Queue ) {
+            List<Object> lst = new LinkedList<>(list);
+            while ( times-- > 1 )
+                lst.addAll(list);
             return lst;
-        while ( times-- > 1 )
-            lst.addAll(list);
+        }
+        if ( times > 1 && !(list instanceof ArrayList) && !list.isEmpty() )
+            return new RepeatedList(list.toArray(), times);
+        Object[] elements = list.toArray();
+        List<Object> lst = new ArrayList<>(
+            Math.multiplyExact(elements.length, times));
+        while ( times-- > 0 )
+            for ( Object element : elements )
+                lst.add(element);
         return lst;
     }
 
@@ -181,9 +314,13 @@ public class BshArray {
      * @param rhs 2nd list
      * @return a new list instance of concatenated contents. */
     public static Object concat(List<?> lhs, List<?> rhs) {
-        List<Object> list = lhs instanceof Queue
-                        ? new LinkedList<>(lhs)
-                        : new ArrayList<>(lhs);
+        List<Object> list;
+        if ( lhs instanceof Queue )
+            list = new LinkedList<>(lhs);
+        else {
+            list = new ArrayList<>(lhs.size() + rhs.size());
+            list.addAll(lhs);
+        }
         list.addAll(rhs);
         return list;
     }
@@ -235,36 +372,15 @@ public class BshArray {
             length = Array.getLength(from[0]),
             total = from.length > 1 ? Array.getLength(to) : length;
         if ( Types.arrayDimensions(to.getClass()) == 1 ) {
-            for ( int i = 0; i < total; i++ ) {
-                Object value = Array.get(from[f], fi++);
-                try {
-                    value = Primitive.unwrap(
-                            Types.castObject(value, toType, Types.CAST));
-                } catch (UtilEvalError e) { /* ignore cast errors */ }
-                if ( Byte.TYPE == toType )
-                    Array.setByte(to, i, (byte) value);
-                else if ( Short.TYPE == toType )
-                    Array.setShort(to, i, (short) value);
-                else if ( Integer.TYPE == toType )
-                    Array.setInt(to, i, (int) value);
-                else if ( Long.TYPE == toType )
-                    Array.setLong(to, i, (long) value);
-                else if ( Float.TYPE == toType )
-                    Array.setFloat(to, i, (float) value);
-                else if ( Double.TYPE == toType )
-                    Array.setDouble(to, i, (double) value);
-                else if ( Character.TYPE == toType )
-                    Array.setChar(to, i, (char) value);
-                else if ( Boolean.TYPE == toType )
-                    Array.setBoolean(to, i, (boolean) value);
-                else
-                    Array.set(to, i, value);
-
-                // concatenate multiple from arrays
-                if ( length < total && fi == length && f+1 < from.length ) {
-                    length = Array.getLength(from[++f]);
-                    fi = 0;
-                }
+            int i = 0;
+            for ( Object frm : from ) {
+                length = Array.getLength(frm);
+                if ( toType.isPrimitive()
+                        && frm.getClass().getComponentType() == toType )
+                    System.arraycopy(frm, 0, to, i, length);
+                else for ( int j = 0; j < length; j++ )
+                    set(toType, to, i + j, get(frm, j));
+                i += length;
             }
         } else for ( int i = 0; i < total; i++ ) {
             // concatenate multiple from arrays
@@ -293,6 +409,36 @@ public class BshArray {
         }
     }
 
+    /** Cast a value to the element type and store it in a one dimensional array.
+     * @param toType the element type to cast to
+     * @param to the destination array
+     * @param i the index of the element to set
+     * @param value the value to cast */
+    private static void set(Class<?> toType, Object to, int i, Object value) {
+        try {
+            value = Primitive.unwrap(
+                    Types.castObject(value, toType, Types.CAST));
+        } catch (UtilEvalError e) { /* ignore cast errors */ }
+        if ( Byte.TYPE == toType )
+            Array.setByte(to, i, (byte) value);
+        else if ( Short.TYPE == toType )
+            Array.setShort(to, i, (short) value);
+        else if ( Integer.TYPE == toType )
+            Array.setInt(to, i, (int) value);
+        else if ( Long.TYPE == toType )
+            Array.setLong(to, i, (long) value);
+        else if ( Float.TYPE == toType )
+            Array.setFloat(to, i, (float) value);
+        else if ( Double.TYPE == toType )
+            Array.setDouble(to, i, (double) value);
+        else if ( Character.TYPE == toType )
+            Array.setChar(to, i, (char) value);
+        else if ( Boolean.TYPE == toType )
+            Array.setBoolean(to, i, (boolean) value);
+        else
+            Array.set(to, i, value);
+    }
+
     /** Relaxed implementation of the java 9 Map.ofEntries.
      * LinkedHashMap ensures element order remains as supplied.
      * @param entries array of Map.Entry elements
@@ -371,26 +517,71 @@ public class BshArray {
         return toArray;
     }
 
-    /** Provides a view of a parent list for a specific list of parent indexes (steps).
-     * Based on @see ArrayList.SubList. */
+    /** Provides a view of a parent list for a range of parent indexes (steps).
+     * The parent indexes are computed from the first index and the step until
+     * elements are added or removed through the view, from then on they are
+     * kept in an array. Based on @see ArrayList.SubList. */
     private static class SteppedSubList extends AbstractList<Object> implements RandomAccess {
         private final List<Object> parent;
-        private final List<Integer> steps;
+        private final int first;
+        private final int step;
+        private int size;
+        private int[] steps;
 
         /** Default constructor.
          * @param parent the referenced parent list
-         * @param steps a list of parent indexes for this view. */
-        SteppedSubList(List<Object> parent, List<Integer> steps) {
+         * @param first the parent index of the first element
+         * @param step the distance between parent indexes
+         * @param size the number of elements in this view */
+        SteppedSubList(List<Object> parent, int first, int step, int size) {
+            this(parent, first, step, size, null);
+        }
+
+        /** Constructor with the parent indexes of the view.
+         * @param parent the referenced parent list
+         * @param first the parent index of the first element
+         * @param step the distance between parent indexes
+         * @param size the number of elements in this view
+         * @param steps the parent indexes or null if computed */
+        private SteppedSubList(List<Object> parent, int first, int step, int size, int[] steps) {
             this.parent = parent;
+            this.first = first;
+            this.step = step;
+            this.size = size;
             this.steps = steps;
         }
 
+        /** The parent index of the step at the supplied index.
+         * @param index of the step
+         * @return the parent index */
+        private int step(int index) {
+            if ( index < 0 || index >= this.size )
+                throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + this.size);
+            return null == this.steps
+                ? this.first + index * this.step
+                : this.steps[index];
+        }
+
+        /** The parent indexes of the steps for modification.
+         * @param capacity the number of steps required
+         * @return the parent index array */
+        private int[] steps(int capacity) {
+            if ( null == this.steps ) {
+                this.steps = new int[capacity];
+                for ( int i = 0; i < this.size; i++ )
+                    this.steps[i] = this.first + i * this.step;
+            } else if ( this.steps.length < capacity )
+                this.steps = Arrays.copyOf(this.steps, capacity + (capacity >> 1));
+            return this.steps;
+        }
+
         /** Overridden method to set the parent value for the parent index of
          * the step at the supplied index.
          * {@inheritDoc} */
         @Override
         public Object set(int index, Object e) {
-            return this.parent.set(this.steps.get(index), e);
+            return this.parent.set(this.step(index), e);
         }
 
         /** Overridden method to get the parent value for the parent index of
@@ -398,14 +589,14 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public Object get(int index) {
-            return this.parent.get(this.steps.get(index));
+            return this.parent.get(this.step(index));
         }
 
         /** Overridden method to retrieve the size of the view.
          * {@inheritDoc} */
         @Override
         public int size() {
-            return this.steps.size();
+            return this.size;
         }
 
         /** Overridden method to add a value to the parent at the parent index of
@@ -413,13 +604,17 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public void add(int index, Object e) {
-            int idx = index == this.size()
-                    ? this.steps.get(index - 1) + 1
-                    : this.steps.get(index);
+            int idx = index == this.size
+                    ? this.step(index - 1) + 1
+                    : this.step(index);
             this.parent.add(idx, e);
-            for ( int i = index; i < this.size(); i++ )
-                this.steps.set(i, this.steps.get(i) + 1);
-            this.steps.add(index, idx);
+            int[] steps = this.steps(this.size + 1);
+            System.arraycopy(steps, index, steps, index + 1, this.size - index);
+            steps[index] = idx;
+            for ( int i = index + 1; i <= this.size; i++ )
+                steps[i]++;
+            this.size++;
+            this.modCount++;
         }
 
         /** Overridden method to remove a value from the parent at the parent index of
@@ -427,10 +622,12 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public Object remove(int index) {
-            int idx = this.steps.get(index);
-            for ( int i = index + 1; i < this.size(); i++ )
-                this.steps.set(i, this.steps.get(i) - 1);
-            this.steps.remove(index);
+            int idx = this.step(index);
+            int[] steps = this.steps(this.size);
+            for ( int i = index + 1; i < this.size; i++ )
+                steps[i - 1] = steps[i] - 1;
+            this.size--;
+            this.modCount++;
             return this.parent.remove(idx);
         }
 
@@ -438,7 +635,7 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public boolean addAll(Collection<? extends Object> c) {
-            return addAll(this.steps.size(), c);
+            return addAll(this.size, c);
         }
 
         /** Overridden method traverses supplied list and delegates to add method for each.
@@ -455,7 +652,13 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public List<Object> subList(int fromIndex, int toIndex) {
-            return new SteppedSubList(this.parent, this.steps.subList(fromIndex, toIndex));
+            if ( fromIndex < 0 || toIndex > this.size || fromIndex > toIndex )
+                throw new IndexOutOfBoundsException("fromIndex: " + fromIndex
+                    + ", toIndex: " + toIndex + ", Size: " + this.size);
+            return new SteppedSubList(this.parent,
+                this.first + fromIndex * this.step, this.step, toIndex - fromIndex,
+                null == this.steps ? null
+                    : Arrays.copyOfRange(this.steps, fromIndex, toIndex));
         }
 
         /** Overridden method delegates to list iterator method.
@@ -470,62 +673,69 @@ public class BshArray {
          * {@inheritDoc} */
         @Override
         public ListIterator<Object> listIterator(final int index) {
-            /** A copy of the list iterator to avoid concurrent modification issues. */
-            ListIterator<Integer> sliceIter = new ArrayList<>(this.steps).listIterator(index);
+            if ( index < 0 || index > this.size )
+                throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + this.size);
             return new ListIterator<Object>() {
+                int cursor = index;
                 int lastIndex = 0;
-                /** Overridden method delegates to the copy.
+                /** Overridden method compares the cursor to the view size.
                  * {@inheritDoc} */
                 @Override
                 public boolean hasNext() {
-                    return sliceIter.hasNext();
+                    return cursor < SteppedSubList.this.size;
                 }
 
                 /** Overridden method delegates to this view get method.
                  * {@inheritDoc} */
                 @Override
                 public Object next() {
-                    sliceIter.next();
-                    lastIndex = previousIndex();
+                    if ( !hasNext() )
+                        throw new NoSuchElementException();
+                    lastIndex = cursor++;
                     return SteppedSubList.this.get(lastIndex);
                 }
 
-                /** Overridden method delegates to the copy.
+                /** Overridden method compares the cursor to the start.
                  * {@inheritDoc} */
                 @Override
                 public boolean hasPrevious() {
-                    return sliceIter.hasPrevious();
+                    return cursor > 0;
                 }
 
                 /** Overridden method delegates to this view get method.
                  * {@inheritDoc} */
                 @Override
                 public Object previous() {
-                    sliceIter.previous();
-                    lastIndex = nextIndex();
+                    if ( !hasPrevious() )
+                        throw new NoSuchElementException();
+                    lastIndex = --cursor;
                     return SteppedSubList.this.get(lastIndex);
                 }
 
-                /** Overridden method delegates to the copy.
+                /** Overridden method returns the cursor.
                  * {@inheritDoc} */
                 @Override
                 public int nextIndex() {
-                    return sliceIter.nextIndex();
+                    return cursor;
                 }
 
-                /** Overridden method delegates to the copy.
+                /** Overridden method returns the index before the cursor.
                  * {@inheritDoc} */
                 @Override
                 public int previousIndex() {
-                    return sliceIter.previousIndex();
+                    return cursor - 1;
                 }
 
                 /** Overridden method delegates to this view remove method.
                  * {@inheritDoc} */
                 @Override
                 public void remove() {
+                    if ( lastIndex < 0 )
+                        throw new IllegalStateException();
                     SteppedSubList.this.remove(lastIndex);
-                    sliceIter.remove();
+                    if ( lastIndex < cursor )
+                        cursor--;
                     lastIndex = -1;
                 }
 
@@ -533,6 +743,8 @@ public class BshArray {
                  * {@inheritDoc} */
                 @Override
                 public void set(Object e) {
+                    if ( lastIndex < 0 )
+                        throw new IllegalStateException();
                     SteppedSubList.this.set(lastIndex, e);
                 }
 
@@ -540,11 +752,95 @@ public class BshArray {
                  * {@inheritDoc} */
                 @Override
                 public void add(Object e) {
+                    if ( lastIndex < 0 )
+                        throw new IllegalStateException();
                     SteppedSubList.this.add(lastIndex, e);
-                    sliceIter.add(steps.get(lastIndex));
+                    cursor++;
                     lastIndex = -1;
                 }
             };
         }
     }
+
+    /** Provides the elements of a list repeated a number of times without
+     * copying them for each repetition. The elements are those of the list
+     * when it was repeated, the view is copied to an ArrayList when it is
+     * first modified and serialized as an ArrayList. */
+    private static class RepeatedList extends AbstractList<Object>
+            implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Object[] elements;
+        private final int size;
+        private List<Object> copy;
+
+        /** Default constructor.
+         * @param elements the elements to repeat
+         * @param times number of repetitions */
+        RepeatedList(Object[] elements, int times) {
+            this.elements = elements;
+            this.size = Math.multiplyExact(elements.length, times);
+        }
+
+        /** The modifiable copy of this view.
+         * @return an ArrayList of the elements */
+        private List<Object> copy() {
+            if ( null == this.copy ) {
+                List<Object> list = new ArrayList<>(this.size);
+                List<Object> elements = Arrays.asList(this.elements);
+                for ( int i = 0; i < this.size; i += this.elements.length )
+                    list.addAll(elements);
+                this.copy = list;
+            }
+            return this.copy;
+        }
+
+        /** Overridden method to get the element of the repetition at the index.
+         * {@inheritDoc} */
+        @Override
+        public Object get(int index) {
+            if ( null != this.copy )
+                return this.copy.get(index);
+            if ( index < 0 || index >= this.size )
+                throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + this.size);
+            return this.elements[index % this.elements.length];
+        }
+
+        /** Overridden method to retrieve the size of the view.
+         * {@inheritDoc} */
+        @Override
+        public int size() {
+            return null == this.copy ? this.size : this.copy.size();
+        }
+
+        /** Overridden method delegates to the copy.
+         * {@inheritDoc} */
+        @Override
+        public Object set(int index, Object e) {
+            return this.copy().set(index, e);
+        }
+
+        /** Overridden method delegates to the copy.
+         * {@inheritDoc} */
+        @Override
+        public void add(int index, Object e) {
+            this.copy().add(index, e);
+            this.modCount++;
+        }
+
+        /** Overridden method delegates to the copy.
+         * {@inheritDoc} */
+        @Override
+        public Object remove(int index) {
+            Object e = this.copy().remove(index);
+            this.modCount++;
+            return e;
+        }
+
+        /** Serialize the elements as an ArrayList.
+         * @return an ArrayList of the elements */
+        private Object writeReplace() {
+            return new ArrayList<>(this);
+        }
+    }
 }
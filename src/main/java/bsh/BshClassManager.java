@@ -31,16 +31,20 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import bsh.util.ReferenceCache;
 
@@ -80,12 +84,12 @@ import static bsh.Capabilities.haveAccessibility;
     names).
     <p>
 
-    Perhaps a simpler idea would be to have entities that reference cached
-    types always perform a light weight check with a counter / reference
-    value and use that to detect changes in the namespace.  This puts the
-    burden on the consumer to check at appropriate times, but could eliminate
-    the need for the listener system in many places and the necessity of weak
-    references in this package.
+    Entities that reference cached types perform a light weight check against
+    the version counter of the class manager, see getVersion(), and use that
+    to detect changes in the class space.  This puts the burden on the
+    consumer to check at appropriate times, but eliminates the need for the
+    listener system for namespaces and the necessity of weak references.
+    Listeners are still notified for compatibility.
     <p>
 */
 public class BshClassManager {
@@ -100,104 +104,178 @@ public class BshClassManager {
 
     /** Class member cached value instance **/
     static final class MemberCache {
+        private final Class<?> clazz;
+        /** Methods and constructors declared by the class. */
+        private volatile Member[] declared;
+        /** Fields declared by the class. */
+        private volatile Field[] declaredFields;
+        /** Fields of the class and its super types, the first by name. */
+        private volatile Map<String,Field> fieldIndex;
         private final Map<String,List<Invocable>> cache
                             = new ConcurrentHashMap<>();
         private final Map<String,Invocable> fields
                             = new ConcurrentHashMap<>();
+        /** The first property getter and setter cached for each name. */
+        private final Map<String,Invocable> getters
+                            = new ConcurrentHashMap<>();
+        private final Map<String,Invocable> setters
+                            = new ConcurrentHashMap<>();
 
-        /** Constructor iterates through interfaces and super classes
-         * collect and cache field, constructor and method members.
-         * Members are wrapped as invocable, each class has its own
-         * member cache entry and inherited methods and constructors
+        /** Member caches are populated lazily, per name. The members of a
+         * name are collected from the interfaces and super classes when the
+         * name is first looked up and wrapped as invocable, each class has
+         * its own member cache entry and inherited methods and constructors
          * are stored by reference only.
          * Ensures the package is accessible, for default package we
          * import all non private otherwise public only unless have
          * accessibility is true.
          * @param clazz for whom members are collected */
         public MemberCache(Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        /** Whether the members of a class in the hierarchy are visible.
+         * @param type a class in the hierarchy
+         * @return true if the members of the type may be collected */
+        private static boolean isVisible(Class<?> type) {
+            return isPackageAccessible(type)
+                && ((isPackageScope(type) && !isPrivate(type))
+                    || isPublic(type) || haveAccessibility());
+        }
+
+        /** The visible methods and constructors declared by the class.
+         * @return the declared members */
+        private Member[] declared() {
+            Member[] members = declared;
+            if (null != members)
+                return members;
+            List<Member> list = new ArrayList<>();
+            for (Method m : clazz.getDeclaredMethods())
+                if (isPublic(m) || haveAccessibility())
+                    list.add(m);
+            Collections.addAll(list, clazz.getDeclaredConstructors());
+            List<Field> fields = new ArrayList<>();
+            for (Field f : clazz.getDeclaredFields())
+                if (isPublic(f) || haveAccessibility())
+                    fields.add(f);
+            declaredFields = fields.toArray(new Field[0]);
+            return declared = list.toArray(new Member[0]);
+        }
+
+        /** Collect the members of a name from the class, its interfaces
+         * and super classes. Members declared by the class are wrapped as
+         * invocable, other members are shared with the member cache of the
+         * declaring type.
+         * @param name of member
+         * @return the invocable members, empty if there are none */
+        private List<Invocable> collect(String name) {
+            List<Invocable> list = new ArrayList<>();
             Class<?> type = clazz;
             while (type != null) {
-                if (isPackageAccessible(type)
-                    && ((isPackageScope(type) && !isPrivate(type))
-                        || isPublic(type) || haveAccessibility())) {
-                    for (Field f : type.getDeclaredFields())
-                        if (isPublic(f) || haveAccessibility())
-                            cacheMember(Invocable.get(f));
-                    for (Method m : type.getDeclaredMethods())
-                        if (isPublic(m) || haveAccessibility())
-                            if (clazz == type) cacheMember(Invocable.get(m));
-                            else cacheMember(memberCache.get(type)
-                            .findMethod(m.getName(), m.getParameterTypes()));
-                    for (Constructor<?> c: type.getDeclaredConstructors())
-                        if (clazz == type) cacheMember(Invocable.get(c));
-                        else cacheMember(memberCache.get(type)
-                            .findMethod(c.getName(), c.getParameterTypes()));
-                }
-                processInterfaces(type.getInterfaces());
+                if (isVisible(type))
+                    collect(name, type, list);
+                collectInterfaces(name, type.getInterfaces(), list);
                 type = type.getSuperclass();
-                memberCache.init(type);
             }
+            if (list.size() > 1)
+                return list;
+            return list.isEmpty() ? Collections.emptyList()
+                : Collections.singletonList(list.get(0));
         }
 
-        /** Recursive processing of interfaces.
-         * Methods are stored by reference.
-         * @param interfaces for whom members are collected */
-        private void processInterfaces(Class<?>[] interfaces) {
+        /** Recursive collection of interface members.
+         * @param name of member
+         * @param interfaces for whom members are collected
+         * @param list of collected members */
+        private void collectInterfaces(String name, Class<?>[] interfaces,
+                List<Invocable> list) {
             for (Class<?> intr : interfaces) {
-                if (isPackageAccessible(intr)) {
-                    memberCache.init(intr);
-                    for (Field f : intr.getDeclaredFields())
-                            cacheMember(Invocable.get(f));
-                    for (Method m: intr.getDeclaredMethods())
-                        if (isPublic(m) || haveAccessibility())
-                            cacheMember(memberCache.get(intr)
-                            .findMethod(m.getName(), m.getParameterTypes()));
-                }
-                processInterfaces(intr.getInterfaces());
+                if (isPackageAccessible(intr))
+                    collect(name, intr, list);
+                collectInterfaces(name, intr.getInterfaces(), list);
             }
         }
 
-        /** Cache a field member.
-         * @param member to cache
-         * @return true if this is a new member */
-        private boolean cacheMember(FieldAccess member) {
-            if (!hasField(member.getName()))
-                return null == fields.put(member.getName(), member);
-            return false;
+        /** Collect the members of a name declared by a type.
+         * @param name of member
+         * @param type the declaring type
+         * @param list of collected members */
+        private void collect(String name, Class<?> type, List<Invocable> list) {
+            MemberCache owner = type == clazz ? this : memberCache.get(type);
+            for (Member m : owner.declared()) {
+                boolean named = m.getName().equals(name);
+                if (!named && !(m instanceof Method
+                        && Invocable.isProperty((Method) m, name)))
+                    continue;
+                Class<?>[] types = m instanceof Method
+                        ? ((Method) m).getParameterTypes()
+                        : ((Constructor<?>) m).getParameterTypes();
+                Invocable member;
+                if (type != clazz)
+                    member = owner.findMethod(m.getName(), types);
+                else if (named)
+                    member = m instanceof Method ? Invocable.get((Method) m)
+                        : Invocable.get((Constructor<?>) m);
+                else
+                    member = declaredMethod((Method) m, types);
+                if (null != member)
+                    list.add(member);
+            }
         }
 
-        /** Cache constructors and methods.
-         * Identifies properties and caches an additional cache entry
-         * referenced by property name, as defined by bean specification.
-         * @param member to cache
-         * @return true if the cache changed */
-        private boolean cacheMember(Invocable member) {
-            if (null == member) return false;
-            if (!member.isGetter() && !member.isSetter())
-                return cacheMember(member.getName(), member);
-            String name = member.getName();
-            String propName = name.replaceFirst("[gs]et|is", "");
-            if (propName.length() == 1 // double caps are skipped
-                    || Character.isLowerCase(name.charAt(1))) {
-                char[] ch = propName.toCharArray();
-                ch[0] = Character.toLowerCase(ch[0]);
-                propName = new String(ch);
+        /** The invocable cached by method name for a method declared by the
+         * class, property accessors are wrapped once for both names.
+         * @param method declared by the class
+         * @param types of parameters
+         * @return the invocable method or null */
+        private Invocable declaredMethod(Method method, Class<?>[] types) {
+            List<Invocable> members = members(method.getName());
+            if (null != members)
+                for (Invocable member : members)
+                    if (member.getReturnType() == method.getReturnType()
+                            && Arrays.equals(member.getParameterTypes(), types))
+                        return member;
+            return null;
+        }
+
+        /** Index the fields of the class and its super types by name, the
+         * first field found for a name hides the others.
+         * @return the fields by name */
+        private Map<String,Field> fieldIndex() {
+            Map<String,Field> index = fieldIndex;
+            if (null != index)
+                return index;
+            index = new HashMap<>();
+            Class<?> type = clazz;
+            while (type != null) {
+                if (isVisible(type))
+                    indexFields(index, type);
+                indexInterfaceFields(index, type.getInterfaces());
+                type = type.getSuperclass();
             }
-            return cacheMember(name, member)
-                && cacheMember(propName, member);
+            return fieldIndex = index;
         }
 
-        /** Cache name associated with a list of members.
-         * @param name of member
-         * @param member invocable instance
-         * @return true if the cache changed */
-        private boolean cacheMember(String name, Invocable member) {
-            if (!hasMember(name))
-                return null == cache.put(name,
-                        Collections.singletonList(member));
-            else if (memberCount(name) == 1)
-                cache.put(name, new ArrayList<>(members(name)));
-            return members(name).add(member);
+        /** Recursive indexing of interface fields.
+         * @param index the fields by name
+         * @param interfaces for whom fields are collected */
+        private void indexInterfaceFields(Map<String,Field> index,
+                Class<?>[] interfaces) {
+            for (Class<?> intr : interfaces) {
+                if (isPackageAccessible(intr))
+                    indexFields(index, intr);
+                indexInterfaceFields(index, intr.getInterfaces());
+            }
+        }
+
+        /** Add the fields declared by a type which are not yet hidden.
+         * @param index the fields by name
+         * @param type the declaring type */
+        private void indexFields(Map<String,Field> index, Class<?> type) {
+            MemberCache owner = type == clazz ? this : memberCache.get(type);
+            owner.declared();
+            for (Field f : owner.declaredFields)
+                index.putIfAbsent(f.getName(), f);
         }
 
         /** Find the most specific member for the given parameter types.
@@ -248,11 +326,10 @@ public class BshClassManager {
          * @param name of property
          * @return the property read method or null */
         public Invocable findGetter(String propName) {
-            if (hasMember(propName))
-                for (Invocable property: members(propName))
-                    if (property.isGetter())
-                        return property;
-            return null;
+            Invocable getter = getters.get(propName);
+            if (null != getter || null == members(propName))
+                return getter;
+            return getters.get(propName);
         }
 
         /** Find property write method or setter for property name.
@@ -261,11 +338,10 @@ public class BshClassManager {
          * @param name of property
          * @return the property write method or null */
         public Invocable findSetter(String propName) {
-            if (hasMember(propName))
-                for (Invocable property: members(propName))
-                    if (property.isSetter())
-                        return property;
-            return null;
+            Invocable setter = setters.get(propName);
+            if (null != setter || null == members(propName))
+                return setter;
+            return setters.get(propName);
         }
 
         /** Find the index of the most appropriate member.
@@ -284,7 +360,20 @@ public class BshClassManager {
          * @param name of member
          * @return list of members or null */
         public List<Invocable> members(String name) {
-            return cache.get(name);
+            List<Invocable> members = cache.get(name);
+            if (null == members) {
+                List<Invocable> list = collect(name);
+                // accessors are cached before the members are published
+                for (Invocable member : list)
+                    if (member.isGetter())
+                        getters.putIfAbsent(name, member);
+                    else if (member.isSetter())
+                        setters.putIfAbsent(name, member);
+                members = cache.putIfAbsent(name, list);
+                if (null == members)
+                    members = list;
+            }
+            return members.isEmpty() ? null : members;
         }
 
         /** Retrieve the number of members associated with name.
@@ -298,14 +387,14 @@ public class BshClassManager {
          * @param name of member
          * @return true if members exists */
         public boolean hasMember(String name) {
-            return cache.containsKey(name);
+            return null != members(name);
         }
 
         /** Does field exist.
          * @param name of field
          * @return true if field exists */
         public boolean hasField(String name) {
-            return fields.containsKey(name);
+            return fieldIndex().containsKey(name);
         }
 
         /** Find field associated to name.
@@ -314,7 +403,8 @@ public class BshClassManager {
         public Invocable findField(String name) {
             if (!hasField(name))
                 return null;
-            return fields.get(name);
+            return fields.computeIfAbsent(name,
+                n -> Invocable.get(fieldIndex().get(n)));
         }
     }
 
@@ -351,6 +441,12 @@ public class BshClassManager {
     /** @see #associateClass( Class ) */
     protected final transient Map<String, Class<?>> associatedClasses = new Hashtable<>();
 
+    /** Monotonic stamp of the class space, see getVersion(). */
+    private final transient AtomicLong version = new AtomicLong();
+
+    /** Monotonic stamp of imports, see getImportVersion(). */
+    private final transient AtomicLong importVersion = new AtomicLong();
+
     /**
         Create a new instance of the class manager.
         Class manager instnaces are now associated with the interpreter.
@@ -397,7 +493,12 @@ public class BshClassManager {
                 "Attempting to load class in the process of being defined: "
                 +name );
 
-        Class<?> clas = null;
+        Class<?> clas = absoluteClassCache.get( name );
+        if ( clas != null )
+            return clas;
+        if ( absoluteNonClasses.contains( name ) )
+            return null;
+
         try {
             clas = plainClassForName( name );
         } catch ( ClassNotFoundException e ) { /*ignore*/ }
@@ -406,6 +507,8 @@ public class BshClassManager {
         if ( clas == null && declaringInterpreter.getCompatibility() )
             clas = loadSourceClass( name );
 
+        if ( clas == null )
+            cacheClassInfo( name, null );
         return clas;
     }
 
@@ -417,16 +520,18 @@ public class BshClassManager {
             return null;
         try (FileReader reader
                 = new FileReader((InputStream) url.getContent())) {
-            Interpreter.debug("Loading class from source file: " + fileName);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("Loading class from source file: " + fileName);
             declaringInterpreter.eval( reader );
         } catch ( IOException | EvalError e ) {
-            if (Interpreter.DEBUG.get())
+            if (Interpreter.isDebug())
                 e.printStackTrace();
         }
         try {
             return plainClassForName( name );
         } catch ( final ClassNotFoundException e ) {
-            Interpreter.debug("Class not found in source file: " + name);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("Class not found in source file: " + name);
             return null;
         }
     }
@@ -473,6 +578,17 @@ public class BshClassManager {
 
         return url;
     }
+
+    /**
+        The class loader identifying the resources found by getResource(),
+        the scripted commands are cached per loader.
+        @return the loader or null if the resources are not those of a
+        single loader
+    */
+    protected ClassLoader getResourceLoader() {
+        return externalClassLoader != null
+            ? externalClassLoader : Interpreter.class.getClassLoader();
+    }
     /**
         Get a resource stream using the BeanShell classpath
         @param path should be an absolute path
@@ -548,6 +664,7 @@ public class BshClassManager {
     */
     public void setClassLoader( ClassLoader externalCL ) {
         externalClassLoader = externalCL;
+        clearCaches();
         classLoaderChanged();
     }
 
@@ -690,7 +807,44 @@ public class BshClassManager {
             +") without class manager package.");
     }
 
-    protected void classLoaderChanged() { }
+    /**
+        The class space has changed, e.g. the classpath was modified or
+        classes were reloaded.  Names and commands which were not found may
+        now resolve, the negative caches are cleared and the version stamp
+        advanced.
+    */
+    protected void classLoaderChanged() {
+        absoluteNonClasses.clear();
+        CommandCache.classPathChanged( this );
+        version.incrementAndGet();
+    }
+
+    /**
+        Monotonic version stamp of the class space managed here.
+        The stamp advances whenever classes or the class loader change,
+        caches of resolved types are valid while the stamp is unchanged.
+        @return the current version
+    */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+        The imports of a namespace using this class manager have changed.
+    */
+    void importsChanged() {
+        importVersion.incrementAndGet();
+    }
+
+    /**
+        Monotonic version stamp of the imports made by all namespaces using
+        this class manager.  Together with getVersion() this tells when class
+        names resolved through a namespace might resolve differently.
+        @return the current import version
+    */
+    long getImportVersion() {
+        return importVersion.get();
+    }
 
     protected static UtilEvalError cmUnavailable() {
         return new Capabilities.Unavailable(
@@ -108,6 +108,22 @@ public class BshMethod implements Serializable {
         this.modifiers = modifiers;
     }
 
+    /**
+        Copy of this scripted method declared in another namespace.
+        This is used to bind the methods inherited by a forked namespace
+        to the fork, see NameSpace.fork().
+    */
+    BshMethod rebind( NameSpace declaringNameSpace )
+    {
+        BshMethod method = new BshMethod( name, creturnType, paramNames,
+            cparamTypes, paramModifiers, methodBody, declaringNameSpace,
+            modifiers );
+        method.isVarArgs = isVarArgs;
+        method.javaMethod = javaMethod;
+        method.javaObject = javaObject;
+        return method;
+    }
+
     /*
         Create a BshMethod that delegates to a real Java method upon invocation.
         This is used to represent imported object methods.
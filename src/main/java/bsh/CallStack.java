@@ -27,7 +27,6 @@
 
 package bsh;
 
-import java.util.Stack;
 import java.io.Serializable;
 import java.util.EmptyStackException;
 
@@ -54,7 +53,10 @@ import java.util.EmptyStackException;
 public final class CallStack implements Serializable {
     /** default serial version id */
     private static final long serialVersionUID = 1L;
-    private final Stack<NameSpace> stack = new Stack<>();
+    /** The top of the stack, frames are never modified so that copies of
+        the stack may share them. */
+    private Frame top;
+    private int depth;
 
     public CallStack() { }
 
@@ -62,26 +64,37 @@ public final class CallStack implements Serializable {
         push( namespace );
     }
 
+    private CallStack( Frame top, int depth ) {
+        this.top = top;
+        this.depth = depth;
+    }
+
     public void clear() {
-        stack.clear();
+        top = null;
+        depth = 0;
     }
 
     public void push( NameSpace ns ) {
-        stack.push( ns );
+        top = new Frame( ns, top );
+        depth++;
     }
 
     public NameSpace top() {
-        return stack.peek();
+        if ( top == null )
+            throw new EmptyStackException();
+        return top.ns;
     }
 
     /**
         zero based.
     */
     public NameSpace get(int depth) {
-        int size = stack.size();
-        if ( depth >= size )
+        if ( depth >= this.depth )
             return NameSpace.JAVACODE;
-        return stack.toArray(new NameSpace[size])[size-1-depth];
+        Frame frame = top;
+        while ( depth-- > 0 )
+            frame = frame.next;
+        return frame.ns;
     }
 
     /**
@@ -89,15 +102,25 @@ public final class CallStack implements Serializable {
         zero based.
     */
     public synchronized void set(int depth, NameSpace ns) {
-        stack.set( stack.size()-1-depth, ns );
+        if ( depth < 0 || depth >= this.depth )
+            throw new ArrayIndexOutOfBoundsException( depth );
+        NameSpace [] above = new NameSpace [ depth ];
+        Frame frame = top;
+        for ( int i = 0; i < depth; i++, frame = frame.next )
+            above[i] = frame.ns;
+        frame = new Frame( ns, frame.next );
+        for ( int i = depth - 1; i >= 0; i-- )
+            frame = new Frame( above[i], frame );
+        top = frame;
     }
 
     public NameSpace pop() {
-        try {
-            return stack.pop();
-        } catch(EmptyStackException e) {
+        if ( top == null )
             throw new InterpreterError("pop on empty CallStack");
-        }
+        NameSpace ns = top.ns;
+        top = top.next;
+        depth--;
+        return ns;
     }
 
     /**
@@ -105,37 +128,44 @@ public final class CallStack implements Serializable {
         value.
     */
     public NameSpace swap( NameSpace newTop ) {
-        NameSpace oldTop = stack.pop();
-        stack.push(newTop);
+        if ( top == null )
+            throw new EmptyStackException();
+        NameSpace oldTop = top.ns;
+        top = new Frame( newTop, top.next );
         return oldTop;
     }
 
     public int depth() {
-        return stack.size();
+        return depth;
     }
-/*
-    public NameSpace [] toArray() {
-        NameSpace [] nsa = new NameSpace [ depth() ];
-        stack.copyInto( nsa );
-        return nsa;
-    }
-*/
+
     public synchronized String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("CallStack:\n");
-        for( int i=stack.size()-1; i>=0; i-- )
-            sb.append("\t"+stack.get(i)+"\n");
+        for ( Frame frame = top; frame != null; frame = frame.next )
+            sb.append("\t"+frame.ns+"\n");
 
         return sb.toString();
     }
 
     /**
         Occasionally we need to freeze the callstack for error reporting
-        purposes, etc.
+        purposes, etc.  The copy shares the frames, it is made in constant
+        time.
     */
     public CallStack copy() {
-        CallStack cs = new CallStack();
-        cs.stack.addAll(this.stack);
-        return cs;
+        return new CallStack( top, depth );
+    }
+
+    /** A namespace on the stack and the frames below it. */
+    private static final class Frame implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final NameSpace ns;
+        final Frame next;
+
+        Frame( NameSpace ns, Frame next ) {
+            this.ns = ns;
+            this.next = next;
+        }
     }
 }
@@ -87,6 +87,7 @@ public class Capabilities implements Supplier<Boolean>, Consumer<Boolean>
             ACCESSIBILITY.set(Boolean.TRUE);
         }
         BshClassManager.memberCache.clear();
+        Specialization.invalidate();
     }
 
     private static final Map<String, Class<?>> classes = new WeakHashMap<>();
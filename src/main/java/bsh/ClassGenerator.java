@@ -122,7 +122,8 @@ public final class ClassGenerator {
 
             // Define the new class in the classloader
             genClass = bcm.defineClass(fqClassName, code);
-            Interpreter.debug("Define ", fqClassName, " as ", genClass);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("Define ", fqClassName, " as ", genClass);
         }
         // import the unqualified class name into parent namespace
         enclosingNameSpace.importClass(fqClassName.replace('$', '.'));
@@ -131,7 +132,8 @@ public final class ClassGenerator {
         // important to do this after all classes are defined
         classStaticNameSpace.setClassStatic(genClass);
 
-        Interpreter.debug(classStaticNameSpace);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug(classStaticNameSpace);
 
         bcm.doneDefiningClass(fqClassName);
 
@@ -83,7 +83,7 @@ public final class CollectionManager {
             }
             @Override
             public Object next() {
-                return Array.get(array, this.index++);
+                return BshArray.get(array, this.index++);
             }
         };
     }
@@ -182,6 +182,17 @@ public final class CollectionManager {
         return IntStream.rangeClosed(number, 0).map(i -> number - i).iterator();
     }
 
+    /** Gets range iterator for Number range from 0, which computes the
+     * values as they are iterated.
+     * Range from 0 up to number or 0 down to number inclusive.
+     * Empty Iterator if number is 0. The values are Integer unless
+     * the number is beyond the int range, then they are Long.
+     * @param obj the top range number value
+     * @return the range iterator */
+    public Iterator<Number> getBshRangeIterator(final Number obj) {
+        return Range.of(obj).iterator();
+    }
+
     /** Starting positions of unicode block sets */
     private static final int[] unicodeBlockStarts = new int[] {48,58,65,91,97,123,129,256,384,592,688,768,880,1024,
         1329,1425,1536,1792,1872,1920,1984,2048,2112,2144,2208,2304,2432,2561,2689,2817,2946,3072,3200,3328,3458,3584,
@@ -235,7 +246,7 @@ public final class CollectionManager {
         if (obj instanceof CharSequence)
             return this.getBshIterator((CharSequence) obj);
         if (obj instanceof Number)
-            return this.getBshIterator((Number) obj);
+            return this.getBshRangeIterator((Number) obj);
         if (obj instanceof Character)
             return this.getBshIterator((Character) obj);
         if (obj instanceof String)
@@ -0,0 +1,240 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+package bsh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import bsh.util.ReferenceCache;
+import bsh.util.ReferenceCache.Type;
+
+/**
+    Process wide cache of the scripted commands, the *.bsh resources in the
+    imported command paths, parsed once and shared by all interpreters.
+    <p>
+
+    The scripts are cached per class loader searched for the resources, so
+    interpreters finding commands through different loaders never share a
+    script, and per resource path, which with the loader determines the
+    resource URL.  Paths where no script was found are cached too, until the
+    class path of a manager searching the loader changes.  A script read from
+    a file, directly or in a jar, is read again when the file changed.
+    <p>
+
+    Loading a command evaluates the parsed statements of its script in the
+    namespace, which binds methods sharing the parsed bodies.  The parsed
+    nodes cache resolved types and may hold on to classes of the loader, the
+    scripts of a loader are therefore held softly.
+*/
+final class CommandCache
+{
+    /** Marks a resource path where no script was found. */
+    private static final Object MISSING = new Object();
+
+    /** Scripts, or MISSING, per resource path for each class loader. */
+    private static final ReferenceCache<ClassLoader, Map<String, Object>>
+        loaders = new ReferenceCache<ClassLoader, Map<String, Object>>(
+                Type.Weak, Type.Soft) {
+            @Override
+            protected Map<String, Object> create(ClassLoader key) {
+                return new ConcurrentHashMap<>();
+            }
+    };
+
+    private CommandCache() {}
+
+    /**
+        The parsed script of a command resource.
+        @param bcm the class manager finding the resource
+        @param path the absolute resource path of the script
+        @return the script or null if there is none or it could not be read
+    */
+    static Script get( BshClassManager bcm, String path ) {
+        ClassLoader loader = bcm.getResourceLoader();
+        Map<String, Object> scripts = null == loader
+            ? null : loaders.get( loader );
+        if ( null != scripts ) {
+            Object script = scripts.get( path );
+            if ( MISSING == script )
+                return null;
+            if ( null != script && ((Script) script).isCurrent() )
+                return (Script) script;
+        }
+        URL url = bcm.getResource( path );
+        Script script = null;
+        if ( null != url ) try {
+            script = Script.parse( path, url );
+        } catch ( IOException e ) {
+            return null;
+        }
+        if ( null != scripts )
+            scripts.put( path, null == script ? MISSING : script );
+        return script;
+    }
+
+    /**
+        Forget the paths where no script was found by the class manager,
+        its class path changed.
+        @param bcm the class manager
+    */
+    static void classPathChanged( BshClassManager bcm ) {
+        ClassLoader loader = bcm.getResourceLoader();
+        if ( null != loader )
+            loaders.get( loader ).values().removeIf( s -> MISSING == s );
+    }
+
+    /**
+        A parsed command script.  The script is immutable, evaluations in
+        different namespaces share its nodes.
+    */
+    static final class Script
+    {
+        /** The resource path, the source file of the nodes. */
+        final String path;
+        private final SimpleNode[] nodes;
+        /** The message of the parse error or null. */
+        private final String error;
+        /** The file read or null if the resource is not a file. */
+        private final File file;
+        private final long modified, length;
+
+        private Script( String path, SimpleNode[] nodes, String error,
+                File file ) {
+            this.path = path;
+            this.nodes = nodes;
+            this.error = error;
+            this.file = file;
+            this.modified = null == file ? 0 : file.lastModified();
+            this.length = null == file ? 0 : file.length();
+        }
+
+        /**
+            Read and parse the script of a resource.
+            @param path the resource path
+            @param url the resource
+            @return the script, which holds the error if it does not parse
+            @throws IOException if the resource could not be read
+        */
+        static Script parse( String path, URL url ) throws IOException {
+            File file = fileOf( url );
+            List<SimpleNode> nodes = new ArrayList<>();
+            try ( FileReader reader
+                    = new FileReader( (InputStream) url.getContent() ) ) {
+                Parser parser = new Parser( reader );
+                boolean eof;
+                do {
+                    eof = parser.Line();
+                    if ( parser.jjtree.nodeArity() > 0 ) {
+                        SimpleNode node = (SimpleNode) parser.jjtree.rootNode();
+                        // nodes remember from where they were sourced
+                        node.setSourceFile( path );
+                        nodes.add( node );
+                    }
+                    parser.jjtree.reset();
+                } while ( !eof );
+            } catch ( ParseException e ) {
+                e.setErrorSourceFile( path );
+                return new Script( path, null, e.getMessage(), file );
+            } catch ( TokenMgrException e ) {
+                return new Script( path, null, e.getMessage(), file );
+            }
+            return new Script( path, nodes.toArray( new SimpleNode[0] ),
+                null, file );
+        }
+
+        /**
+            The file of a file resource, directly or in a jar.
+            @param url the resource
+            @return the file or null if the resource is no file
+        */
+        private static File fileOf( URL url ) {
+            String spec = url.toExternalForm();
+            if ( spec.startsWith( "jar:" ) ) {
+                int entry = spec.indexOf( "!/" );
+                spec = spec.substring( 4, entry < 0 ? spec.length() : entry );
+            }
+            if ( !spec.startsWith( "file:" ) )
+                return null;
+            try {
+                return new File( new URI( spec ) );
+            } catch ( URISyntaxException | IllegalArgumentException e ) {
+                return null;
+            }
+        }
+
+        /** Whether the file of the script did not change since it was read. */
+        boolean isCurrent() {
+            return null == file || modified == file.lastModified()
+                && length == file.length();
+        }
+
+        /**
+            Evaluate the statements of the script in a namespace.
+            @param namespace to evaluate in
+            @param interpreter the interpreter loading the command
+            @throws EvalError if the script does not parse or fails
+        */
+        void eval( NameSpace namespace, Interpreter interpreter )
+            throws EvalError
+        {
+            if ( null != error )
+                throw new EvalError( error, null, null );
+            CallStack callstack = new CallStack( namespace );
+            SimpleNode node = null;
+            try {
+                for ( SimpleNode n : nodes ) {
+                    node = n;
+                    if ( node.eval( callstack, interpreter )
+                            instanceof ReturnControl )
+                        break;
+                    // reinit the callstack
+                    if ( callstack.depth() > 1 ) {
+                        callstack.clear();
+                        callstack.push( namespace );
+                    }
+                }
+            } catch ( InterpreterError e ) {
+                throw new EvalError( "Sourced file: " + path
+                    + " internal Error: " + e.getMessage(), node, callstack, e );
+            } catch ( EvalError e ) {
+                // failsafe, set the statement as the origin of the error.
+                if ( e.getNode() == null )
+                    e.setNode( node );
+                e.reThrow( "Sourced file: " + path );
+            }
+        }
+    }
+}
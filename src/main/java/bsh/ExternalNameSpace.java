@@ -195,6 +195,16 @@ public class ExternalNameSpace extends NameSpace
         return new Variable( name, type, lhs );
     }
 
+    /**
+        An external namespace mirrors a mutable map and can not be sealed.
+        @throws IllegalStateException always
+    */
+    public NameSpace seal()
+    {
+        throw new IllegalStateException(
+            "Cannot seal external map namespace: " + getName());
+    }
+
     /**
         Clear all variables, methods, and imports from this namespace and clear
         all values from the external map (via Map clear()).
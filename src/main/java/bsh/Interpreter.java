@@ -38,6 +38,9 @@ import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.ResourceBundle;
 
 /**
@@ -107,11 +110,16 @@ public class Interpreter
         a per interpreter basis, in which case we'll need to use the parent
         reference in some way to determine the scope of the command that
         turns it on or off.
+        Debug is switched per thread, test it with isDebug() which reads the
+        switch only while some live thread has debug turned on.
     */
-    public static final ThreadLocal<Boolean> DEBUG = ThreadLocal.withInitial(()->Boolean.FALSE);
+    public static final ThreadLocal<Boolean> DEBUG = new DebugSwitch();
+    /** The threads which have debug turned on. */
+    static volatile Thread[] debugging = {};
     private boolean EOF;
     public static boolean TRACE;
     public static boolean COMPATIBIILTY;
+    public static boolean OPTIMIZE;
 
     static {
         staticInit();
@@ -162,6 +170,9 @@ public class Interpreter
     /** Control the verbose printing of results for the show() command. */
     private boolean showResults = true;
 
+    /** Receives the statements evaluated in trace mode, null to print them. */
+    private transient TraceListener traceListener;
+
     /**
      * Compatibility mode. When {@code true} missing classes are tried to create from corresponding java source files.
      * Default value is {@code false}, could be changed to {@code true} by setting the system property
@@ -169,6 +180,13 @@ public class Interpreter
      */
     private boolean compatibility = COMPATIBIILTY;
 
+    /**
+     * Optimize mode. When {@code true} parsed statements are optimized before they are evaluated, see Optimizer.
+     * Default value is {@code false}, could be changed to {@code true} by setting the system property
+     * "bsh.optimize" to "true".
+     */
+    private boolean optimize = OPTIMIZE;
+
     /** Cached getBshPrompt for interactive mode. */
     private String prompt = null;
 
@@ -191,13 +209,16 @@ public class Interpreter
     public Interpreter( ConsoleAssignable console, boolean interactive,
             NameSpace namespace, Interpreter parent, String sourceFileInfo ) {
         long t1 = 0;
-        if (Interpreter.DEBUG.get())
+        if (Interpreter.isDebug())
             t1=System.nanoTime();
 
         this.interactive = interactive;
         this.parent = parent;
-        if ( parent != null )
+        if ( parent != null ) {
             setStrictJava( parent.getStrictJava() );
+            setOptimize( parent.getOptimize() );
+            setTraceListener( parent.getTraceListener() );
+        }
 
         this.sourceFileInfo = sourceFileInfo;
 
@@ -209,7 +230,7 @@ public class Interpreter
         this.setNameSpace(namespace);
         this.setConsole(console);
 
-        if ( Interpreter.DEBUG.get() )
+        if ( Interpreter.isDebug() )
             Interpreter.debug("Time to initialize interpreter: interactive=",
                     interactive, " ", (System.nanoTime() - t1), " nanoseconds.");
     }
@@ -402,7 +423,7 @@ public class Interpreter
             } catch ( TargetError e ) {
                 System.err.println("Script threw exception: "+e);
                 if ( e.inNativeCode() )
-                    e.printStackTrace( DEBUG.get(), System.err );
+                    e.printStackTrace( isDebug(), System.err );
             } catch ( EvalError e ) {
                 System.err.println("Evaluation Error: "+e);
             } catch ( IOException e ) {
@@ -473,10 +494,13 @@ public class Interpreter
                     // nodes remember from where they were sourced
                     node.setSourceFile( sourceFileInfo );
 
-                    if( DEBUG.get() )
+                    if ( optimize )
+                        node = Optimizer.optimize( node, callstack, this );
+
+                    if( isDebug() )
                         node.dump(">");
                     if ( TRACE )
-                        println( "// " +node.getText() );
+                        trace( node );
 
 
                     Object ret = node.eval( callstack, this );
@@ -503,8 +527,8 @@ public class Interpreter
             }
             catch(ParseException e)
             {
-                error("Parser Error: " + e.getMessage(DEBUG.get()));
-                if ( DEBUG.get() )
+                error("Parser Error: " + e.getMessage(isDebug()));
+                if ( isDebug() )
                     e.printStackTrace();
                 if( !interactive )
                     EOF = true;
@@ -520,7 +544,7 @@ public class Interpreter
             {
                 error("Target Exception: " + e.getMessage() );
                 if ( e.inNativeCode() )
-                    e.printStackTrace( DEBUG.get(), getErr() );
+                    e.printStackTrace( isDebug(), getErr() );
                 if(!interactive)
                     EOF = true;
                 setu("$_e", e.getTarget());
@@ -531,7 +555,7 @@ public class Interpreter
                     error( "Evaluation Error: "+e.getMessage() );
                 else
                     error( "Evaluation Error: "+e.getRawMessage() );
-                if(DEBUG.get())
+                if(isDebug())
                     e.printStackTrace();
                 if(!interactive)
                     EOF = true;
@@ -539,7 +563,7 @@ public class Interpreter
             catch(Exception e)
             {
                 error("Unknown error: " + e);
-                if ( DEBUG.get() )
+                if ( isDebug() )
                     e.printStackTrace();
                 if(!interactive)
                     EOF = true;
@@ -568,7 +592,8 @@ public class Interpreter
         throws FileNotFoundException, IOException, EvalError
     {
         File file = pathToFile( filename );
-        Interpreter.debug("Sourcing file: ", file);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("Sourcing file: ", file);
         Reader sourceIn = new BufferedReader( new FileReader(file) );
         try {
             return eval( sourceIn, nameSpace, filename );
@@ -616,7 +641,8 @@ public class Interpreter
         throws EvalError
     {
         Object retVal = null;
-        Interpreter.debug("eval: nameSpace = ", nameSpace);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("eval: nameSpace = ", nameSpace);
 
         /*
             Create non-interactive local interpreter for this namespace
@@ -640,8 +666,12 @@ public class Interpreter
                         // nodes remember from where they were sourced
                         node.setSourceFile( sourceFileInfo );
 
+                        if ( localInterpreter.getOptimize() )
+                            node = Optimizer.optimize(
+                                node, callstack, localInterpreter );
+
                         if ( TRACE )
-                            println( "// " +node.getText() );
+                            trace( node );
 
                         retVal = node.eval( callstack, localInterpreter );
 
@@ -656,9 +686,9 @@ public class Interpreter
                         }
                     }
                 } catch(ParseException e) {
-                    if ( DEBUG.get() )
+                    if ( isDebug() )
                         // show extra "expecting..." info
-                        error( e.getMessage(DEBUG.get()) );
+                        error( e.getMessage(isDebug()) );
 
                     // add the source file info and throw again
                     e.setErrorSourceFile( sourceFileInfo );
@@ -673,14 +703,14 @@ public class Interpreter
                         e.setNode( node );
                     e.reThrow("Sourced file: "+sourceFileInfo);
                 } catch ( EvalError e) {
-                    if ( DEBUG.get())
+                    if ( isDebug())
                         e.printStackTrace();
                     // failsafe, set the Line as the origin of the error.
                     if ( e.getNode()==null )
                         e.setNode( node );
                     e.reThrow( "Sourced file: "+sourceFileInfo );
                 } catch ( Exception e) {
-                    if ( DEBUG.get())
+                    if ( isDebug())
                         e.printStackTrace();
                     throw new EvalError(
                         "Sourced file: "+sourceFileInfo+" unknown error: "
@@ -719,7 +749,8 @@ public class Interpreter
         Evaluate the string in this interpreter's global namespace.
     */
     public Object eval( String statements ) throws EvalError {
-        Interpreter.debug("eval(String): ", statements);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("eval(String): ", statements);
         return eval(statements, globalNameSpace);
     }
 
@@ -777,13 +808,63 @@ public class Interpreter
 
     // End ConsoleInterface
 
+    /**
+        Whether debugging is turned on for the current thread.  Guard calls
+        to debug() with this test so that no message is built when it is off.
+    */
+    public static boolean isDebug() {
+        Thread[] threads = debugging;
+        if ( threads.length == 0 )
+            return false;
+        if ( DEBUG.get() )
+            return true;
+        // threads which died with debug on no longer count
+        for ( Thread thread : threads )
+            if ( !thread.isAlive() )
+                DebugSwitch.register( thread, false );
+        return false;
+    }
+
+    /**
+        The per thread debug switch, registering the threads which turned it on.
+    */
+    private static final class DebugSwitch extends ThreadLocal<Boolean> {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+
+        @Override
+        public void set( Boolean on ) {
+            boolean now = Boolean.TRUE.equals( on );
+            super.set( now );
+            register( Thread.currentThread(), now );
+        }
+
+        @Override
+        public void remove() {
+            set( Boolean.FALSE );
+            super.remove();
+        }
+
+        /** Adds the thread to or removes it from the debugging threads. */
+        private static synchronized void register( Thread thread, boolean on ) {
+            List<Thread> threads = new ArrayList<>( Arrays.asList( debugging ) );
+            if ( threads.remove( thread ) == on )
+                return;
+            if ( on )
+                threads.add( thread );
+            debugging = threads.toArray( new Thread[0] );
+        }
+    }
+
     /**
         Print a debug message on debug stream associated with this interpreter
         only if debugging is turned on.
     */
     public final static void debug(Object... msg)
     {
-        if ( DEBUG.get() ) {
+        if ( isDebug() ) {
             StringBuilder sb = new StringBuilder();
             for ( Object m : msg )
                 sb.append(m);
@@ -1004,7 +1085,8 @@ public class Interpreter
             source( rcfile, globalNameSpace );
         } catch ( Exception e ) {
             // squeltch security exception, filenotfoundexception
-            Interpreter.debug("Could not find rc file: ", e);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("Could not find rc file: ", e);
         }
     }
 
@@ -1077,6 +1159,26 @@ public class Interpreter
         return getNameSpace().getClassManager();
     }
 
+    /**
+        Fork this interpreter into an independent interpreter for evaluation.
+        The global namespace is forked copy-on-write (see NameSpace.fork()),
+        the console and the BshClassManager are shared with this interpreter.
+        This is a cheap way of spinning up isolated script contexts from a
+        warmed up interpreter, e.g. one per request.
+        @return the forked interpreter
+    */
+    public Interpreter fork()
+    {
+        Interpreter fork = new Interpreter( console, false/*interactive*/,
+            globalNameSpace.fork(), null/*parent*/, sourceFileInfo );
+        fork.evalOnly = true;
+        fork.setStrictJava( strictJava );
+        fork.setCompatibility( compatibility );
+        fork.setOptimize( optimize );
+        fork.setShowResults( showResults );
+        return fork;
+    }
+
     /**
         Set strict Java mode on or off.
         This mode attempts to make BeanShell syntax behave as Java
@@ -1108,6 +1210,7 @@ public class Interpreter
             DEBUG.set(Boolean.getBoolean("debug"));
             TRACE = Boolean.getBoolean("trace");
             COMPATIBIILTY = Boolean.getBoolean("bsh.compatibility");
+            OPTIMIZE = Boolean.getBoolean("bsh.optimize");
             String outfilename = System.getProperty("outfile");
             if ( outfilename != null )
                 redirectOutputToFile( outfilename );
@@ -1234,6 +1337,58 @@ public class Interpreter
         compatibility = value;
     }
 
+    /**
+     * Optimize mode. When {@code true} parsed statements are optimized before they are evaluated: expressions of
+     * literals are folded into their value, final variables with a constant value are replaced by it and if
+     * statements with a constant condition by their branch taken. The Default value is {@code false}. This could be
+     * changed to {@code true} by setting the system property "bsh.optimize" to "true".
+     *
+     * @see #setOptimize(boolean)
+     */
+    public boolean getOptimize() {
+        return optimize;
+    }
+
+    /**
+     * Setting optimize mode. When {@code true} parsed statements are optimized before they are evaluated. The Default
+     * value is {@code false}. This could be changed to {@code true} by setting the system property "bsh.optimize" to
+     * "true".
+     *
+     * @see #getOptimize()
+     */
+    public void setOptimize(final boolean value) {
+        optimize = value;
+    }
+
+    /**
+     * Set the listener which receives the statements evaluated in trace mode. By default, or when set to
+     * {@code null}, they are printed on the output. Child interpreters, e.g. those sourcing files, inherit the
+     * listener.
+     *
+     * @see #TRACE
+     */
+    public void setTraceListener(final TraceListener listener) {
+        traceListener = listener;
+    }
+
+    /**
+     * The listener which receives the statements evaluated in trace mode or {@code null} if they are printed.
+     *
+     * @see #setTraceListener(TraceListener)
+     */
+    public TraceListener getTraceListener() {
+        return traceListener;
+    }
+
+    /** Report a statement about to be evaluated in trace mode. */
+    private void trace( SimpleNode node ) {
+        if ( traceListener == null )
+            println( "// " +node.getText() );
+        else
+            traceListener.statement(
+                node.getSourceFile(), node.getLineNumber(), node.getText() );
+    }
+
     public static String getSaveClassesDir() {
         return System.getProperty("bsh.debugClasses");
     }
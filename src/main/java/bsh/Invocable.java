@@ -26,7 +26,6 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /** MethodHandle wrappers to represent invocable members. */
@@ -53,6 +52,59 @@ public abstract class Invocable implements Member {
         return new FieldAccess(f);
     }
 
+    /** Length of the bean property prefix of a method name.
+     * @param name of method
+     * @return 3 for get and set, 2 for is followed by an upper case
+     *      character, otherwise 0 */
+    private static int prefixLength(String name) {
+        int len = name.startsWith(Reflect.GET_PREFIX)
+               || name.startsWith(Reflect.SET_PREFIX) ? 3
+                : name.startsWith(Reflect.IS_PREFIX) ? 2 : 0;
+        if (len == 0 || name.length() == len
+                || !Character.isUpperCase(name.charAt(len)))
+            return 0;
+        return len;
+    }
+
+    /** Whether the method is a bean property getter.
+     * @param method a reflect method
+     * @return true for getX() and boolean isX() without parameters */
+    static boolean isGetter(Method method) {
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+        if (prefixLength(name) == 0 || name.startsWith(Reflect.SET_PREFIX)
+                || method.getParameterCount() != 0 || type == Void.TYPE)
+            return false;
+        return !name.startsWith(Reflect.IS_PREFIX)
+            || type == Boolean.class || type == Boolean.TYPE;
+    }
+
+    /** Whether the method is a bean property setter.
+     * @param method a reflect method
+     * @return true for void setX(value) */
+    static boolean isSetter(Method method) {
+        return method.getName().startsWith(Reflect.SET_PREFIX)
+            && prefixLength(method.getName()) != 0
+            && method.getParameterCount() == 1
+            && method.getReturnType() == Void.TYPE;
+    }
+
+    /** Whether the method is the getter or setter of a bean property.
+     * The property name is the method name without prefix and with a
+     * lower case first character.
+     * @param method a reflect method
+     * @param propName name of property
+     * @return true if the method is an accessor of the property */
+    static boolean isProperty(Method method, String propName) {
+        String name = method.getName();
+        int len = prefixLength(name);
+        return len != 0 && !propName.isEmpty()
+            && name.length() - len == propName.length()
+            && Character.toLowerCase(name.charAt(len)) == propName.charAt(0)
+            && name.regionMatches(len + 1, propName, 1, propName.length() - 1)
+            && (isGetter(method) || isSetter(method));
+    }
+
     private MethodHandle handle = null;
     private final boolean isStatic, isSynthetic;
 ;
@@ -216,6 +268,35 @@ public abstract class Invocable implements Member {
         }
     }
 
+    /** Read the value of a field or a property getter.
+     * @param base the object instance, ignored for static members
+     * @return the value
+     * @throws InvocationTargetException wrapped target exceptions */
+    public Object get(Object base) throws InvocationTargetException {
+        return invoke(base);
+    }
+
+    /** Write the value of a field or a property setter.
+     * @param base the object instance, ignored for static members
+     * @param value the value to write
+     * @return the invocation result
+     * @throws InvocationTargetException wrapped target exceptions */
+    public Object set(Object base, Object value)
+            throws InvocationTargetException {
+        return invoke(base, new Object[] { value });
+    }
+
+    /** Adapt a member handle to a plain object type, a static member
+     * ignores the leading object instance argument.
+     * @param handle the member handle
+     * @param type the type taking the object instance first
+     * @return the adapted handle */
+    MethodHandle adapt(MethodHandle handle, MethodType type) {
+        if (isStatic())
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        return handle.asType(type);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() { return toString; }
@@ -391,11 +472,15 @@ class ConstructorInvocable extends ExecutingInvocable {
 
 /** Executable method members includes bean property identification. */
 class MethodInvocable extends ExecutingInvocable {
-    private static final Pattern PROPERTY_PATTERN
-                = Pattern.compile("(?:[gs]et|is)\\p{javaUpperCase}.*");
+    private static final MethodType GETTER_TYPE
+                = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE
+                = MethodType.methodType(Void.TYPE, Object.class, Object.class);
     private final Class<?> type;
     private Method method;
     private boolean getter = false, setter = false;
+    /** Property accessor handle of exact plain object type. */
+    private volatile MethodHandle accessor;
 
     /** Package private method executing invocable constructor.
      * Collects the reflect method member to unreflect into MethodHandles.
@@ -406,13 +491,8 @@ class MethodInvocable extends ExecutingInvocable {
         this.method = method;
         type = method.getReturnType();
         lastParameterIndex = getParameterCount() - (isVarArgs() ? 1 : 0);
-        if (PROPERTY_PATTERN.matcher(getName()).matches()) {
-            setter = getName().startsWith(Reflect.SET_PREFIX);
-            getter = !setter && getParameterCount() == 0 && type != Void.TYPE;
-            setter &= getParameterCount() == 1 && type == Void.TYPE;
-            if (getter && getName().startsWith(Reflect.IS_PREFIX))
-                getter = type == Boolean.class || type == Boolean.TYPE;
-        }
+        getter = isGetter(method);
+        setter = isSetter(method);
     }
 
     /** Override default prototype construct with value implementation. */
@@ -452,14 +532,64 @@ class MethodInvocable extends ExecutingInvocable {
         return parameters;
     }
 
+    /** Lazy initialize the property accessor which is persisted for reuse.
+     * Unlike invoke() the accessor shares no parameter state and needs no
+     * synchronization once made.
+     * @return the getter or setter handle of exact plain object type */
+    private MethodHandle accessor() {
+        MethodHandle handle = accessor;
+        if (null == handle) synchronized (this) {
+            if (null == (handle = accessor))
+                accessor = handle = adapt(getMethodHandle(),
+                        getter ? GETTER_TYPE : SETTER_TYPE);
+        }
+        return handle;
+    }
+
+    /** Property getters are invoked through the exact type accessor.
+     * {@inheritDoc} */
+    @Override
+    public Object get(Object base) throws InvocationTargetException {
+        if (!getter)
+            return super.get(base);
+        try {
+            return Primitive.wrap(
+                    (Object) accessor().invokeExact(base), getReturnType());
+        } catch (Throwable ite) {
+            throw new InvocationTargetException(ite);
+        }
+    }
+
+    /** Property setters are invoked through the exact type accessor.
+     * {@inheritDoc} */
+    @Override
+    public Object set(Object base, Object value)
+            throws InvocationTargetException {
+        if (!setter || isVarArgs())
+            return super.set(base, value);
+        try {
+            accessor().invokeExact(base,
+                    coerceToType(value, getParameterTypes()[0]));
+            return Primitive.VOID;
+        } catch (Throwable ite) {
+            throw new InvocationTargetException(ite);
+        }
+    }
+
 }
 
 /** Field member invocable includes functionality for get and set. */
 class FieldAccess extends Invocable {
+    private static final MethodType GETTER_TYPE
+                = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE
+                = MethodType.methodType(Void.TYPE, Object.class, Object.class);
     private Field field;
     private final Class<?> type;
     private MethodHandle setter;
     private boolean getter = false;
+    /** Field accessor handles of exact plain object type. */
+    private volatile MethodHandle getAccessor, setAccessor;
 
     /** Package private field access invocable constructor.
      * Collects the reflect field member to unreflect into MethodHandles.
@@ -532,6 +662,54 @@ class FieldAccess extends Invocable {
         }
     }
 
+    /** Field reads go through the exact type accessor, which unlike
+     * invoke() needs no synchronization once made.
+     * {@inheritDoc} */
+    @Override
+    public Object get(Object base) throws InvocationTargetException {
+        try {
+            return Primitive.wrap(
+                    (Object) getAccessor().invokeExact(base), getReturnType());
+        } catch (Throwable ite) {
+            throw new InvocationTargetException(ite.getCause());
+        }
+    }
+
+    /** Field writes go through the exact type accessor.
+     * {@inheritDoc} */
+    @Override
+    public Object set(Object base, Object value)
+            throws InvocationTargetException {
+        try {
+            setAccessor().invokeExact(base, super.coerceToType(value, type));
+            return null;
+        } catch (Throwable ite) {
+            throw new InvocationTargetException(ite.getCause());
+        }
+    }
+
+    /** Lazy initialize the field read accessor which is persisted for reuse.
+     * @return the getter handle of exact plain object type */
+    private MethodHandle getAccessor() {
+        MethodHandle handle = getAccessor;
+        if (null == handle) synchronized (this) {
+            if (null == (handle = getAccessor))
+                getAccessor = handle = adapt(getMethodHandle(), GETTER_TYPE);
+        }
+        return handle;
+    }
+
+    /** Lazy initialize the field write accessor which is persisted for reuse.
+     * @return the setter handle of exact plain object type */
+    private MethodHandle setAccessor() {
+        MethodHandle handle = setAccessor;
+        if (null == handle) synchronized (this) {
+            if (null == (handle = setAccessor))
+                setAccessor = handle = adapt(getSetterHandle(), SETTER_TYPE);
+        }
+        return handle;
+    }
+
     /** Override default prototype construct with value implementation. */
     @Override
     public Class<?> getReturnType() { return type; }
@@ -168,7 +168,7 @@ class LHS implements ParserConstants, Serializable {
             return nameSpace.getVariableOrProperty( varName, null );
 
         if ( type == FIELD ) try {
-            return Objects.requireNonNull(field).invoke(object);
+            return Objects.requireNonNull(field).get(object);
         } catch( ReflectiveOperationException e2 ) {
             throw new UtilEvalError("Can't read field: " + field, e2);
         }
@@ -181,7 +181,8 @@ class LHS implements ParserConstants, Serializable {
              else try {
                 return Reflect.getObjectProperty(object, propName.toString());
             } catch(ReflectError e) {
-                Interpreter.debug(e.getMessage());
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug(e.getMessage());
                 throw new UtilEvalError("No such property: " + propName, e);
             }
         }
@@ -269,7 +270,7 @@ class LHS implements ParserConstants, Serializable {
             else
                 nameSpace.setVariableOrProperty( varName, val, strictJava );
         } else  if ( type == FIELD )  try {
-            Objects.requireNonNull(field).invoke( object, val );
+            Objects.requireNonNull(field).set( object, val );
             return val;
         }
         catch( NullPointerException e ) {
@@ -294,7 +295,8 @@ class LHS implements ParserConstants, Serializable {
             else try {
                 Reflect.setObjectProperty(object, propName.toString(), val);
             } catch(ReflectError e) {
-                Interpreter.debug("Assignment: " + e.getMessage());
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("Assignment: " + e.getMessage());
                 throw new UtilEvalError("No such property: " + propName, e);
             }
         }
@@ -27,10 +27,6 @@ package bsh;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
     What's in a name?  I'll tell you...
@@ -53,8 +49,10 @@ import java.util.WeakHashMap;
 /*
     <strong>Implementation notes</strong>
     <pre>
-    Thread safety: all of the work methods in this class must be synchronized
-    because they share the internal intermediate evaluation state.
+    Thread safety: the intermediate state of an evaluation is held in an
+    Evaluation per call so the work methods need no locking.  The cached
+    results and plan steps are immutable values which may be replaced by
+    racing threads, every thread will compute the same answer.
 
     Note about invokeMethod():  We could simply use resolveMethod and return
     the MethodInvoker (BshMethod or JavaMethod) however there is no easy way
@@ -93,26 +91,135 @@ class Name implements java.io.Serializable
     public NameSpace namespace;
     String value = null;
 
-    // ---------------------------------------------------------
-    // The following instance variables mutate during evaluation and should
-    // be reset by the reset() method where necessary
+    /** The resolution plan for value, possibly shared with the AST node. */
+    private transient Plan plan;
 
-    // For evaluation
-    /** Remaining text to evaluate */
-    private String evalName;
     /**
-        The last part of the name evaluated.  This is really only used for
-        this, caller, and super resolution.
+        The intermediate state of a single evaluation.  This is kept off the
+        Name so that a name may be resolved by several threads at once.
     */
-    private String lastEvalName;
-    private static String FINISHED = null; // null evalname and we're finished
-    private Object evalBaseObject;  // base object for current eval
+    private static final class Evaluation {
+        final Plan plan;
+        /** Index of the next part to evaluate */
+        int next;
+        /**
+            The last part of the name evaluated.  This is really only used for
+            this, caller, and super resolution.
+        */
+        String lastEvalName;
+        Object evalBaseObject;  // base object for current eval
+        int callstackDepth;     // number of times eval hit 'this.caller'
+
+        Evaluation( Plan plan ) {
+            this.plan = plan;
+        }
+
+        boolean isFinished() {
+            return next >= plan.parts.length;
+        }
+
+        boolean isCompound() {
+            return plan.parts.length - next > 1;
+        }
+
+        String part() {
+            return plan.parts[next];
+        }
+
+        Object completeRound(
+            String lastEvalName, int next, Object returnObject )
+        {
+            if ( returnObject == null )
+                throw new InterpreterError("lastEvalName = "+lastEvalName);
+            this.lastEvalName = lastEvalName;
+            this.next = next;
+            this.evalBaseObject = returnObject;
+            return returnObject;
+        }
+    }
+
+    /**
+        A resolution plan for a dotted name.  The name is split into its
+        parts once, and the outcome of the previous resolution is remembered
+        as a plan: how many leading parts make up a class name and, for each
+        following part, whether it was a field or a bean property of the type
+        last seen there.  The class part is recorded against the namespace
+        holding the imports in effect and the class manager versions and is
+        verified against those stamps on each use, the member steps are
+        guarded by the type of the object they apply to.  Anything else is
+        resolved afresh each time, so variables still take precedence.
+        <p>
+
+        Plans are cached on the AST node and shared by all evaluations of the
+        name, recorded steps are immutable and replaced as a whole.
+    */
+    static final class Plan {
+        final String[] parts;
+        /** prefixes[i] is the name made from the first i parts */
+        final String[] prefixes;
+        private ClassPrefix classPrefix;
+        private final Member[] members;
+
+        Plan( String value ) {
+            parts = value.split("\\.");
+            prefixes = new String[parts.length + 1];
+            for ( int i = 1, end = -1; i < parts.length; i++ )
+                prefixes[i] = value.substring(0,
+                    end += parts[i - 1].length() + 1);
+            prefixes[parts.length] = value;
+            members = new Member[parts.length];
+        }
+    }
+
+    /** The leading parts of a name which resolved to a class, if any. */
+    private static final class ClassPrefix {
+        final NameSpace importScope;
+        final BshClassManager classManager;
+        final long classVersion, importVersion;
+        /** Number of parts in the class name, 0 when none is a class */
+        final int parts;
+        final ClassIdentifier classIdentifier;
+
+        ClassPrefix( NameSpace importScope, BshClassManager classManager,
+                long classVersion, long importVersion, int parts, Class<?> clas )
+        {
+            this.importScope = importScope;
+            this.classManager = classManager;
+            this.classVersion = classVersion;
+            this.importVersion = importVersion;
+            this.parts = parts;
+            this.classIdentifier = clas == null ? null : new ClassIdentifier(clas);
+        }
 
-    private int callstackDepth;     // number of times eval hit 'this.caller'
+        boolean isValid( NameSpace importScope, BshClassManager classManager ) {
+            return this.importScope == importScope
+                && this.classManager == classManager
+                && this.classVersion == classManager.getVersion()
+                && this.importVersion == classManager.getImportVersion();
+        }
+    }
+
+    /** A part which resolved to a field, or else a property, of type. */
+    private static final class Member extends Specialization {
+        final Class<?> type;
+        /** The field or null for property access */
+        final Invocable field;
+        /** The property getter of a plain bean type, if not a field */
+        final Invocable getter;
+
+        Member( Class<?> type, Invocable field, String name ) {
+            this.type = type;
+            this.field = field;
+            this.getter = field != null || Types.isPropertyType(type)
+                    || type == Class.class
+                ? null
+                : BshClassManager.memberCache.get(type).findGetter(name);
+        }
 
-    //
-    //  End mutable instance variables.
-    // ---------------------------------------------------------
+        boolean accepts( Object value ) {
+            return value.getClass() == type;
+        }
+    }
 
     // Begin Cached result structures
     // These are optimizations
@@ -132,12 +239,6 @@ class Name implements java.io.Serializable
 
     // End Cached result structures
 
-    private void reset() {
-        evalName = value;
-        evalBaseObject = null;
-        callstackDepth = 0;
-    }
-
     /**
         This constructor should *not* be used in general.
         Use NameSpace getNameResolver() which supports caching.
@@ -145,9 +246,24 @@ class Name implements java.io.Serializable
     */
     // I wish I could make this "friendly" to only NameSpace
     Name( NameSpace namespace, String s )
+    {
+        this( namespace, s, null );
+    }
+
+    /**
+        @param plan the resolution plan of the AST node for s, may be null.
+    */
+    Name( NameSpace namespace, String s, Plan plan )
     {
         this.namespace = namespace;
         value = s;
+        this.plan = plan;
+    }
+
+    private Plan plan() {
+        if ( plan == null )
+            plan = new Plan(value);
+        return plan;
     }
 
     /**
@@ -183,15 +299,15 @@ class Name implements java.io.Serializable
         This is necessary to disambiguate in cases where the grammar knows
         that we want a class; where in general the var path may be taken.
     */
-    synchronized public Object toObject(
+    public Object toObject(
         CallStack callstack, Interpreter interpreter, boolean forceClass )
         throws UtilEvalError
     {
-        reset();
+        Evaluation ev = new Evaluation( plan() );
 
         Object obj = null;
-        while( evalName != null )
-            obj = consumeNextObjectField(
+        while( !ev.isFinished() )
+            obj = consumeNextObjectField( ev,
                 callstack, interpreter, forceClass, false/*autoalloc*/  );
 
         if ( obj == null )
@@ -200,40 +316,33 @@ class Name implements java.io.Serializable
         return obj;
     }
 
-    private Object completeRound(
-        String lastEvalName, String nextEvalName, Object returnObject )
-    {
-        if ( returnObject == null )
-            throw new InterpreterError("lastEvalName = "+lastEvalName);
-        this.lastEvalName = lastEvalName;
-        this.evalName = nextEvalName;
-        this.evalBaseObject = returnObject;
-        return returnObject;
-    }
-
     /**
-        Get the next object by consuming one or more components of evalName.
+        Get the next object by consuming one or more components of the name.
         Often this consumes just one component, but if the name is a classname
         it will consume all of the components necessary to make the class
         identifier.
     */
-    private Object consumeNextObjectField(
+    private Object consumeNextObjectField( Evaluation ev,
         CallStack callstack, Interpreter interpreter,
         boolean forceClass, boolean autoAllocateThis )
         throws UtilEvalError
     {
+        Plan plan = ev.plan;
+        Object evalBaseObject = ev.evalBaseObject;
+        String varName = ev.part();
+
         /*
             Is it a simple variable name?
             Doing this first gives the correct Java precedence for vars
             vs. imported class names (at least in the simple case - see
             tests/precedence1.bsh).  It should also speed things up a bit.
         */
-        if ( evalBaseObject == null && !isCompound(evalName) && !forceClass ) {
-            Object obj = resolveThisFieldReference(
-                callstack, namespace, interpreter, evalName, false );
+        if ( evalBaseObject == null && !ev.isCompound() && !forceClass ) {
+            Object obj = resolveThisFieldReference( ev,
+                callstack, namespace, interpreter, varName, false );
 
             if ( obj != Primitive.VOID )
-                return completeRound( evalName, FINISHED, obj );
+                return ev.completeRound( varName, plan.parts.length, obj );
         }
 
         /*
@@ -241,17 +350,16 @@ class Name implements java.io.Serializable
             If we're just starting the eval of name (no base object)
             or we're evaluating relative to a This type reference check.
         */
-        String varName = prefix(evalName, 1);
         if ( ( evalBaseObject == null || evalBaseObject instanceof This  )
             && !forceClass )
         {
             Object obj;
             // switch namespace and special var visibility
             if ( evalBaseObject == null ) {
-                obj = resolveThisFieldReference(
+                obj = resolveThisFieldReference( ev,
                     callstack, namespace, interpreter, varName, false );
             } else {
-                obj = resolveThisFieldReference(
+                obj = resolveThisFieldReference( ev,
                     callstack, ((This)evalBaseObject).namespace,
                     interpreter, varName, true );
             }
@@ -259,7 +367,7 @@ class Name implements java.io.Serializable
             if ( obj != Primitive.VOID )
             {
                 // Resolved the variable
-                return completeRound( varName, suffix(evalName), obj );
+                return ev.completeRound( varName, ev.next + 1, obj );
             }
         }
 
@@ -269,30 +377,15 @@ class Name implements java.io.Serializable
         */
         if ( evalBaseObject == null )
         {
-            Interpreter.debug( "trying class: ", evalName);
-
-            /*
-                Keep adding parts until we have a class
-            */
-            Class clas = null;
-            int i = 1;
-            String className = null;
-            for(; i <= countParts(evalName); i++)
-            {
-                className = prefix(evalName, i);
-                if ( (clas = namespace.getClass(className)) != null )
-                    break;
-            }
+            ClassPrefix classPrefix = resolveClassPrefix( plan );
+            if ( classPrefix.parts > 0 )
+                return ev.completeRound(
+                    plan.prefixes[classPrefix.parts], classPrefix.parts,
+                    classPrefix.classIdentifier );
 
-            if ( clas != null )  {
-                return completeRound(
-                    className,
-                    suffix( evalName, countParts(evalName)-i ),
-                    new ClassIdentifier(clas)
-                );
-            }
             // not a class (or variable per above)
-            Interpreter.debug( "not a class, trying var prefix ", evalName );
+            if ( Interpreter.isDebug() )
+                Interpreter.debug( "not a class, trying var prefix ", value );
         }
 
         // No variable or class found in 'this' type ref.
@@ -306,7 +399,7 @@ class Name implements java.io.Serializable
             Object obj = new NameSpace(
                 targetNameSpace, "auto: "+varName ).getThis( interpreter );
             targetNameSpace.setVariable( varName, obj, false, evalBaseObject == null );
-            return completeRound( varName, suffix(evalName), obj );
+            return ev.completeRound( varName, ev.next + 1, obj );
         }
 
         /*
@@ -318,12 +411,12 @@ class Name implements java.io.Serializable
             - If we are compound then we must fail at this point.
         */
         if ( evalBaseObject == null ) {
-            if ( !isCompound(evalName) ) {
+            if ( !ev.isCompound() ) {
                 Object obj = namespace.getPropertyValue(varName, interpreter);
-                return completeRound( evalName, FINISHED, obj );
+                return ev.completeRound( varName, plan.parts.length, obj );
             } else
                 throw new UtilEvalError(
-                    "Class or variable not found: " + evalName);
+                    "Class or variable not found: " + value);
         }
 
         /*
@@ -349,6 +442,9 @@ class Name implements java.io.Serializable
             throw new UtilEvalError("Can't treat primitive like an object. "+
             "Error while evaluating: "+value);
 
+        String field = varName;
+        Member member = plan.members[ev.next];
+
         /*
             Resolve relative to a class type
             static field, inner class, ?
@@ -356,7 +452,12 @@ class Name implements java.io.Serializable
         if ( evalBaseObject instanceof ClassIdentifier )
         {
             Class clas = ((ClassIdentifier)evalBaseObject).getTargetClass();
-            String field = prefix(evalName, 1);
+
+            // static field seen here before?
+            if ( member != null && member.type == clas && member.isCurrent()
+                    && member.field != null && member.field.isStatic() )
+                return ev.completeRound( field, ev.next + 1,
+                    Reflect.getFieldValue( member.field, null, field ) );
 
             // Class qualified 'this' reference from inner class.
             // e.g. 'MyOuterClass.this'
@@ -370,8 +471,8 @@ class Name implements java.io.Serializable
                     if ( ns.classInstance != null
                         && ns.classInstance.getClass() == clas
                     )
-                        return completeRound(
-                            field, suffix(evalName), ns.classInstance );
+                        return ev.completeRound(
+                            field, ev.next + 1, ns.classInstance );
                     ns=ns.getParent();
                 }
                 throw new UtilEvalError(
@@ -381,11 +482,16 @@ class Name implements java.io.Serializable
             Object obj = null;
             // static field?
             try {
-                Interpreter.debug("Name call to getStaticFieldValue, class: ",
-                        clas, ", field:", field);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("Name call to getStaticFieldValue, class: ",
+                            clas, ", field:", field);
                 obj = Reflect.getStaticFieldValue(clas, field);
+                if ( !Reflect.isGeneratedClass(clas) )
+                    plan.members[ev.next] = new Member( clas,
+                        Reflect.resolveJavaField(clas, field, true), field );
             } catch( ReflectError e ) {
-                Interpreter.debug("field reflect error: ", e);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("field reflect error: ", e);
             }
 
             // inner class?
@@ -407,7 +513,8 @@ class Name implements java.io.Serializable
             if ( obj == null ) try {
                 obj = Reflect.getObjectProperty(clas, field);
             } catch (ReflectError e) {
-                Interpreter.debug("field reflect error: ", e);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("field reflect error: ", e);
             }
 
             if ( obj == null )
@@ -415,7 +522,7 @@ class Name implements java.io.Serializable
                     "No static field or inner class: "
                     + field + " of " + clas );
 
-            return completeRound( field, suffix(evalName), obj );
+            return ev.completeRound( field, ev.next + 1, obj );
         }
 
         /*
@@ -430,25 +537,82 @@ class Name implements java.io.Serializable
             Some kind of field access?
         */
 
-        String field = prefix(evalName, 1);
+        Class<?> type = evalBaseObject.getClass();
 
         // length access on array?
-        if ( field.equals("length") && evalBaseObject.getClass().isArray() )
+        if ( field.equals("length") && type.isArray() )
         {
             Object obj = new Primitive(Array.getLength(evalBaseObject));
-            return completeRound( field, suffix(evalName), obj );
+            return ev.completeRound( field, ev.next + 1, obj );
         }
 
+        // Field or property of a plain java object, which is decided once
+        // per type.  Scripted objects resolve their fields in namespaces.
+        if ( member == null || member.type != type || !member.isCurrent() ) {
+            if ( evalBaseObject instanceof This
+                    || Reflect.isGeneratedClass(type) )
+                return ev.completeRound( field, ev.next + 1,
+                    getObjectFieldOrProperty( evalBaseObject, field ) );
+            plan.members[ev.next] = member = new Member( type,
+                Reflect.resolveJavaField(type, field, false), field );
+        }
+
+        Object obj = member.field != null
+            ? Reflect.getFieldValue(member.field, evalBaseObject, field)
+            : member.getter != null
+            ? Reflect.getPropertyValue(member.getter, evalBaseObject, field)
+            : Reflect.getObjectProperty(evalBaseObject, field);
+        return ev.completeRound( field, ev.next + 1, obj );
+    }
+
+    /**
+        Field value of a scripted object, or property value when there is
+        no such field.
+    */
+    private static Object getObjectFieldOrProperty(
+        Object object, String field ) throws UtilEvalError
+    {
         // Check for field on object
         // Note: could eliminate throwing the exception somehow
         try {
-            Object obj = Reflect.getObjectFieldValue(evalBaseObject, field);
-            return completeRound( field, suffix(evalName), obj );
+            return Reflect.getObjectFieldValue(object, field);
         } catch(ReflectError e) { /* not a field */ }
 
-        Object obj = Reflect.getObjectProperty(evalBaseObject, field);
-        return completeRound( field, suffix(evalName), obj );
+        return Reflect.getObjectProperty(object, field);
+    }
+
+    /**
+        Find the shortest leading part of the name which is a class.
+        The answer is taken from the plan while the imports in scope and the
+        class space are unchanged, otherwise the prefixes are probed one by
+        one through the namespace and the answer is recorded.
+    */
+    private ClassPrefix resolveClassPrefix( Plan plan ) throws UtilEvalError
+    {
+        NameSpace importScope = namespace.getImportScope();
+        BshClassManager bcm = namespace.getClassManager();
+        ClassPrefix classPrefix = plan.classPrefix;
+        if ( classPrefix != null && classPrefix.isValid( importScope, bcm ) )
+            return classPrefix;
+
+        // read the stamps before the probe so a concurrent change wins
+        long classVersion = bcm.getVersion();
+        long importVersion = bcm.getImportVersion();
 
+        if ( Interpreter.isDebug() )
+            Interpreter.debug( "trying class: ", value);
+
+        /*
+            Keep adding parts until we have a class
+        */
+        Class<?> clas = null;
+        int i = 1;
+        for(; i <= plan.parts.length; i++)
+            if ( (clas = namespace.getClass(plan.prefixes[i])) != null )
+                break;
+
+        return plan.classPrefix = new ClassPrefix( importScope, bcm,
+            classVersion, importVersion, clas == null ? 0 : i, clas );
     }
 
     /**
@@ -467,7 +631,7 @@ class Name implements java.io.Serializable
         @param namespace the namespace of the this reference (should be the
         same as the top of the stack?
     */
-    Object resolveThisFieldReference(
+    private Object resolveThisFieldReference( Evaluation ev,
         CallStack callstack, NameSpace thisNameSpace, Interpreter interpreter,
         String varName, boolean specialFieldsVisible )
         throws UtilEvalError
@@ -493,7 +657,7 @@ class Name implements java.io.Serializable
             NameSpace classNameSpace = getClassNameSpace( thisNameSpace );
             if ( classNameSpace != null )
             {
-                if ( isCompound( evalName ) )
+                if ( ev.isCompound() )
                     result = classNameSpace.getThis( interpreter );
                 else
                     result = classNameSpace.getClassInstance();
@@ -544,7 +708,7 @@ class Name implements java.io.Serializable
             else if (varName.equals("methods"))
                 obj = thisNameSpace.getMethodNames();
             else if ( varName.equals("interpreter") )
-                if ( lastEvalName.equals("this") )
+                if ( ev.lastEvalName.equals("this") )
                     obj = interpreter;
                 else
                     throw new UtilEvalError(
@@ -553,12 +717,13 @@ class Name implements java.io.Serializable
 
         if ( obj == null && specialFieldsVisible && varName.equals("caller") )
         {
-            if ( lastEvalName.equals("this") || lastEvalName.equals("caller") )
+            if ( ev.lastEvalName.equals("this")
+                    || ev.lastEvalName.equals("caller") )
             {
                 // get the previous context (see notes for this class)
                 if ( callstack == null )
                     throw new InterpreterError("no callstack");
-                obj = callstack.get( ++callstackDepth ).getThis(
+                obj = callstack.get( ++ev.callstackDepth ).getThis(
                     interpreter );
             }
             else
@@ -572,7 +737,7 @@ class Name implements java.io.Serializable
         if ( obj == null && specialFieldsVisible
             && varName.equals("callstack") )
         {
-            if ( lastEvalName.equals("this") )
+            if ( ev.lastEvalName.equals("this") )
             {
                 // get the previous context (see notes for this class)
                 if ( callstack == null )
@@ -585,7 +750,7 @@ class Name implements java.io.Serializable
         }
 
         if ( obj == null )
-            obj = thisNameSpace.getVariable(varName, evalBaseObject == null);
+            obj = thisNameSpace.getVariable(varName, ev.evalBaseObject == null);
 
         if ( obj == null )
             obj = Primitive.NULL;
@@ -621,20 +786,18 @@ class Name implements java.io.Serializable
         @throws ClassPathException (type of EvalError) on special case of
         ambiguous unqualified name after super import.
     */
-    synchronized public Class toClass()
+    public Class toClass()
         throws ClassNotFoundException, UtilEvalError
     {
         if ( asClass != null )
             return asClass;
 
-        reset();
-
         // "var" means untyped, return null class
-        if ( evalName.equals("var") )
+        if ( value.equals("var") )
             return asClass = null;
 
         /* Try straightforward class name first */
-        Class clas = namespace.getClass( evalName );
+        Class clas = namespace.getClass( value );
 
         if ( clas == null )
         {
@@ -663,33 +826,33 @@ class Name implements java.io.Serializable
 
     /*
     */
-    synchronized public LHS toLHS(
+    public LHS toLHS(
         CallStack callstack, Interpreter interpreter )
         throws UtilEvalError
     {
         // Should clean this up to a single return statement
-        reset();
+        Evaluation ev = new Evaluation( plan() );
         LHS lhs;
 
         // Simple (non-compound) variable assignment e.g. x=5;
-        if ( !isCompound(evalName) )
+        if ( !ev.isCompound() )
         {
-            if ( evalName.equals("this") )
+            if ( value.equals("this") )
                 throw new UtilEvalError("Can't assign to 'this'." );
 
             if (namespace.isClass) // Loose type field
-                lhs = new LHS( namespace, evalName );
+                lhs = new LHS( namespace, value );
             else
-                lhs = new LHS( namespace, evalName, false/*bubble up if allowed*/);
+                lhs = new LHS( namespace, value, false/*bubble up if allowed*/);
             return lhs;
         }
 
         // Field e.g. foo.bar=5;
         Object obj = null;
         try {
-            while( evalName != null && isCompound( evalName ) )
+            while( !ev.isFinished() && ev.isCompound() )
             {
-                obj = consumeNextObjectField( callstack, interpreter,
+                obj = consumeNextObjectField( ev, callstack, interpreter,
                     false/*forcclass*/, true/*autoallocthis*/ );
             }
         }
@@ -698,13 +861,14 @@ class Name implements java.io.Serializable
         }
 
         // Finished eval and its a class.
-        if ( evalName == null && obj instanceof ClassIdentifier )
+        if ( ev.isFinished() && obj instanceof ClassIdentifier )
             throw new UtilEvalError("Can't assign to class: " + value );
 
         if ( obj == null )
             throw new UtilEvalError("Error in LHS: " + value );
 
         // e.g. this.x=5;  or someThisType.x=5;
+        String evalName = ev.isFinished() ? null : ev.part();
         if ( obj instanceof This )
         {
             // dissallow assignment to magic fields
@@ -717,7 +881,8 @@ class Name implements java.io.Serializable
                 throw new UtilEvalError(
                     "Can't assign to special variable: "+evalName );
 
-            Interpreter.debug("found This reference evaluating LHS");
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("found This reference evaluating LHS");
             /*
                 If this was a literal "super" reference then we allow recursion
                 in setting the variable to get the normal effect of finding the
@@ -728,7 +893,7 @@ class Name implements java.io.Serializable
 
                 In the old scoping rules super didn't do this.
             */
-            boolean localVar = !lastEvalName.equals("super");
+            boolean localVar = !ev.lastEvalName.equals("super");
             return new LHS( ((This)obj).namespace, evalName, localVar );
         }
 
@@ -782,7 +947,8 @@ class Name implements java.io.Serializable
     )
         throws UtilEvalError, EvalError, ReflectError, InvocationTargetException
     {
-        String methodName = Name.suffix(value, 1);
+        Plan plan = plan();
+        String methodName = plan.parts[plan.parts.length - 1];
         BshClassManager bcm = interpreter.getClassManager();
         NameSpace namespace = callstack.top();
 
@@ -793,7 +959,7 @@ class Name implements java.io.Serializable
             return Reflect.invokeStaticMethod(
                 bcm, classOfStaticMethod, methodName, args, callerInfo );
 
-        if ( !Name.isCompound(value) )
+        if ( plan.parts.length == 1 )
             return invokeLocalMethod(
                 interpreter, args, callstack, callerInfo );
 
@@ -803,10 +969,10 @@ class Name implements java.io.Serializable
         // for BlockNameSpace case.  They currently work via the direct name
         // e.g. methodName().
 
-        String prefix = Name.prefix(value);
+        String prefix = plan.prefixes[plan.parts.length - 1];
 
         // Superclass method invocation? (e.g. super.foo())
-        if ( prefix.equals("super") && Name.countParts(value) == 2 )
+        if ( prefix.equals("super") && plan.parts.length == 2 )
         {
             // Allow getThis() to work through block namespaces first
             This ths = namespace.getThis( interpreter );
@@ -843,9 +1009,10 @@ class Name implements java.io.Serializable
                 // should avoid calling methods on primitive, as we do
                 // in Name (can't treat primitive like an object message)
                 // but the hole is useful right now.
-                Interpreter.debug(
-                    "Attempt to access method on primitive...",
-                    " allowing bsh.Primitive to peek through for debugging");
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug(
+                        "Attempt to access method on primitive...",
+                        " allowing bsh.Primitive to peek through for debugging");
             }
 
             // enum block members will be in namespace only
@@ -866,7 +1033,8 @@ class Name implements java.io.Serializable
         // It's a class
 
         // try static method
-        Interpreter.debug("invokeMethod: trying static - ", targetName);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("invokeMethod: trying static - ", targetName);
 
         Class clas = ((ClassIdentifier)obj).getTargetClass();
 
@@ -897,7 +1065,8 @@ class Name implements java.io.Serializable
     )
         throws EvalError/*, ReflectError, InvocationTargetException*/
     {
-        Interpreter.debug( "invokeLocalMethod: ", value );
+        if ( Interpreter.isDebug() )
+            Interpreter.debug( "invokeLocalMethod: ", value );
         if ( interpreter == null )
             throw new InterpreterError(
                 "invokeLocalMethod: interpreter = null");
@@ -1001,56 +1170,19 @@ class Name implements java.io.Serializable
     // Static methods that operate on compound ('.' separated) names
     // I guess we could move these to StringUtil someday
 
-    private static class Parts {
-        private static final Map<String, Parts> PARTSCACHE = new WeakHashMap<>();
-        private final String[] prefix;
-        private final String[] suffix;
-        private final List<String> list;
-        public final int count;
-        private Parts(String value) {
-            this.list = Arrays.asList(value.split("\\."));
-            this.count = list.size();
-            this.prefix = new String[count + 1];
-            this.suffix = new String[count + 1];
-        }
-        public String prefix(int parts) {
-            if (1 > parts || count < parts)
-                return null;
-            if (null == prefix[parts])
-                prefix[parts] = String.join(".", list.subList(0, parts));
-            return prefix[parts];
-        }
-        public String suffix(int parts) {
-            if (1 > parts || count < parts)
-                return null;
-            if (null == suffix[parts])
-                suffix[parts] = String.join(".", list.subList(count - parts, count));
-            return suffix[parts];
-        }
-        public static Parts get(String value) {
-            if (PARTSCACHE.containsKey(value))
-                return PARTSCACHE.get(value);
-            Parts parts = new Parts(value);
-            PARTSCACHE.put(value, parts);
-            parts.prefix[parts.count] = value;
-            parts.suffix[parts.count] = value;
-            if (parts.count == 1)
-                return parts;
-            parts.prefix[1] = parts.list.get(0);
-            parts.suffix[1] = parts.list.get(parts.count - 1);
-            return parts;
-        }
-    }
     public static boolean isCompound(String value)
     {
-        return countParts(value) > 1;
+        return value != null && value.indexOf('.') != -1;
     }
 
     static int countParts(String value)
     {
         if( value == null )
             return 0;
-        return Parts.get(value).count;
+        int count = 1;
+        for ( int i = value.indexOf('.'); i != -1; i = value.indexOf('.', i + 1) )
+            count++;
+        return count;
     }
 
     static String prefix(String value)
@@ -1060,9 +1192,13 @@ class Name implements java.io.Serializable
 
     static String prefix(String value, int parts)
     {
-        if (null == value)
+        if ( value == null || parts < 1 )
             return null;
-        return Parts.get(value).prefix(parts);
+        int end = -1;
+        while ( parts-- > 0 )
+            if ( (end = value.indexOf('.', end + 1)) == -1 )
+                return parts == 0 ? value : null;
+        return value.substring(0, end);
     }
 
     static String suffix(String value)
@@ -1072,9 +1208,13 @@ class Name implements java.io.Serializable
 
     public static String suffix(String value, int parts)
     {
-        if (null == value)
+        if ( value == null || parts < 1 )
             return null;
-        return Parts.get(value).suffix(parts);
+        int start = value.length();
+        while ( parts-- > 0 )
+            if ( (start = value.lastIndexOf('.', start - 1)) == -1 )
+                return parts == 0 ? value : null;
+        return value.substring(start + 1);
     }
 
     // end compound name routines
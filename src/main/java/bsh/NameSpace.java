@@ -26,15 +26,20 @@
 package bsh;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** A namespace in which methods, variables, and imports (class names) live.
  * This is package public because it is used in the implementation of some bsh
@@ -112,6 +117,29 @@ public class NameSpace
      * are cached here (those which might be imported). Qualified names are
      * always absolute and are cached by BshClassManager. */
     private transient Map<String, Class<?>> classCache = new HashMap<>();
+    /** Local negative cache of names which did not resolve to a class
+     * through this namespace. Like the classCache it is dropped when the
+     * imports of this namespace or the class space change. */
+    private transient Set<String> nonClasses = new HashSet<>();
+    /** Once sealed the tables of this namespace are frozen and may be read
+     * concurrently without locking, see seal(). */
+    private volatile boolean sealed;
+    /** The namespace this namespace was forked from, see fork(). */
+    private transient NameSpace forkedFrom;
+    /** Scripted methods inherited from forkedFrom, bound to this namespace. */
+    private transient Map<BshMethod, BshMethod> forkedMethods;
+    /** Tables shared with a fork or origin which must be copied before they
+     * are modified, see fork(). */
+    private transient boolean variablesShared, methodsShared, importsShared;
+    /** Members of the object and static imports, see getImportIndex(). */
+    private transient ImportIndex importIndex;
+    /** The method table indexed for lookup by name, see getOverloads(). */
+    private transient Map<String, Overloads> overloads;
+    /** Monotonic stamp of changes to this namespace, see getVersion(). */
+    private volatile long version;
+    /** The versions of this namespace and of the class manager for which the
+     * entries of classCache and names are valid. */
+    private transient long cacheVersion, cacheClassVersion;
 
     /** Sets the class static.
      * @param clas the new class static */
@@ -172,8 +200,7 @@ public class NameSpace
         this.setName(name);
         this.setParent(parent);
         this.setClassManager(classManager);
-        // Register for notification of classloader change
-        this.getClassManager().addListener(this);
+        this.cacheClassVersion = this.getClassManager().getVersion();
     }
 
     /** Sets the name.
@@ -277,7 +304,7 @@ public class NameSpace
         if (value == null)
             value = Primitive.NULL; // So then wrap it
         // Locate the variable definition if it exists.
-        final Variable existing = this.getVariableImpl(name, recurse);
+        final Variable existing = this.getAssignableVariable(name, recurse);
         // Found an existing variable here (or above if recurse allowed)
         if ( existing != null ) {
             existing.setValue( value, Variable.ASSIGNMENT );
@@ -288,13 +315,14 @@ public class NameSpace
                 throw new UtilEvalError(
                         "(Strict Java mode) Assignment to undeclared variable: "
                                 + name);
+            this.checkSealedVariable(name);
             // If recurse, set global untyped var, else set it here.
             // NameSpace varScope = recurse ? getGlobal() : this;
             // This modification makes default allocation local
             // NameSpace varScope = this;
             final Variable var = this.createVariable(name, value,
                     null/* modifiers */);
-            this.variables.put(name, var);
+            this.writableVariables().put(name, var);
             this.nameSpaceChanged();
             return var;
         }
@@ -366,7 +394,7 @@ public class NameSpace
         if (value == null)
             throw new InterpreterError("null variable value");
         // Locate the variable definition if it exists.
-        final Variable existing = this.getVariableImpl(name, recurse);
+        final Variable existing = this.getAssignableVariable(name, recurse);
         // Found an existing variable here (or above if recurse allowed)
         if (existing != null)
             try {
@@ -385,11 +413,12 @@ public class NameSpace
                     null);
             if (setProp)
                 return;
+            this.checkSealedVariable(name);
             // If recurse, set global untyped var, else set it here.
             // NameSpace varScope = recurse ? getGlobal() : this;
             // This modification makes default allocation local
             final NameSpace varScope = this;
-            varScope.variables.put(name,
+            varScope.writableVariables().put(name,
                     this.createVariable(name, value, null/* modifiers */));
             this.nameSpaceChanged();
         }
@@ -415,7 +444,7 @@ public class NameSpace
      * @throws UtilEvalError the util eval error */
     protected Variable createVariable(final String name, final Class<?> type,
             final Object value, final Modifiers mods) throws UtilEvalError {
-        return new Variable(name, type, value, mods);
+        return Variable.create(name, type, value, mods);
     }
 
     /** Creates the variable.
@@ -432,7 +461,9 @@ public class NameSpace
     /** Remove the variable from the namespace.
      * @param name the name */
     public void unsetVariable(final String name) {
-        this.variables.remove(name);
+        this.checkNotSealed("unset variable " + name);
+        if (this.variables.containsKey(name))
+            this.writableVariables().remove(name);
         this.nameSpaceChanged();
     }
 
@@ -559,6 +590,10 @@ public class NameSpace
     /** Sets the parent.
      * @param parent the new parent */
     public void setParent(final NameSpace parent) {
+        // classes resolved through our imports may resolve differently
+        if (this.parent != null && this.parent != parent
+                && this.hasImports())
+            this.getClassManager().importsChanged();
         this.parent = parent;
         // If we are disconnected from root we need to handle the def imports
         if (parent == null)
@@ -638,8 +673,9 @@ public class NameSpace
     }
 
     protected void setVariableImpl(Variable var) {
+        this.checkNotSealed("declare variable " + var.getName());
         if (!this.variables.containsKey(var.getName()))
-            this.variables.put(var.getName(), var);
+            this.writableVariables().put(var.getName(), var);
     }
     /*
         Get variables declared in this namespace.
@@ -693,8 +729,9 @@ public class NameSpace
     public void setTypedVariable(final String name, final Class<?> type,
             final Object value, final Modifiers modifiers)
             throws UtilEvalError {
+        this.checkSealedVariable(name);
         // Setting a typed variable is always a local operation.
-        final Variable existing = this.getVariableImpl(name,
+        final Variable existing = this.getAssignableVariable(name,
                 false/* recurse */);
         // Null value is just a declaration
         // Note: we might want to keep any existing value here instead of reset
@@ -715,7 +752,7 @@ public class NameSpace
                 return;
             }
         // Add the new typed var
-        this.variables.put(name,
+        this.writableVariables().put(name,
                 this.createVariable(name, type, value, modifiers));
     }
 
@@ -732,10 +769,13 @@ public class NameSpace
      * @see Interpreter#eval(String) */
     public void setMethod(BshMethod method) {
         String name = method.getName();
-        if (!this.methods.containsKey(name))
-            this.methods.put(name, new ArrayList<BshMethod>(1));
-        this.methods.get(name).remove(method);
-        this.methods.get(name).add(0, method);
+        this.checkNotSealed("declare method " + name);
+        final List<BshMethod> list = this.writableMethods()
+                .computeIfAbsent(name, n -> new ArrayList<>(1));
+        list.remove(method);
+        list.add(0, method);
+        if (this.overloads != null)
+            this.overloads.remove(name);
     }
 
     /** Gets the method.
@@ -771,14 +811,11 @@ public class NameSpace
         // Get import first. Enum blocks may override class methods.
         if (this.isClass && !this.isEnum && !declaredOnly)
             method = this.getImportedMethod(name, sig);
-        if (method == null && this.methods.containsKey(name)) {
+        if (method == null) {
             // Apply most specific signature matching
-            final Class<?>[][] candidates = this.methods.get(name)
-                    .stream().map(m -> m.getParameterTypes())
-                    .toArray(Class<?>[][]::new);
-            int idx = Reflect.findMostSpecificSignature(sig, candidates);
-            if (idx != -1)
-                method = this.methods.get(name).get(idx);
+            final Overloads overloads = this.getOverloads(name);
+            if (overloads != null && (method = overloads.resolve(sig)) != null)
+                method = this.forkedMethod(method);
         }
         if (method == null && !this.isClass && !declaredOnly)
             method = this.getImportedMethod(name, sig);
@@ -788,19 +825,143 @@ public class NameSpace
         return method;
     }
 
+    /** The overloads declared here for a method name, indexed for lookup.
+     * The index is rebuilt when the list of overloads was replaced, setMethod()
+     * drops it when the list is modified.
+     * @param name the method name
+     * @return the overloads or null if no method has this name */
+    private Overloads getOverloads(final String name) {
+        final List<BshMethod> list = this.methods.get(name);
+        if (list == null)
+            return null;
+        if (this.overloads == null)
+            this.overloads = new HashMap<>();
+        Overloads overloads = this.overloads.get(name);
+        if (overloads == null || overloads.methods != list)
+            this.overloads.put(name, overloads = new Overloads(list));
+        return overloads;
+    }
+
+    /** The scripted overloads of a method name indexed for lookup. The
+     * candidates which may apply to a call are bucketed by number of
+     * arguments, each bucket with its matrix of parameter types ready for
+     * Reflect.findMostSpecificSignature(). The outcome of a lookup is
+     * remembered by argument types, the index is immutable otherwise. */
+    private static final class Overloads {
+        /** Lookups with more argument types are not remembered. */
+        private static final int MAX_RESOLVED = 64;
+        private static final Object NONE = new Object();
+
+        /** The list of overloads this index was built from. */
+        final List<BshMethod> methods;
+        private final BshMethod[][] candidates;
+        private final Class<?>[][][] signatures;
+        private final Map<SignatureKey, Object> resolved =
+                new ConcurrentHashMap<>();
+
+        Overloads(final List<BshMethod> methods) {
+            this.methods = methods;
+            int maxArity = 0;
+            for (final BshMethod m : methods)
+                maxArity = Math.max(maxArity, m.getParameterTypes().length);
+            // the last bucket holds the varargs candidates of longer calls
+            this.candidates = new BshMethod[maxArity + 2][];
+            this.signatures = new Class<?>[maxArity + 2][][];
+            final List<BshMethod> bucket = new ArrayList<>();
+            for (int arity = 0; arity < this.candidates.length; arity++) {
+                bucket.clear();
+                for (final BshMethod m : methods)
+                    if (mayApply(m.getParameterTypes(), arity))
+                        bucket.add(m);
+                this.candidates[arity] = bucket.toArray(new BshMethod[0]);
+                this.signatures[arity] = bucket.stream()
+                        .map(BshMethod::getParameterTypes)
+                        .toArray(Class<?>[][]::new);
+            }
+        }
+
+        /** Whether parameters may take a number of arguments, either by
+         * count or as the variable arguments of a trailing array.
+         * @see Types#isSignatureAssignable(Class[], Class[], int) */
+        private static boolean mayApply(final Class<?>[] params,
+                final int arity) {
+            if (params.length == arity)
+                return true;
+            final int last = params.length - 1;
+            return last >= 0 && last <= arity
+                    && params[last] != null && params[last].isArray();
+        }
+
+        /** Find the most specific overload for the argument types.
+         * @param sig the argument types
+         * @return the method or null if none applies */
+        BshMethod resolve(final Class<?>[] sig) {
+            Object method = this.resolved.get(new SignatureKey(null, sig));
+            if (method == null) {
+                final int arity = Math.min(sig.length,
+                        this.candidates.length - 1);
+                final int idx = Reflect.findMostSpecificSignature(sig,
+                        this.signatures[arity]);
+                method = idx == -1 ? NONE : this.candidates[arity][idx];
+                if (this.resolved.size() >= MAX_RESOLVED)
+                    this.resolved.clear();
+                this.resolved.put(new SignatureKey(null, sig.clone()), method);
+            }
+            return method == NONE ? null : (BshMethod) method;
+        }
+    }
+
+    /** Lookup key of a method by name and argument types. */
+    private static final class SignatureKey {
+        private final String name;
+        private final Class<?>[] types;
+        private final int hash;
+
+        /** @param name the method name, may be null
+         * @param types the argument types, not to be modified */
+        SignatureKey(final String name, final Class<?>[] types) {
+            this.name = name;
+            this.types = types;
+            this.hash = 31 * Objects.hashCode(name) + Arrays.hashCode(types);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof SignatureKey))
+                return false;
+            final SignatureKey key = (SignatureKey) o;
+            return this.hash == key.hash
+                    && Objects.equals(this.name, key.name)
+                    && Arrays.equals(this.types, key.types);
+        }
+    }
+
     /** Import a class name. Subsequent imports override earlier ones
      * @param name the name */
     public void importClass(final String name) {
+        this.checkNotSealed("import class " + name);
+        this.unshareImports();
         this.importedClasses.put(Name.suffix(name, 1), name);
         this.nameSpaceChanged();
+        this.getClassManager().importsChanged();
     }
 
     /** subsequent imports override earlier ones.
      * @param name the name */
     public void importPackage(final String name) {
+        this.checkNotSealed("import package " + name);
+        this.unshareImports();
         this.importedPackages.remove(name);
         this.importedPackages.add(0, name);
         this.nameSpaceChanged();
+        this.getClassManager().importsChanged();
     }
 
     /** Import scripted or compiled BeanShell commands in the following package
@@ -810,6 +971,8 @@ public class NameSpace
      * made into an absolute path by prepending "/".
      * @param name the name */
     public void importCommands(String name) {
+        this.checkNotSealed("import commands " + name);
+        this.unshareImports();
         // dots to slashes
         name = name.replace('.', '/');
         // absolute
@@ -847,7 +1010,8 @@ public class NameSpace
      *         errors loading a script that was found */
     public Object getCommand(final String name, final Class<?>[] argTypes,
             final Interpreter interpreter) throws UtilEvalError {
-        Interpreter.debug("getCommand: ", name);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("getCommand: ", name);
         final BshClassManager bcm = interpreter.getClassManager();
         // loop backwards for precedence
         for (final String path : this.importedCommands) {
@@ -856,12 +1020,12 @@ public class NameSpace
                 scriptPath = path + name + ".bsh";
             else
                 scriptPath = path + "/" + name + ".bsh";
-            Interpreter.debug("searching for script: " + scriptPath);
-            URL url = bcm.getResource(scriptPath);
-            if (null != url) try {
-                return this.loadScriptedCommand((InputStream) url.getContent(),
-                    name, argTypes, scriptPath, interpreter);
-            } catch (IOException e) { /* ignore */ }
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("searching for script: " + scriptPath);
+            final CommandCache.Script script = CommandCache.get(bcm, scriptPath);
+            if (null != script)
+                return this.loadScriptedCommand(script, name, argTypes,
+                    interpreter);
             // Chop leading "/" and change "/" to "."
             String className;
             if (path.equals("/"))
@@ -869,7 +1033,8 @@ public class NameSpace
             else
                 className = path.substring(1).replace('/', '.') + "."
                         + name;
-            Interpreter.debug("searching for class: " + className);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("searching for class: " + className);
             final Class<?> clas = bcm.classForName(className);
             if (clas != null)
                 return clas;
@@ -887,21 +1052,9 @@ public class NameSpace
      * @throws UtilEvalError the util eval error */
     protected BshMethod getImportedMethod(final String name, final Class<?>[] sig)
             throws UtilEvalError {
-        // Try object imports
-        for (final Object object : this.importedObjects) {
-            final Invocable method = Reflect.resolveJavaMethod(
-                   object.getClass(), name, sig, false/* onlyStatic */);
-            if (method != null)
-                return new BshMethod(method, object);
-        }
-        // Try static imports
-        for (final Class<?> stat : this.importedStatic) {
-            final Invocable method = Reflect.resolveJavaMethod(
-                    stat, name, sig, true/* onlyStatic */);
-            if (method != null)
-                return new BshMethod(method, null/* object */);
-        }
-        return null;
+        if (this.importedObjects.isEmpty() && this.importedStatic.isEmpty())
+            return null;
+        return this.getImportIndex().getMethod(name, sig);
     }
 
     /** Gets the imported var.
@@ -909,66 +1062,213 @@ public class NameSpace
      * @return the imported var
      * @throws UtilEvalError the util eval error */
     protected Variable getImportedVar(final String name) throws UtilEvalError {
+        if (this.importedObjects.isEmpty() && this.importedStatic.isEmpty())
+            return null;
+        final ImportIndex index = this.getImportIndex();
+        final ImportIndex.Field field = index.getField(name);
         Variable var = null;
-        // Try object imports
-        for (final Object object : this.importedObjects) {
-            final Invocable field = Reflect.resolveJavaField(object.getClass(),
-                    name, false/* onlyStatic */);
-            if (field != null)
-                var = this.createVariable(name, field.getReturnType(), new LHS(object, field));
-            else if (this.isClass) {
-                // try find inherited loose-typed instance fields
-                Class<?> supr = object.getClass();
+        // try find inherited loose-typed instance fields of the objects
+        // imported ahead of the field
+        if (this.isClass)
+            var = index.getInheritedVariable(name, field.position);
+        if (var == null)
+            var = field.variable;
+        if (var != null)
+            this.cacheImportedVar(var);
+        return var;
+    }
+
+    /** The index of the current object and static imports.
+     * @return the import index */
+    private ImportIndex getImportIndex() {
+        ImportIndex index = this.importIndex;
+        if (index == null)
+            this.importIndex = index = new ImportIndex(this);
+        return index;
+    }
+
+    /** Index of the members provided by the object and static imports of a
+     * namespace. Fields are looked up by name and methods by name and
+     * argument types, in order of import, and the outcome, found or not, is
+     * remembered along with the method wrappers. Java members do not change
+     * so entries stay valid until the imports change, when the index is
+     * discarded. Loose-typed fields of scripted superclasses of imported
+     * objects may come and go and are looked up each time.
+     * <p>
+     * An index may be shared by forks and used concurrently. */
+    private static final class ImportIndex {
+        /** Entries beyond this many are not remembered. */
+        private static final int MAX_ENTRIES = 1024;
+        private static final Object NONE = new Object();
+
+        /** A Java field of the imports. */
+        static final class Field {
+            /** The variable bound to the field or null if not found */
+            final Variable variable;
+            /** The import position of the field, an index into objects or
+             * objects.size() for the static imports. */
+            final int position;
+
+            Field(final Variable variable, final int position) {
+                this.variable = variable;
+                this.position = position;
+            }
+        }
+
+        private final NameSpace namespace;
+        private final Object[] objects;
+        private final Class<?>[] statics;
+        /** Namespaces of the scripted superclasses of each object. */
+        private final NameSpace[][] inherited;
+        private final Map<String, Field> fields = new ConcurrentHashMap<>();
+        private final Map<SignatureKey, Object> methods =
+                new ConcurrentHashMap<>();
+
+        ImportIndex(final NameSpace namespace) {
+            this.namespace = namespace;
+            this.objects = namespace.importedObjects.toArray();
+            this.statics = namespace.importedStatic.toArray(new Class<?>[0]);
+            this.inherited = new NameSpace[this.objects.length][];
+        }
+
+        Field getField(final String name) throws UtilEvalError {
+            Field field = this.fields.get(name);
+            if (field == null) {
+                field = this.findField(name);
+                if (this.fields.size() >= MAX_ENTRIES)
+                    this.fields.clear();
+                this.fields.put(name, field);
+            }
+            return field;
+        }
+
+        private Field findField(final String name) throws UtilEvalError {
+            // Try object imports
+            for (int i = 0; i < this.objects.length; i++) {
+                final Object object = this.objects[i];
+                final Invocable field = Reflect.resolveJavaField(
+                        object.getClass(), name, false/* onlyStatic */);
+                if (field != null)
+                    return new Field(this.namespace.createVariable(name,
+                            field.getReturnType(), new LHS(object, field)), i);
+            }
+            // Try static imports
+            for (final Class<?> stat : this.statics) {
+                final Invocable field = Reflect.resolveJavaField(stat,
+                        name, true/* onlyStatic */);
+                if (field != null)
+                    return new Field(this.namespace.createVariable(name,
+                            field.getReturnType(), new LHS(field)),
+                            this.objects.length);
+            }
+            return new Field(null, this.objects.length);
+        }
+
+        /** Find a loose-typed instance field declared by a scripted superclass
+         * of the objects imported before a position.
+         * @param name the field name
+         * @param position the number of objects to search
+         * @return the variable or null if not found */
+        Variable getInheritedVariable(final String name, final int position) {
+            for (int i = 0; i < position && i < this.objects.length; i++)
+                for (final NameSpace ns : this.getInherited(i)) {
+                    final Variable var = ns.variables.get(name);
+                    if (null != var)
+                        return var;
+                }
+            return null;
+        }
+
+        private NameSpace[] getInherited(final int i) {
+            if (this.inherited[i] == null) {
+                final List<NameSpace> spaces = new ArrayList<>();
+                Class<?> supr = this.objects[i].getClass();
                 while (Reflect.isGeneratedClass(supr = supr.getSuperclass())) {
-                    This ths = Reflect.getClassInstanceThis(object, supr.getSimpleName());
-                    if (null != ths && null != (var = ths.getNameSpace().variables.get(name)))
-                        break;
+                    final This ths = Reflect.getClassInstanceThis(
+                            this.objects[i], supr.getSimpleName());
+                    if (null != ths)
+                        spaces.add(ths.getNameSpace());
                 }
+                this.inherited[i] = spaces.toArray(new NameSpace[0]);
             }
-            if (null != var) {
-                this.variables.put(name, var);
-                return var;
+            return this.inherited[i];
+        }
+
+        BshMethod getMethod(final String name, final Class<?>[] sig)
+                throws UtilEvalError {
+            Object method = this.methods.get(new SignatureKey(name, sig));
+            if (method == null) {
+                method = this.findMethod(name, sig);
+                if (method == null)
+                    method = NONE;
+                if (this.methods.size() >= MAX_ENTRIES)
+                    this.methods.clear();
+                this.methods.put(new SignatureKey(name, sig.clone()), method);
             }
+            return method == NONE ? null : (BshMethod) method;
         }
-        // Try static imports
-        for (final Class<?> stat : this.importedStatic) {
-            final Invocable field = Reflect.resolveJavaField(stat,
-                    name, true/* onlyStatic */);
-            if (field != null) {
-                var = this.createVariable(name, field.getReturnType(),
-                        new LHS(field));
-                this.variables.put(name, var);
-                return var;
+
+        private BshMethod findMethod(final String name, final Class<?>[] sig)
+                throws UtilEvalError {
+            // Try object imports
+            for (final Object object : this.objects) {
+                final Invocable method = Reflect.resolveJavaMethod(
+                       object.getClass(), name, sig, false/* onlyStatic */);
+                if (method != null)
+                    return new BshMethod(method, object);
+            }
+            // Try static imports
+            for (final Class<?> stat : this.statics) {
+                final Invocable method = Reflect.resolveJavaMethod(
+                        stat, name, sig, true/* onlyStatic */);
+                if (method != null)
+                    return new BshMethod(method, null/* object */);
             }
+            return null;
         }
-        return null;
     }
 
-    /** Load a command script from the input stream and find the BshMethod in
-     * the target namespace.
-     * @param in the in
+    /** Remember a variable resolved through the imported objects or statics.
+     * The variable tables of a sealed namespace are immutable, in which case
+     * the import is simply resolved again on the next lookup.
+     * @param var the imported variable */
+    private void cacheImportedVar(final Variable var) {
+        if (!this.sealed)
+            this.writableVariables().put(var.getName(), var);
+    }
+
+    /** Evaluate a parsed command script and find the BshMethod in the target
+     * namespace. The methods bound share the parsed bodies of the script.
+     * @param script the script
      * @param name the name
      * @param argTypes the arg types
-     * @param resourcePath the resource path
      * @param interpreter the interpreter
      * @return the bsh method
      * @throws UtilEvalError on error in parsing the script or if the the method
      *         is not found after parsing the script. If we want to support
      *         multiple commands in the command path we need to change this to
      *         not throw the exception. */
-    private BshMethod loadScriptedCommand(final InputStream in,
+    private BshMethod loadScriptedCommand(final CommandCache.Script script,
             final String name, final Class<?>[] argTypes,
-            final String resourcePath, final Interpreter interpreter)
+            final Interpreter interpreter)
             throws UtilEvalError {
-        try (FileReader reader = new FileReader(in)) {
-            interpreter.eval(reader, this, resourcePath);
-        } catch (IOException | EvalError e) {
+        // A sealed namespace can not take the declarations of the script, it
+        // is sourced into a scratch child and only the methods are published.
+        final NameSpace target = this.sealed
+                ? new NameSpace(this, "Command: " + name) : this;
+        try {
+            script.eval(target, interpreter);
+        } catch (EvalError e) {
             /* Here we catch any EvalError from the interpreter because we are
              * using it as a tool to load the command, not as part of the
              * execution path. */
-            Interpreter.debug(e.toString());
+            if ( Interpreter.isDebug() )
+                Interpreter.debug(e.toString());
             throw new UtilEvalError("Error loading script: " + e.getMessage(), e);
         }
+        if (target != this)
+            for (final BshMethod method : target.getMethods())
+                this.publishMethod(method);
         // Look for the loaded command
         final BshMethod meth = this.getMethod(name, argTypes);
         /* if (meth == null) throw new UtilEvalError("Loaded resource: " +
@@ -977,10 +1277,26 @@ public class NameSpace
         return meth;
     }
 
+    /** Add a lazily loaded command method to the method table of a sealed
+     * namespace. The table of a sealed namespace is concurrent and holds
+     * immutable lists, so the overloads are replaced rather than modified.
+     * @param method the command method */
+    private void publishMethod(final BshMethod method) {
+        this.methods.merge(method.getName(),
+                Collections.singletonList(method), (current, added) -> {
+                    final List<BshMethod> list = new ArrayList<>(added);
+                    for (final BshMethod m : current)
+                        if (!m.equals(method))
+                            list.add(m);
+                    return Collections.unmodifiableList(list);
+                });
+    }
+
     /** Helper that caches class.
      * @param name the name
      * @param c the c */
     void cacheClass(final String name, final Class<?> c) {
+        this.validateCaches();
         this.classCache.put(name, c);
     }
 
@@ -1014,8 +1330,11 @@ public class NameSpace
     private Class<?> getClassImpl(final String name) throws UtilEvalError {
         Class<?> c = null;
         // Check the cache
+        this.validateCaches();
         if (this.classCache.containsKey(name))
             return this.classCache.get(name);
+        if (this.nonClasses.contains(name))
+            return null;
         // Unqualified (simple, non-compound) name
         final boolean unqualifiedName = !Name.isCompound(name);
         // Unqualified name check imported
@@ -1034,7 +1353,9 @@ public class NameSpace
         if (c != null)
             return c;
         // Not found
-        Interpreter.debug("getClass(): ", name, " not found in ", this);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("getClass(): ", name, " not found in ", this);
+        this.nonClasses.add(name);
         return null;
     }
 
@@ -1065,8 +1386,9 @@ public class NameSpace
                 try {
                     clas = this.getNameResolver(fullname).toClass();
                 } catch (final ClassNotFoundException e) { /* not a class */ }
-            Interpreter.debug(
-                        "imported unpackaged name not found:", fullname);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug(
+                            "imported unpackaged name not found:", fullname);
             // If found cache the full name in the BshClassManager
             if (clas != null) {
                 // (should we cache info in not a class case too?)
@@ -1169,7 +1491,12 @@ public class NameSpace
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
 
-        this.classCache = new HashMap<>();
+        this.classCache = this.sealed ? new ConcurrentHashMap<>() : new HashMap<>();
+        if (this.sealed)
+            this.overloads = new ConcurrentHashMap<>();
+        this.nonClasses = this.sealed
+                ? Collections.newSetFromMap(new ConcurrentHashMap<>())
+                : new HashSet<>();
     }
     /** Invoke a method in this namespace with the specified args and
      * interpreter reference. No caller information or call stack is required.
@@ -1207,15 +1534,40 @@ public class NameSpace
                 interpreter, callstack, callerInfo, false/* declaredOnly */);
     }
 
-    /** Clear all cached classes and names. */
+    /** Invalidate all cached classes and names. Namespaces are not
+     * registered as listeners of the class manager, changes to the class
+     * space are detected through BshClassManager.getVersion(). */
     public void classLoaderChanged() {
         this.nameSpaceChanged();
     }
 
-    /** Clear all cached classes and names. */
+    /** Invalidate all cached classes and names by advancing the version. The
+     * caches are dropped the next time they are used. */
     public void nameSpaceChanged() {
-        this.classCache.clear();
-        this.names.clear();
+        this.version++;
+    }
+
+    /** Monotonic stamp of changes to the variables and imports of this
+     * namespace. Caches of names resolved through this namespace are valid
+     * while both this and the class manager's version are unchanged.
+     * @return the current version
+     * @see BshClassManager#getVersion() */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /** Drop the class and name caches if this namespace or the class manager
+     * changed since they were populated. */
+    private void validateCaches() {
+        final long classVersion = this.getClassManager().getVersion();
+        if (this.cacheVersion != this.version
+                || this.cacheClassVersion != classVersion) {
+            this.classCache.clear();
+            this.nonClasses.clear();
+            this.names.clear();
+            this.cacheVersion = this.version;
+            this.cacheClassVersion = classVersion;
+        }
     }
 
     /** Import standard packages. Currently:
@@ -1275,9 +1627,42 @@ public class NameSpace
      * @param ambigname the ambigname
      * @return the name resolver */
     Name getNameResolver(final String ambigname) {
-        if (!this.names.containsKey(ambigname))
-            this.names.put(ambigname, new Name(this, ambigname));
-        return this.names.get(ambigname);
+        return this.getNameResolver(ambigname, null);
+    }
+
+    /** Get the name resolver sharing the resolution plan of an AST node.
+     * @param ambigname the ambigname
+     * @param plan the plan of the node for ambigname, may be null
+     * @return the name resolver */
+    Name getNameResolver(final String ambigname, final Name.Plan plan) {
+        this.validateCaches();
+        Name name = this.names.get(ambigname);
+        if (name == null) {
+            name = new Name(this, ambigname, plan);
+            final Name existing = this.names.putIfAbsent(ambigname, name);
+            if (existing != null)
+                name = existing;
+        }
+        return name;
+    }
+
+    /** The nearest namespace, starting from this one, which has class or
+     * package imports of its own. Namespaces in between only pass class
+     * resolution on to their parent, so names resolve as they would from
+     * the import scope.
+     * @return the import scope */
+    NameSpace getImportScope() {
+        NameSpace ns = this;
+        while (ns.parent != null && !ns.hasImports())
+            ns = ns.parent;
+        return ns;
+    }
+
+    /** Whether this namespace has class or package imports of its own.
+     * @return true if there are class imports */
+    private boolean hasImports() {
+        return !this.importedClasses.isEmpty()
+                || !this.importedPackages.isEmpty();
     }
 
     /** Gets the invocation line.
@@ -1315,16 +1700,62 @@ public class NameSpace
      * namespace is the root, it will be reset to the default imports.
      * @see #loadDefaultImports() */
     public void clear() {
-        this.variables.clear();
-        this.methods.clear();
+        this.checkNotSealed("clear");
+        this.variables = new HashMap<>();
+        this.methods = new HashMap<>();
+        this.overloads = null;
+        this.variablesShared = this.methodsShared = false;
+        this.unshareImports();
         this.importedClasses.clear();
         this.importedPackages.clear();
         this.importedCommands.clear();
         this.importedObjects.clear();
+        this.importIndex = null;
         if (this.parent == null)
             this.loadDefaultImports();
         this.classCache.clear();
+        this.nonClasses.clear();
         this.names.clear();
+        this.getClassManager().importsChanged();
+    }
+
+    /** Make this a fresh scope for reuse, e.g. by the next iteration of a
+     * loop. The variables and methods declared here are dropped, cached
+     * classes and names are kept as they do not depend on them. A namespace
+     * with imports of its own is cleared instead.
+     * @see #clear() */
+    void reset() {
+        this.checkNotSealed("reset");
+        if (this.hasImports() || !this.importedCommands.isEmpty()
+                || !this.importedObjects.isEmpty()
+                || !this.importedStatic.isEmpty()) {
+            this.clear();
+            return;
+        }
+        if (!this.variables.isEmpty()) {
+            if (this.variablesShared)
+                this.variables = new HashMap<>();
+            else
+                this.variables.clear();
+            this.variablesShared = false;
+        }
+        if (!this.methods.isEmpty()) {
+            if (this.methodsShared)
+                this.methods = new HashMap<>();
+            else
+                this.methods.clear();
+            this.methodsShared = false;
+            this.overloads = null;
+        }
+    }
+
+    /** Whether the variable is all that is declared in this namespace.
+     * @param var the variable
+     * @return true if nothing else was declared here */
+    boolean declaresOnly(final Variable var) {
+        return !this.variablesShared && this.variables.size() == 1
+                && this.methods.isEmpty()
+                && this.variables.get(var.getName()) == var;
     }
 
     /** Import a compiled Java object's methods and variables into this
@@ -1335,16 +1766,25 @@ public class NameSpace
      * @param obj the obj Note: this impor pattern is becoming common... could
      *        factor it out into an importedObject List<String> class. */
     public void importObject(final Object obj) {
+        this.checkNotSealed("import object " + obj);
+        this.unshareImports();
         this.importedObjects.remove(obj);
         this.importedObjects.add(0, obj);
+        this.importIndex = null;
         this.nameSpaceChanged();
     }
 
     /** Import static.
      * @param clas the clas */
     public void importStatic(final Class<?> clas) {
+        // already the latest static import
+        if (!this.importedStatic.isEmpty() && this.importedStatic.get(0) == clas)
+            return;
+        this.checkNotSealed("import static " + clas.getName());
+        this.unshareImports();
         this.importedStatic.remove(clas);
         this.importedStatic.add(0, clas);
+        this.importIndex = null;
         this.nameSpaceChanged();
     }
 
@@ -1352,6 +1792,7 @@ public class NameSpace
      * sets override the package.
      * @param packageName the new package */
     void setPackage(final String packageName) {
+        this.checkNotSealed("set package " + packageName);
         this.packageName = packageName;
     }
 
@@ -1418,12 +1859,215 @@ public class NameSpace
     }
 
 
+    /** Freeze this namespace into immutable, read optimized tables.
+     * <p>
+     * A sealed namespace, typically a global namespace loaded with a library of
+     * methods and constants, may be shared as the parent of namespaces which
+     * are evaluated concurrently. Variables, methods and imports are resolved
+     * through it without locking. Any later attempt to declare, assign or
+     * remove a variable, to declare a method or to add an import raises an
+     * error. Class and name resolver caches, as well as commands loaded on
+     * demand, live in concurrent tables and continue to be populated.
+     * <p>
+     * Sealing is permanent, a copy() of a sealed namespace is not sealed.
+     * @return this namespace */
+    public synchronized NameSpace seal() {
+        if (this.sealed)
+            return this;
+        // variables shared with a fork must not be sealed along with ours
+        this.writableVariables();
+        for (final Variable var : this.variables.values()) {
+            // initialize the lazy modifiers before the variable is shared
+            var.getModifiers();
+            var.sealed = true;
+        }
+        this.variables = Collections.unmodifiableMap(
+                new HashMap<>(this.variables));
+        final Map<String, List<BshMethod>> sealedMethods =
+                new ConcurrentHashMap<>();
+        final List<BshMethod> bound = new ArrayList<>();
+        this.methods.forEach((name, list) -> {
+            // bind forked methods now, sealed tables are not modified
+            bound.clear();
+            list.forEach(m -> bound.add(this.forkedMethod(m)));
+            sealedMethods.put(name,
+                    Collections.unmodifiableList(new ArrayList<>(bound)));
+        });
+        this.methods = sealedMethods;
+        this.overloads = new ConcurrentHashMap<>();
+        this.forkedFrom = null;
+        this.forkedMethods = null;
+        this.importedClasses = Collections.unmodifiableMap(
+                new HashMap<>(this.importedClasses));
+        this.importedPackages = Collections.unmodifiableList(
+                new ArrayList<>(this.importedPackages));
+        this.importedCommands = Collections.unmodifiableList(
+                new ArrayList<>(this.importedCommands));
+        this.importedObjects = Collections.unmodifiableList(
+                new ArrayList<>(this.importedObjects));
+        this.importedStatic = Collections.unmodifiableList(
+                new ArrayList<>(this.importedStatic));
+        this.names = new ConcurrentHashMap<>(this.names);
+        this.classCache = new ConcurrentHashMap<>(this.classCache);
+        final Set<String> sealedNonClasses =
+                Collections.newSetFromMap(new ConcurrentHashMap<>());
+        sealedNonClasses.addAll(this.nonClasses);
+        this.nonClasses = sealedNonClasses;
+        this.sealed = true;
+        return this;
+    }
+
+    /** Whether this namespace was frozen with seal().
+     * @return true if sealed */
+    public boolean isSealed() {
+        return this.sealed;
+    }
+
+    /** Guard for mutators which do not report script errors.
+     * @param operation description of the denied operation
+     * @throws IllegalStateException if this namespace is sealed */
+    private void checkNotSealed(final String operation) {
+        if (this.sealed)
+            throw new IllegalStateException(
+                    "Cannot " + operation + " in sealed namespace: " + this.nsName);
+    }
+
+    /** Guard for variable declarations made by scripts.
+     * @param name the variable name
+     * @throws UtilEvalError if this namespace is sealed */
+    private void checkSealedVariable(final String name) throws UtilEvalError {
+        if (this.sealed)
+            throw new UtilEvalError("Cannot declare variable " + name
+                    + " in sealed namespace: " + this.nsName);
+    }
+
+    /** Fork this namespace into an isolated namespace with the same parent,
+     * variables, methods and imports. Forking takes constant time: the tables
+     * are shared copy-on-write, the first modification of a table by either
+     * namespace copies it. Assigning a variable of a forked table does not
+     * affect the other namespace. Scripted methods declared here are bound to
+     * the fork, so that they resolve names through the fork.
+     * <p>
+     * Forking a namespace is not synchronized with its modification, a
+     * namespace which is forked concurrently should be sealed first.
+     * @return the forked namespace
+     * @see #seal() */
+    public NameSpace fork() {
+        try {
+            final NameSpace fork = (NameSpace) this.clone();
+            fork.thisReference = null;
+            fork.sealed = false;
+            fork.forkedFrom = this;
+            fork.forkedMethods = null;
+            fork.overloads = null;
+            fork.names = new HashMap<>();
+            fork.classCache = new HashMap<>();
+            fork.nonClasses = new HashSet<>();
+            fork.nameSourceListeners = new ArrayList<>();
+            fork.variablesShared = fork.methodsShared
+                    = fork.importsShared = true;
+            // the tables of a sealed namespace are never modified
+            if (!this.sealed)
+                this.variablesShared = this.methodsShared
+                        = this.importsShared = true;
+            return fork;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Locate a variable which is about to be assigned. Variables shared with
+     * a fork are copied, along with their table, before they are returned.
+     * @param name the name
+     * @param recurse whether to search the parent namespaces
+     * @return the Variable or null if it is not defined
+     * @throws UtilEvalError the util eval error */
+    Variable getAssignableVariable(final String name,
+            final boolean recurse) throws UtilEvalError {
+        Variable var = this.getVariableImpl(name, false);
+        if (var != null) {
+            if (this.variablesShared && this.variables.get(name) == var)
+                var = this.writableVariables().get(name);
+            return var;
+        }
+        if (recurse && this.parent != null)
+            return this.parent.getAssignableVariable(name, recurse);
+        return null;
+    }
+
+    /** The variable table, copied first if it is shared with a fork.
+     * @return the variables of this namespace */
+    private Map<String, Variable> writableVariables() {
+        if (this.variablesShared) {
+            final Map<String, Variable> vars = new HashMap<>();
+            this.variables.forEach((name, var) -> vars.put(name, var.copy()));
+            this.variables = vars;
+            this.variablesShared = false;
+        }
+        return this.variables;
+    }
+
+    /** The method table, copied first if it is shared with a fork.
+     * @return the methods of this namespace */
+    private Map<String, List<BshMethod>> writableMethods() {
+        if (this.methodsShared) {
+            final Map<String, List<BshMethod>> meths = new HashMap<>();
+            this.methods.forEach((name, list) ->
+                    meths.put(name, new ArrayList<>(list)));
+            this.methods = meths;
+            this.methodsShared = false;
+        }
+        return this.methods;
+    }
+
+    /** Copy the import tables if they are shared with a fork. */
+    private void unshareImports() {
+        if (this.importsShared) {
+            this.importedClasses = clone(this.importedClasses);
+            this.importedPackages = clone(this.importedPackages);
+            this.importedCommands = clone(this.importedCommands);
+            this.importedObjects = clone(this.importedObjects);
+            this.importedStatic = clone(this.importedStatic);
+            this.importsShared = false;
+        }
+    }
+
+    /** Bind a scripted method inherited through fork() to this namespace.
+     * @param method a method found in our method table
+     * @return the method declared in this namespace */
+    private BshMethod forkedMethod(final BshMethod method) {
+        if (this.forkedFrom == null || method.declaringNameSpace == null
+                || method.declaringNameSpace == this)
+            return method;
+        NameSpace origin = this.forkedFrom;
+        while (origin != null && origin != method.declaringNameSpace)
+            origin = origin.forkedFrom;
+        if (origin == null)
+            return method;
+        if (this.forkedMethods == null)
+            this.forkedMethods = new IdentityHashMap<>();
+        return this.forkedMethods.computeIfAbsent(method, m -> m.rebind(this));
+    }
+
     NameSpace copy() {
         try {
             final NameSpace clone = (NameSpace) clone();
             clone.thisReference = null;
-            clone.variables = clone(variables);
-            clone.methods = clone(methods);
+            clone.sealed = false;
+            clone.classCache = new HashMap<>();
+            clone.nonClasses = new HashSet<>();
+            clone.variablesShared = clone.methodsShared
+                    = clone.importsShared = false;
+            // own variables, those of a sealed namespace are sealed
+            clone.variables = new HashMap<>();
+            this.variables.forEach((name, var) ->
+                    clone.variables.put(name, var.copy()));
+            clone.forkedFrom = null;
+            clone.forkedMethods = null;
+            clone.methods = new HashMap<>();
+            this.methods.forEach((name, list) ->
+                    clone.methods.put(name, new ArrayList<>(list)));
+            clone.overloads = null;
             clone.importedClasses = clone(importedClasses);
             clone.importedPackages = clone(importedPackages);
             clone.importedCommands = clone(importedCommands);
@@ -0,0 +1,392 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+package bsh;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+    An optimization pass over a parsed tree, applied before it is evaluated
+    when the interpreter's optimize option is on, see
+    Interpreter.setOptimize().
+    <p>
+    Expressions made of literals and operators are evaluated once and
+    replaced by a literal of the value, e.g. 60 * 60 * 24.  A final variable
+    declared in a block with a constant initializer of primitive or String
+    type is replaced by its value where it is read, within the block.  An if
+    statement of a block whose condition is then constant is replaced by the
+    branch taken, or removed.
+    <p>
+    Only the names in scope of the parsed tree are known here, the final
+    variables of previously evaluated statements are not propagated.  A
+    name is not propagated past a class body, which may inherit a field of
+    the same name, nor past a static import or a call of eval(), source(),
+    importObject() or unset() in its scope, which may declare or remove it
+    at run time.  An expression whose evaluation fails is left as is, to
+    report the error when it is evaluated.
+*/
+final class Optimizer implements ParserConstants
+{
+    /** The value of a name declared in a scope which is not a constant. */
+    private static final Object SHADOWED = new Object();
+
+    /** The methods which may declare or remove variables at run time. */
+    private static final String [] DYNAMIC = {
+        "eval", "source", "sourceRelative", "importObject", "unset" };
+
+    /** The names declared in a block, method or class body. */
+    private static final class Scope {
+        final Scope parent;
+        /** Names of enclosing scopes are not visible, as for a class body. */
+        final boolean opaque;
+        final Map<String, Object> names = new HashMap<>();
+        /** Names may be declared in the scope at run time. */
+        boolean dynamic;
+
+        Scope( Scope parent, boolean opaque ) {
+            this.parent = parent;
+            this.opaque = opaque;
+        }
+    }
+
+    private final CallStack callstack;
+    private final Interpreter interpreter;
+    private Scope scope = new Scope( null, false );
+
+    private Optimizer( CallStack callstack, Interpreter interpreter ) {
+        this.callstack = callstack;
+        this.interpreter = interpreter;
+    }
+
+    /**
+        Optimize the tree of a parsed statement.
+        @param node the root of the tree
+        @param callstack the callstack the tree will be evaluated with
+        @param interpreter the interpreter which evaluates it
+        @return the root node, or the node which replaces it
+    */
+    static SimpleNode optimize( SimpleNode node, CallStack callstack,
+        Interpreter interpreter )
+    {
+        return new Optimizer( callstack, interpreter ).visit( node );
+    }
+
+    /**
+        Optimize the subtree of the node.
+        @return the node, the node to replace it with or null to remove it
+    */
+    private SimpleNode visit( SimpleNode node )
+    {
+        boolean opens = node instanceof BSHBlock
+            || node instanceof BSHMethodDeclaration;
+        boolean opaque = node instanceof BSHClassDeclaration
+            || node instanceof BSHEnumConstant
+            || node instanceof BSHAllocationExpression
+                && hasChild( node, BSHBlock.class );
+        if ( opens || opaque )
+            scope = new Scope( scope, opaque );
+        try {
+            declare( node );
+            if ( node instanceof BSHTypedVariableDeclaration
+                    && !(node instanceof BSHAutoCloseable) )
+                visitDeclaration( (BSHTypedVariableDeclaration)node );
+            else
+                visitChildren( node );
+            return fold( node );
+        } finally {
+            if ( opens || opaque )
+                scope = scope.parent;
+        }
+    }
+
+    private void visitChildren( SimpleNode node )
+    {
+        int count = 0;
+        for ( int i = 0; i < node.jjtGetNumChildren(); i++ ) {
+            SimpleNode child = visit( node.getChild(i) );
+            if ( child == null )
+                continue;
+            child.jjtSetParent( node );
+            node.children[count++] = child;
+        }
+        if ( count < node.jjtGetNumChildren() ) {
+            Node [] children = new Node[count];
+            System.arraycopy( node.children, 0, children, 0, count );
+            node.children = children;
+        }
+    }
+
+    /**
+        Visit the initializers of a typed variable declaration in turn, the
+        final variables declared with a constant may be used by the next.
+    */
+    private void visitDeclaration( BSHTypedVariableDeclaration node )
+    {
+        Class<?> type = constantType( (BSHType)node.jjtGetChild(0) );
+        boolean isFinal = node.modifiers != null
+            && node.modifiers.hasModifier("final")
+            && node.jjtGetParent() instanceof BSHBlock;
+        for ( int i = 1; i < node.jjtGetNumChildren(); i++ ) {
+            BSHVariableDeclarator declarator =
+                (BSHVariableDeclarator)node.jjtGetChild(i);
+            visitChildren( declarator );
+            Object value = SHADOWED;
+            if ( isFinal && type != null && declarator.dimensions == 0
+                    && declarator.jjtGetNumChildren() == 1 ) {
+                Object initial = constant( declarator.jjtGetChild(0) );
+                if ( initial != null && initial != Primitive.NULL ) try {
+                    value = Types.castObject( initial, type, Types.ASSIGNMENT );
+                } catch ( UtilEvalError e ) {
+                    // not assignable, reported when it is evaluated
+                }
+            }
+            scope.names.put( declarator.name, value );
+        }
+    }
+
+    /** Record the names declared by the node, other than a typed variable. */
+    private void declare( SimpleNode node )
+    {
+        if ( node instanceof BSHFormalParameter )
+            scope.names.put( ((BSHFormalParameter)node).name, SHADOWED );
+        else if ( node instanceof BSHMultiCatch )
+            scope.names.put( ((BSHMultiCatch)node).name, SHADOWED );
+        else if ( node instanceof BSHEnhancedForStatement )
+            scope.names.put( ((BSHEnhancedForStatement)node).varName, SHADOWED );
+        else if ( node instanceof BSHVariableDeclarator )
+            scope.names.put( ((BSHVariableDeclarator)node).name, SHADOWED );
+        else if ( node instanceof BSHImportDeclaration
+                && ((BSHImportDeclaration)node).staticImport )
+            scope.dynamic = true;
+        else if ( node instanceof BSHMethodInvocation && isDynamic(
+                ((BSHMethodInvocation)node).getNameNode().text ) )
+            scope.dynamic = true;
+    }
+
+    private static boolean isDynamic( String name ) {
+        String method = Name.suffix( name, 1 );
+        for ( String dynamic : DYNAMIC )
+            if ( dynamic.equals( method ) )
+                return true;
+        return false;
+    }
+
+    /** The value of a final constant of the name in scope, or null. */
+    private Object lookup( String name )
+    {
+        for ( Scope s = scope; s != null; s = s.parent ) {
+            if ( s.dynamic )
+                return null;
+            Object value = s.names.get( name );
+            if ( value != null )
+                return value == SHADOWED ? null : value;
+            if ( s.opaque )
+                return null;
+        }
+        return null;
+    }
+
+    /**
+        Fold the node once its children were visited.
+        @return the node, the node to replace it with or null to remove it
+    */
+    private SimpleNode fold( SimpleNode node )
+    {
+        if ( node instanceof BSHPrimaryExpression ) {
+            String name = readName( (BSHPrimaryExpression)node );
+            Object value = name == null ? null : lookup( name );
+            return value == null ? node : literal( node, value );
+        }
+        if ( node instanceof BSHBinaryExpression ) {
+            int kind = ((BSHBinaryExpression)node).kind;
+            if ( kind == INSTANCEOF )
+                return node;
+            Object lhs = constant( node.jjtGetChild(0) );
+            if ( lhs == Primitive.FALSE && ( kind == BOOL_AND || kind == BOOL_ANDX )
+                    || lhs == Primitive.TRUE && ( kind == BOOL_OR || kind == BOOL_ORX ) )
+                return literal( node, lhs );
+            if ( lhs != null && constant( node.jjtGetChild(1) ) != null )
+                return evaluate( node );
+            return node;
+        }
+        if ( node instanceof BSHUnaryExpression ) {
+            int kind = ((BSHUnaryExpression)node).kind;
+            if ( kind != INCR && kind != DECR
+                    && constant( node.jjtGetChild(0) ) != null )
+                return evaluate( node );
+            return node;
+        }
+        if ( node instanceof BSHTernaryExpression ) {
+            Boolean condition = condition( node.jjtGetChild(0) );
+            if ( condition == null )
+                return node;
+            Node branch = node.jjtGetChild( condition ? 1 : 2 );
+            Object value = constant( branch );
+            return value == null ? node : literal( node, value );
+        }
+        if ( node instanceof BSHIfStatement )
+            return foldIf( node );
+        return node;
+    }
+
+    /**
+        An if statement of a block, which is not its last statement whose
+        value the block returns, is replaced by the branch its constant
+        condition takes.
+    */
+    private SimpleNode foldIf( SimpleNode node )
+    {
+        Node block = node.jjtGetParent();
+        if ( !(block instanceof BSHBlock)
+                || block.jjtGetChild( block.jjtGetNumChildren() - 1 ) == node )
+            return node;
+        Boolean condition = condition( node.jjtGetChild(0) );
+        if ( condition == null )
+            return node;
+        int branch = condition ? 1 : 2;
+        return branch < node.jjtGetNumChildren()
+            ? node.getChild( branch ) : null;
+    }
+
+    /**
+        The name read by a primary expression which is a simple name, other
+        than the target of an assignment, ++ or --, or the label of a switch,
+        which may name an enum constant.
+    */
+    private static String readName( BSHPrimaryExpression node )
+    {
+        if ( node.jjtGetNumChildren() != 1
+                || !(node.jjtGetChild(0) instanceof BSHAmbiguousName) )
+            return null;
+        String name = ((BSHAmbiguousName)node.jjtGetChild(0)).text;
+        if ( Name.isCompound( name ) )
+            return null;
+        Node parent = node.jjtGetParent();
+        if ( parent instanceof BSHAssignment
+                && ((BSHAssignment)parent).operator != null
+                && parent.jjtGetChild(0) == node )
+            return null;
+        if ( parent instanceof BSHUnaryExpression
+                && ( ((BSHUnaryExpression)parent).kind == INCR
+                || ((BSHUnaryExpression)parent).kind == DECR ) )
+            return null;
+        while ( parent instanceof BSHAssignment )
+            parent = parent.jjtGetParent();
+        if ( parent instanceof BSHSwitchLabel )
+            return null;
+        return name;
+    }
+
+    /**
+        Evaluate the node of constant operands and replace it by a literal,
+        unless the evaluation fails or the value is not a Primitive or a
+        String.
+    */
+    private SimpleNode evaluate( SimpleNode node )
+    {
+        Object value;
+        try {
+            value = node.eval( callstack, interpreter );
+        } catch ( EvalError | RuntimeException e ) {
+            return node;
+        }
+        if ( value instanceof String ) {
+            if ( BSHLiteral.internStrings )
+                value = ((String)value).intern();
+        } else if ( !(value instanceof Primitive) || value == Primitive.VOID )
+            return node;
+        return literal( node, value );
+    }
+
+    /** A primary expression of the literal value, in place of the node. */
+    private static SimpleNode literal( SimpleNode node, Object value )
+    {
+        BSHLiteral literal = new BSHLiteral( ParserTreeConstants.JJTLITERAL );
+        literal.value = value;
+        literal.firstToken = node.firstToken;
+        literal.lastToken = node.lastToken;
+        BSHPrimaryExpression primary = new BSHPrimaryExpression(
+            ParserTreeConstants.JJTPRIMARYEXPRESSION );
+        primary.firstToken = node.firstToken;
+        primary.lastToken = node.lastToken;
+        primary.sourceFile = node.sourceFile;
+        primary.jjtAddChild( literal, 0 );
+        literal.jjtSetParent( primary );
+        return primary;
+    }
+
+    /**
+        The value of a literal node, possibly a folded or parenthesized one,
+        or null.
+    */
+    private static Object constant( Node node )
+    {
+        while ( ( node instanceof BSHPrimaryExpression
+                || node instanceof BSHAssignment
+                    && ((BSHAssignment)node).operator == null )
+                && node.jjtGetNumChildren() == 1 )
+            node = node.jjtGetChild(0);
+        return node instanceof BSHLiteral ? ((BSHLiteral)node).value : null;
+    }
+
+    /** The value of a constant boolean condition, or null. */
+    private static Boolean condition( Node node )
+    {
+        Object value = constant( node );
+        if ( value == null )
+            return null;
+        value = Primitive.unwrap( value );
+        return value instanceof Boolean ? (Boolean)value : null;
+    }
+
+    /**
+        The type of a constant variable declared of the type, if it is a
+        primitive type or String, otherwise null.
+    */
+    private static Class<?> constantType( BSHType node )
+    {
+        if ( node.getArrayDims() > 0 )
+            return null;
+        Node type = node.jjtGetChild(0);
+        if ( type instanceof BSHPrimitiveType )
+            return ((BSHPrimitiveType)type).getType();
+        if ( type instanceof BSHAmbiguousName && ( "String".equals(
+                ((BSHAmbiguousName)type).text ) || "java.lang.String".equals(
+                ((BSHAmbiguousName)type).text ) ) )
+            return String.class;
+        return null;
+    }
+
+    private static boolean hasChild( SimpleNode node, Class<?> type )
+    {
+        for ( int i = 0; i < node.jjtGetNumChildren(); i++ )
+            if ( type.isInstance( node.jjtGetChild(i) ) )
+                return true;
+        return false;
+    }
+}
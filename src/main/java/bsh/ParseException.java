@@ -211,7 +211,7 @@ public class ParseException
         retval += "." + EOL;
 
 // Begin BeanShell Modification - made conditional on debug
-        if (Interpreter.DEBUG.get() && expectedTokenSequences.length != 0) {
+        if (Interpreter.isDebug() && expectedTokenSequences.length != 0) {
             if (expectedTokenSequences.length == 1)
               retval += "Was expecting:" + EOL + "    ";
             else
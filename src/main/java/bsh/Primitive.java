@@ -518,9 +518,10 @@ public final class Primitive implements Serializable {
             return checkOnly ? Types.VALID_CAST : fromValue;
         }
 
-        // Only allow legal Java assignment unless we're a CAST operation
+        // Only allow legal Java assignment unless we're a CAST operation,
+        // uncached as this decides the cached Types.Conversion
         if ( operation == Types.ASSIGNMENT
-            && !Types.isJavaAssignable( toType, fromType )
+            && !Types.javaBoxTypesAssignable( toType, fromType )
         ) {
             if ( checkOnly )
                 return Types.INVALID_CAST;
@@ -0,0 +1,597 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+package bsh;
+
+/**
+    A typed variable of primitive type int, long or double which holds its
+    value unboxed.  Increments, decrements and compound assignments update
+    the raw value in place and comparisons read it directly.  The wrapping
+    Primitive is only made when the value is read as an object, it is then
+    kept until the next update.
+    <p>
+    The in place operations only apply where they give the same result as
+    the Operators do, otherwise they return null and the caller takes the
+    generic path.  e.g. bsh promotes an int sum which overflows, which then
+    fails to assign, and division by zero must raise its error.
+*/
+abstract class PrimitiveVariable extends Variable implements ParserConstants
+{
+    private static final long serialVersionUID = 1L;
+
+    /** The raw value holds the value of the variable. */
+    boolean hasRaw;
+    /** The raw value was updated and the wrapped value is not yet made. */
+    boolean unboxed;
+
+    PrimitiveVariable( String name, Class<?> type, Object value,
+        Modifiers modifiers ) throws UtilEvalError
+    {
+        super( name, type, value, modifiers );
+    }
+
+    /**
+        The variable named by a node which may be updated in place, if the
+        node is a simple name which resolves to an assigned, non final
+        primitive variable.  The lookup follows the assignment of the name
+        through its namespace.
+        @return the variable or null
+    */
+    static PrimitiveVariable assignable( Node node, CallStack callstack )
+        throws UtilEvalError
+    {
+        Variable var = local( node, callstack );
+        if ( var instanceof PrimitiveVariable
+                && ((PrimitiveVariable)var).isUpdatable() )
+            return (PrimitiveVariable)var;
+        return null;
+    }
+
+    /**
+        The variable assigned by a node which is a simple name, outside of a
+        class body, otherwise null.
+    */
+    static Variable local( Node node, CallStack callstack )
+        throws UtilEvalError
+    {
+        String name = simpleName( node );
+        if ( name == null || callstack.top().isClass )
+            return null;
+        return callstack.top().getAssignableVariable( name, true );
+    }
+
+    /**
+        Compare the operands of a relational operator without boxing, when
+        one is a simple name of a primitive variable and the other one too
+        or a number literal.
+        @return Primitive.TRUE or FALSE, or null to take the generic path
+    */
+    static Primitive compare( int kind, Node lhsNode, Node rhsNode,
+        CallStack callstack ) throws UtilEvalError
+    {
+        Object lhs = operand( lhsNode, callstack );
+        if ( lhs == null )
+            return null;
+        Object rhs = operand( rhsNode, callstack );
+        if ( rhs == null || !(lhs instanceof PrimitiveVariable
+                || rhs instanceof PrimitiveVariable) )
+            return null;
+
+        int cmp;
+        Class<?> lhsType = typeOf( lhs ), rhsType = typeOf( rhs );
+        if ( isIntegral( lhsType ) && isIntegral( rhsType ) )
+            cmp = Long.compare( longValue( lhs ), longValue( rhs ) );
+        else if ( lhsType != Long.TYPE && rhsType != Long.TYPE ) {
+            double a = doubleValue( lhs ), b = doubleValue( rhs );
+            if ( !isFinite( a ) || !isFinite( b ) )
+                return null;
+            cmp = a < b ? -1 : a > b ? 1 : 0;
+        } else
+            return null;
+
+        boolean result;
+        switch ( kind ) {
+            case LT: case LTX: result = cmp < 0; break;
+            case LE: case LEX: result = cmp <= 0; break;
+            case GT: case GTX: result = cmp > 0; break;
+            case GE: case GEX: result = cmp >= 0; break;
+            case EQ: result = cmp == 0; break;
+            case NE: result = cmp != 0; break;
+            default: return null;
+        }
+        return result ? Primitive.TRUE : Primitive.FALSE;
+    }
+
+    /**
+        A primitive variable with a value or a number literal, or null.
+    */
+    private static Object operand( Node node, CallStack callstack )
+        throws UtilEvalError
+    {
+        if ( node instanceof BSHPrimaryExpression
+                && node.jjtGetNumChildren() == 1
+                && node.jjtGetChild(0) instanceof BSHLiteral ) {
+            Object value = ((BSHLiteral)node.jjtGetChild(0)).value;
+            if ( value instanceof Primitive ) {
+                Class<?> type = ((Primitive)value).getType();
+                if ( type == Integer.TYPE || type == Long.TYPE
+                        || type == Double.TYPE )
+                    return value;
+            }
+            return null;
+        }
+        String name = simpleName( node );
+        if ( name == null || callstack.top().isClass )
+            return null;
+        Variable var = callstack.top().getVariableImpl( name, true );
+        if ( var instanceof PrimitiveVariable
+                && var.lhs == null && ((PrimitiveVariable)var).hasRaw )
+            return var;
+        return null;
+    }
+
+    /** The name if the node is a simple name of a variable, otherwise null. */
+    private static String simpleName( Node node ) {
+        if ( !(node instanceof BSHPrimaryExpression)
+                || node.jjtGetNumChildren() != 1
+                || !(node.jjtGetChild(0) instanceof BSHAmbiguousName) )
+            return null;
+        String name = ((BSHAmbiguousName)node.jjtGetChild(0)).text;
+        if ( Name.isCompound( name ) || name.equals("this")
+                || name.equals("super") || name.equals("global") )
+            return null;
+        return name;
+    }
+
+    private static Class<?> typeOf( Object operand ) {
+        return operand instanceof Primitive
+            ? ((Primitive)operand).getType() : ((Variable)operand).type;
+    }
+
+    private static boolean isIntegral( Class<?> type ) {
+        return type == Integer.TYPE || type == Long.TYPE;
+    }
+
+    private static boolean isFinite( double value ) {
+        return !Double.isNaN( value ) && !Double.isInfinite( value );
+    }
+
+    private static long longValue( Object operand ) {
+        if ( operand instanceof IntVariable )
+            return ((IntVariable)operand).raw;
+        if ( operand instanceof LongVariable )
+            return ((LongVariable)operand).raw;
+        return ((Number)((Primitive)operand).getValue()).longValue();
+    }
+
+    private static double doubleValue( Object operand ) {
+        if ( operand instanceof IntVariable )
+            return ((IntVariable)operand).raw;
+        if ( operand instanceof DoubleVariable )
+            return ((DoubleVariable)operand).raw;
+        return ((Number)((Primitive)operand).getValue()).doubleValue();
+    }
+
+    /** The raw value may be updated in place. */
+    private boolean isUpdatable() {
+        return hasRaw && isLocal();
+    }
+
+    /**
+        Set the value of the variable.  A value of the variable's own type
+        is taken as is, anything else is cast as usual.
+    */
+    @Override
+    public void setValue( Object value, int context ) throws UtilEvalError
+    {
+        if ( value instanceof Primitive
+                && ((Primitive)value).getType() == type && isUpdatable() ) {
+            store( (Primitive)value );
+            return;
+        }
+        box();
+        super.setValue( value, context );
+        if ( this.value instanceof Primitive
+                && ((Primitive)this.value).getType() == type ) {
+            load( (Primitive)this.value );
+            hasRaw = true;
+        } else
+            hasRaw = false;
+    }
+
+    @Override
+    Object getValue() throws UtilEvalError
+    {
+        box();
+        return super.getValue();
+    }
+
+    @Override
+    void redeclare( Object value ) throws UtilEvalError
+    {
+        unboxed = false;
+        super.redeclare( value );
+    }
+
+    @Override
+    Variable copy()
+    {
+        box();
+        try {
+            Variable var = create( name, type, value, modifiers );
+            var.typeDescriptor = typeDescriptor;
+            return var;
+        } catch ( UtilEvalError e ) {
+            throw new InterpreterError( "Unable to copy variable: " + name, e );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        box();
+        return super.toString();
+    }
+
+    /** Make the wrapped value if the raw value was updated. */
+    private void box() {
+        if ( unboxed ) {
+            value = wrap();
+            unboxed = false;
+        }
+    }
+
+    /** Set the wrapped value and the raw value from it. */
+    Primitive store( Primitive value ) {
+        load( value );
+        this.value = value;
+        hasRaw = true;
+        unboxed = false;
+        return value;
+    }
+
+    /** The raw value was updated in place. */
+    void updated() {
+        value = null;
+        unboxed = true;
+    }
+
+    /** The current value, wrapped. */
+    Primitive current() {
+        box();
+        return (Primitive)value;
+    }
+
+    /**
+        Redeclare the variable with an element of an array of the
+        variable's type, unboxed.  Used by the enhanced for loop over
+        primitive arrays.
+        @return false if the element must be taken as an object
+    */
+    boolean redeclare( Object array, int index ) {
+        if ( !isLocal() || !load( array, index ) )
+            return false;
+        hasRaw = true;
+        updated();
+        return true;
+    }
+
+    /**
+        Redeclare the variable with a value of a range, unboxed.  Used by
+        the enhanced for loop over ranges.
+        @param isLong the value is a long, otherwise an int
+        @return false if the value must be taken as an object
+    */
+    boolean redeclare( long value, boolean isLong ) {
+        if ( !isLocal() || !load( value, isLong ) )
+            return false;
+        hasRaw = true;
+        updated();
+        return true;
+    }
+
+    /** Set the raw value from a Primitive of the variable's type. */
+    abstract void load( Primitive value );
+
+    /**
+        Set the raw value from an element of an array.
+        @return false if the array is not of the variable's type
+    */
+    abstract boolean load( Object array, int index );
+
+    /**
+        Set the raw value from an int or long value.
+        @param isLong the value is a long, otherwise an int
+        @return false if the value is not assignable to the variable's type
+    */
+    abstract boolean load( long value, boolean isLong );
+
+    /** Wrap the raw value. */
+    abstract Primitive wrap();
+
+    /**
+        Add one to or subtract one from the value, for the ++ and --
+        operators.
+        @param delta 1 or -1
+        @param postfix return the value before the update
+        @return the value of the expression or null to take the generic path
+    */
+    Primitive increment( int delta, boolean postfix ) {
+        Primitive before = postfix ? current() : null;
+        if ( !add( delta ) )
+            return null;
+        return postfix ? before : current();
+    }
+
+    /**
+        Add one to or subtract one from the raw value, leaving the wrapped
+        value to be made when it is read.
+        @param delta 1 or -1
+        @return false to take the generic path
+    */
+    abstract boolean add( int delta );
+
+    /**
+        Assign the result of the binary operation to the variable, for the
+        compound assignment operators.
+        @param lhs the value of the variable before the rhs was evaluated,
+            null if the rhs could not have changed it
+        @param rhs the value of the right hand side
+        @param kind the binary operator
+        @param discard the value is not used, leave it unboxed
+        @return the value assigned, VOID if discarded, or null to take the
+            generic path
+    */
+    Primitive operation( Primitive lhs, Object rhs, int kind,
+        boolean discard )
+    {
+        if ( !apply( lhs, rhs, kind ) )
+            return null;
+        return discard ? Primitive.VOID : current();
+    }
+
+    /**
+        Set the raw value to the result of the binary operation.
+        @return false to take the generic path
+    */
+    abstract boolean apply( Primitive lhs, Object rhs, int kind );
+
+    /** The type of the value if it is a primitive, otherwise null. */
+    static Class<?> primitiveType( Object value ) {
+        return value instanceof Primitive ? ((Primitive)value).getType() : null;
+    }
+
+    static final class IntVariable extends PrimitiveVariable {
+        private static final long serialVersionUID = 1L;
+        int raw;
+
+        IntVariable( String name, Object value, Modifiers modifiers )
+            throws UtilEvalError
+        {
+            super( name, Integer.TYPE, value, modifiers );
+        }
+
+        void load( Primitive value ) {
+            raw = ((Integer)value.getValue()).intValue();
+        }
+
+        boolean load( Object array, int index ) {
+            if ( !(array instanceof int[]) )
+                return false;
+            raw = ((int[])array)[index];
+            return true;
+        }
+
+        boolean load( long value, boolean isLong ) {
+            if ( isLong )
+                return false;
+            raw = (int)value;
+            return true;
+        }
+
+        Primitive wrap() {
+            return new Primitive( raw );
+        }
+
+        boolean add( int delta ) {
+            raw += delta;
+            updated();
+            return true;
+        }
+
+        boolean apply( Primitive lhs, Object rhs, int kind ) {
+            if ( lhs != null && primitiveType( lhs ) != Integer.TYPE
+                    || primitiveType( rhs ) != Integer.TYPE )
+                return false;
+            long a = lhs == null ? raw : ((Integer)lhs.getValue()).intValue();
+            long b = ((Integer)((Primitive)rhs).getValue()).intValue();
+            long result;
+            switch ( kind ) {
+                case PLUS: result = a + b; break;
+                case MINUS: result = a - b; break;
+                case STAR: result = a * b; break;
+                case SLASH:
+                    if ( b == 0 )
+                        return false;
+                    result = a / b;
+                    break;
+                case MOD:
+                    if ( b == 0 )
+                        return false;
+                    result = a % b;
+                    break;
+                case BIT_AND: result = a & b; break;
+                case BIT_OR: result = a | b; break;
+                case XOR: result = a ^ b; break;
+                default: return false;
+            }
+            // bsh promotes the overflow, which then fails to assign
+            if ( result != (int) result )
+                return false;
+            raw = (int) result;
+            updated();
+            return true;
+        }
+    }
+
+    static final class LongVariable extends PrimitiveVariable {
+        private static final long serialVersionUID = 1L;
+        long raw;
+
+        LongVariable( String name, Object value, Modifiers modifiers )
+            throws UtilEvalError
+        {
+            super( name, Long.TYPE, value, modifiers );
+        }
+
+        void load( Primitive value ) {
+            raw = ((Long)value.getValue()).longValue();
+        }
+
+        boolean load( Object array, int index ) {
+            if ( !(array instanceof long[]) )
+                return false;
+            raw = ((long[])array)[index];
+            return true;
+        }
+
+        boolean load( long value, boolean isLong ) {
+            raw = value;
+            return true;
+        }
+
+        Primitive wrap() {
+            return new Primitive( raw );
+        }
+
+        boolean add( int delta ) {
+            raw += delta;
+            updated();
+            return true;
+        }
+
+        boolean apply( Primitive lhs, Object rhs, int kind ) {
+            Class<?> rhsType = primitiveType( rhs );
+            if ( lhs != null && primitiveType( lhs ) != Long.TYPE
+                    || rhsType != Long.TYPE && rhsType != Integer.TYPE )
+                return false;
+            long a = lhs == null ? raw : ((Long)lhs.getValue()).longValue();
+            long b = ((Number)((Primitive)rhs).getValue()).longValue();
+            try {
+                switch ( kind ) {
+                    case PLUS: raw = Math.addExact( a, b ); break;
+                    case MINUS: raw = Math.subtractExact( a, b ); break;
+                    case STAR: raw = Math.multiplyExact( a, b ); break;
+                    case SLASH:
+                        if ( b == 0 || a == Long.MIN_VALUE && b == -1 )
+                            return false;
+                        raw = a / b;
+                        break;
+                    case MOD:
+                        if ( b == 0 )
+                            return false;
+                        raw = a % b;
+                        break;
+                    case BIT_AND: raw = a & b; break;
+                    case BIT_OR: raw = a | b; break;
+                    case XOR: raw = a ^ b; break;
+                    default: return false;
+                }
+            } catch ( ArithmeticException e ) {
+                // bsh promotes the overflow, which then fails to assign
+                return false;
+            }
+            updated();
+            return true;
+        }
+    }
+
+    static final class DoubleVariable extends PrimitiveVariable {
+        private static final long serialVersionUID = 1L;
+        double raw;
+
+        DoubleVariable( String name, Object value, Modifiers modifiers )
+            throws UtilEvalError
+        {
+            super( name, Double.TYPE, value, modifiers );
+        }
+
+        void load( Primitive value ) {
+            raw = ((Double)value.getValue()).doubleValue();
+        }
+
+        boolean load( Object array, int index ) {
+            if ( !(array instanceof double[]) )
+                return false;
+            raw = ((double[])array)[index];
+            return true;
+        }
+
+        boolean load( long value, boolean isLong ) {
+            raw = value;
+            return true;
+        }
+
+        Primitive wrap() {
+            return new Primitive( raw );
+        }
+
+        boolean add( int delta ) {
+            if ( !isFinite( raw + delta ) )
+                return false;
+            raw += delta;
+            updated();
+            return true;
+        }
+
+        boolean apply( Primitive lhs, Object rhs, int kind ) {
+            Class<?> rhsType = primitiveType( rhs );
+            if ( lhs != null && primitiveType( lhs ) != Double.TYPE
+                    || rhsType != Double.TYPE && rhsType != Integer.TYPE )
+                return false;
+            double a = lhs == null
+                ? raw : ((Double)lhs.getValue()).doubleValue();
+            double b = ((Number)((Primitive)rhs).getValue()).doubleValue();
+            double result;
+            switch ( kind ) {
+                case PLUS: result = a + b; break;
+                case MINUS: result = a - b; break;
+                case STAR: result = a * b; break;
+                case SLASH: result = a / b; break;
+                default: return false;
+            }
+            // bsh promotes the overflow, which then fails to assign, and
+            // does not give negative zero
+            if ( !isFinite( a ) || !isFinite( b ) || !isFinite( result )
+                    || result == 0 )
+                return false;
+            raw = result;
+            updated();
+            return true;
+        }
+    }
+}
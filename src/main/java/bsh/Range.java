@@ -0,0 +1,181 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+
+package bsh;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+    A range of int or long values from a first value to a last value by a
+    step, as made by the range() command and for the iteration over a
+    number.  The values are computed as they are iterated, the enhanced for
+    statement takes them unboxed into a typed loop variable.
+    <p>
+
+    The values are ints if the range was made of ints and longs otherwise,
+    a range over a number beyond the int range is a range of longs.
+*/
+public final class Range implements Iterable<Number>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final long first, last, step;
+    private final boolean empty, isLong;
+    /** The end as given, exclusive unless the range is over a number. */
+    private final long to;
+    private final boolean isNumber;
+
+    private Range( long first, long last, long step, boolean empty,
+        boolean isLong, long to, boolean isNumber )
+    {
+        this.first = first;
+        this.last = last;
+        this.step = step;
+        this.empty = empty;
+        this.isLong = isLong;
+        this.to = to;
+        this.isNumber = isNumber;
+    }
+
+    /**
+        The range of values from a value up to but excluding another value.
+        @param from the first value
+        @param to the end of the range, exclusive
+        @param step the difference between values, negative to count down
+        @param isLong whether the values are longs, otherwise ints
+        @throws IllegalArgumentException if the step is zero
+    */
+    public static Range of( long from, long to, long step, boolean isLong ) {
+        if ( step == 0 )
+            throw new IllegalArgumentException( "range step cannot be zero" );
+        if ( step > 0 ? from >= to : from <= to )
+            return new Range( from, from, step, true, isLong, to, false );
+        // the span and step as unsigned values do not overflow
+        long steps = step > 0
+            ? Long.divideUnsigned( to - from - 1, step )
+            : Long.divideUnsigned( from - to - 1, -step );
+        return new Range( from, from + steps * step, step, false, isLong,
+            to, false );
+    }
+
+    /**
+        The range of values iterated over a number, from 0 up or down to the
+        number inclusive and empty for 0.  Values are ints unless the number
+        is beyond the int range.
+        @param number the last value
+    */
+    public static Range of( Number number ) {
+        long last = number.longValue();
+        return new Range( 0, last, last < 0 ? -1 : 1, last == 0,
+            last != (int) last, last, true );
+    }
+
+    /** Whether the values are longs, otherwise ints. */
+    public boolean isLong() {
+        return isLong;
+    }
+
+    @Override
+    public Iterator<Number> iterator() {
+        return new Values();
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if ( !(o instanceof Range) )
+            return false;
+        Range r = (Range)o;
+        return empty ? r.empty && isLong == r.isLong
+            : !r.empty && first == r.first && last == r.last
+                && step == r.step && isLong == r.isLong;
+    }
+
+    @Override
+    public int hashCode() {
+        return empty ? Boolean.hashCode( isLong ) : Long.hashCode( first )
+            ^ 31 * Long.hashCode( last ) ^ 961 * Long.hashCode( step );
+    }
+
+    /**
+        The range as made by the range() command, with the bounds as they
+        were given.  A range over a number shows its values inclusive, as
+        range(0..number).
+    */
+    @Override
+    public String toString() {
+        String type = isLong ? "L" : "";
+        if ( isNumber )
+            return empty ? "range()" : "range(0.." + to + type + ")";
+        return "range(" + first + type + ", " + to + type
+            + (step == 1 ? "" : ", " + step + type) + ")";
+    }
+
+    /**
+        The values of a range.  The next value may be taken unboxed.
+    */
+    final class Values implements Iterator<Number>
+    {
+        private long next = first;
+        private boolean done = empty;
+
+        @Override
+        public boolean hasNext() {
+            return !done;
+        }
+
+        /** The next value unboxed. */
+        long nextLong() {
+            if ( done )
+                throw new NoSuchElementException();
+            long value = next;
+            if ( value == last )
+                done = true;
+            else
+                next = value + step;
+            return value;
+        }
+
+        @Override
+        public Number next() {
+            return box( nextLong() );
+        }
+
+        /** Whether the values are longs, otherwise ints. */
+        boolean isLong() {
+            return isLong;
+        }
+
+        /** The value as an Integer or a Long. */
+        Number box( long value ) {
+            return isLong ? (Number)Long.valueOf( value )
+                : (Number)Integer.valueOf( (int)value );
+        }
+    }
+}
@@ -117,7 +117,8 @@ public final class Reflect {
             Object [] args, SimpleNode callerInfo )
                     throws ReflectError, UtilEvalError,
                            InvocationTargetException {
-        Interpreter.debug("invoke static Method");
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("invoke static Method");
         NameSpace ns = getThisNS(clas);
         if (null != ns)
             ns.setNode(callerInfo);
@@ -190,32 +191,31 @@ public final class Reflect {
             throws UtilEvalError, ReflectError {
         if ( object instanceof This )
             return new LHS( ((This)object).namespace, fieldName, false );
-        try {
-            Invocable f = resolveExpectedJavaField(
-                object.getClass(), fieldName, false/*staticOnly*/ );
+        // properties are common here, look the field up without failing
+        Invocable f = resolveJavaField(
+            object.getClass(), fieldName, false/*staticOnly*/ );
+        if ( null != f )
             return new LHS(object, f);
-        } catch ( ReflectError e ) {
-            NameSpace ns = getThisNS(object);
-            if (isGeneratedClass(object.getClass()) && null != ns && ns.isClass) {
-                Variable var = ns.getVariableImpl(fieldName, true);
-                if ( null != var && (!var.hasModifier("private")
-                        || haveAccessibility()) )
-                    return new LHS(ns, fieldName);
-            }
-            // not a field, try property access
-            if ( hasObjectPropertySetter( object.getClass(), fieldName ) )
-                return new LHS( object, fieldName );
-            else
-                throw e;
+        NameSpace ns = getThisNS(object);
+        if (isGeneratedClass(object.getClass()) && null != ns && ns.isClass) {
+            Variable var = ns.getVariableImpl(fieldName, true);
+            if ( null != var && (!var.hasModifier("private")
+                    || haveAccessibility()) )
+                return new LHS(ns, fieldName);
         }
+        // not a field, try property access
+        if ( hasObjectPropertySetter( object.getClass(), fieldName ) )
+            return new LHS( object, fieldName );
+        throw new ReflectError("No such field: "
+                + fieldName + " for class: " + object.getClass().getName());
     }
 
     private static Object getFieldValue(
             Class<?> clas, Object object, String fieldName, boolean staticOnly)
             throws UtilEvalError, ReflectError {
+        Invocable f;
         try {
-            Invocable f = resolveExpectedJavaField(clas, fieldName, staticOnly);
-            return f.invoke(object);
+            f = resolveExpectedJavaField(clas, fieldName, staticOnly);
         } catch ( ReflectError e ) {
             NameSpace ns = getThisNS(clas);
             if (isGeneratedClass(clas) && null != ns && ns.isClass)
@@ -238,6 +238,20 @@ public final class Reflect {
                         return val;
                 }
             throw e;
+        }
+        return getFieldValue(f, object, fieldName);
+    }
+
+    /** Get the value of a resolved field.
+     * @param field the field as resolved by resolveJavaField
+     * @param object the instance or null for a static field
+     * @param fieldName the name for error messages
+     * @return the field value
+     * @throws UtilEvalError wrapping an error raised by the access */
+    static Object getFieldValue(Invocable field, Object object,
+            String fieldName) throws UtilEvalError {
+        try {
+            return field.get(object);
         } catch(InvocationTargetException e) {
             if (e.getCause() instanceof InterpreterError)
                 throw (InterpreterError)e.getCause();
@@ -248,20 +262,21 @@ public final class Reflect {
         }
     }
 
-    /*
-        Note: this method and resolveExpectedJavaField should be rewritten
-        to invert this logic so that no exceptions need to be caught
-        unecessarily.  This is just a temporary impl.
+    /**
         @return the field or null if not found
     */
     protected static Invocable resolveJavaField(
             Class<?> clas, String fieldName, boolean staticOnly )
             throws UtilEvalError {
-        try {
-            return resolveExpectedJavaField( clas, fieldName, staticOnly );
-        } catch ( ReflectError e ) {
-            return null;
-        }
+        Invocable field = BshClassManager.memberCache
+                .get(clas).findField(fieldName);
+
+        if ( staticOnly && null != field && !field.isStatic() )
+            throw new UtilEvalError(
+                "Can't reach instance field: " + fieldName
+              + " from static context: " + clas.getName() );
+
+        return field;
     }
 
     /**
@@ -274,18 +289,12 @@ public final class Reflect {
     protected static Invocable resolveExpectedJavaField(
             Class<?> clas, String fieldName, boolean staticOnly)
             throws UtilEvalError, ReflectError {
-        Invocable field = BshClassManager.memberCache
-                .get(clas).findField(fieldName);
+        Invocable field = resolveJavaField(clas, fieldName, staticOnly);
 
         if (null == field)
             throw new ReflectError("No such field: "
                     + fieldName + " for class: " + clas.getName());
 
-        if ( staticOnly && !field.isStatic() )
-            throw new UtilEvalError(
-                "Can't reach instance field: " + fieldName
-              + " from static context: " + clas.getName() );
-
         return field;
     }
 
@@ -396,7 +405,8 @@ public final class Reflect {
         if (clas.isMemberClass() && !isStatic(clas) && null != object)
             types = Stream.concat(Stream.of(object.getClass()),
                     Stream.of(types)).toArray(Class[]::new);
-        Interpreter.debug("Looking for most specific constructor: ", clas);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("Looking for most specific constructor: ", clas);
         Invocable con = BshClassManager.memberCache.get(clas)
                 .findMethod(clas.getName(), types);
         if ( con == null || (args.length != con.getParameterCount()
@@ -553,8 +563,9 @@ public final class Reflect {
     public static Object getObjectProperty(Object obj, Object propName) {
         if ( Types.isPropertyTypeMap(obj) ) {
             Map map = (Map) obj;
-            if (map.containsKey(propName))
-                return map.get(propName);
+            Object value = map.get(propName);
+            if ( null != value || map.containsKey(propName) )
+                return value;
             return Primitive.VOID;
         }
 
@@ -573,7 +584,8 @@ public final class Reflect {
             return Primitive.VOID;
         }
 
-        Interpreter.debug("property access: ");
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("property access: ");
         if ( obj instanceof Class )
             cls = (Class) obj;
         Invocable getter = BshClassManager.memberCache.get(cls)
@@ -581,8 +593,18 @@ public final class Reflect {
         if ( null == getter )
             throw new ReflectError("No such property getter: " + propName
                     + " for type: " + StringUtil.typeString(cls));
+        return getPropertyValue(getter, obj, propName);
+    }
+
+    /** Get the value of a property through its resolved getter.
+     * @param getter the getter as found by the member cache
+     * @param obj the instance or class
+     * @param propName the name for error messages
+     * @return the property value */
+    static Object getPropertyValue(Invocable getter, Object obj,
+            Object propName) {
         try {
-            return getter.invoke(obj);
+            return getter.get(obj);
         } catch(InvocationTargetException e) {
             throw new ReflectError("Property accessor threw exception: "
                 + e.getCause(),  e.getCause());
@@ -635,7 +657,7 @@ public final class Reflect {
             throw new ReflectError("No such property setter: " + propName
                     + " for type: " + StringUtil.typeString(cls));
         try {
-            return setter.invoke(obj, new Object[] { Primitive.unwrap(value) });
+            return setter.set(obj, Primitive.unwrap(value));
         } catch(InvocationTargetException e) {
             throw new ReflectError("Property accessor threw exception: "
                 + e.getCause(),  e.getCause());
@@ -673,12 +695,12 @@ public final class Reflect {
     }
 
     static void logInvokeMethod(String msg, Invocable method, List<Object> params) {
-        if (Interpreter.DEBUG.get()) {
+        if (Interpreter.isDebug()) {
             logInvokeMethod(msg, method, params.toArray());
         }
     }
     static void logInvokeMethod(String msg, Invocable method, Object[] args) {
-        if (Interpreter.DEBUG.get()) {
+        if (Interpreter.isDebug()) {
             Interpreter.debug(msg, method, " with args:");
             for (int i = 0; i < args.length; i++) {
                 final Object arg = args[i];
@@ -33,4 +33,11 @@ class ReflectError extends RuntimeException
     public ReflectError() { super(); }
     public ReflectError(String s) { super(s); }
     public ReflectError(String s,Throwable t) { super(s,t); }
+
+    /** The Java stack trace is only filled in when debugging. */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return Interpreter.isDebug() ? super.fillInStackTrace() : this;
+    }
 }
@@ -163,6 +163,31 @@ class SimpleNode implements Node, Serializable {
         jjtSetParent( null );
     }
 
+    /**
+        The value of this node is not used, as for the update of a for
+        statement or a statement in a block other than its result.  The
+        result of a loop body is not used either.
+    */
+    boolean isDiscarded() {
+        Node node = this, parent = jjtGetParent();
+        while ( parent instanceof BSHAssignment
+                && ((BSHAssignment)parent).operator == null ) {
+            node = parent;
+            parent = parent.jjtGetParent();
+        }
+        if ( parent instanceof BSHStatementExpressionList )
+            return true;
+        if ( !(parent instanceof BSHBlock) )
+            return false;
+        if ( ((BSHBlock)parent).isSynchronized && parent.jjtGetChild(0) == node )
+            return false;
+        Node loop = parent.jjtGetParent();
+        return parent.jjtGetChild(parent.jjtGetNumChildren() - 1) != node
+            || loop instanceof BSHForStatement
+            || loop instanceof BSHWhileStatement
+            || loop instanceof BSHEnhancedForStatement;
+    }
+
     /**
         This is the general signature for evaluation of a node.
     */
@@ -0,0 +1,223 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+package bsh;
+
+/**
+    The specialized form of an operation which a node settles on after it
+    observed the runtime type at its site, e.g. the public field of class
+    X or the getter of class X.  A specialization is guarded: it applies
+    only to the values it accepts, for any other value the node takes its
+    generic path and specializes again.  A site which keeps seeing new
+    types stays generic after a few attempts.
+    <p>
+
+    Nodes hold their specialization in a transient Site rather than
+    replacing themselves in the parent, the node types are tested by the
+    parser, the optimizer and their parents.  Specializations are
+    immutable so a site may be shared by threads evaluating the same node.
+*/
+abstract class Specialization
+{
+    /** Times a site may specialize before it stays generic. */
+    static final int LIMIT = 4;
+
+    /** Advanced when resolved members may no longer be valid. */
+    private static volatile int generation;
+
+    /** The generation in which this specialization was made. */
+    private final int madeIn = generation;
+
+    /** Whether the specialization applies to the value. */
+    abstract boolean accepts( Object value );
+
+    /** Whether no members were dropped since this was made. */
+    final boolean isCurrent() {
+        return madeIn == generation;
+    }
+
+    /**
+        Drop all specializations which depend on resolved members, e.g.
+        after the accessibility of members changed.
+    */
+    static void invalidate() {
+        generation++;
+    }
+
+    /**
+        The specialization of an operation at a node.
+    */
+    static final class Site<S extends Specialization>
+    {
+        private S current;
+        private int attempts;
+
+        /** The specialization for the value, null to take the generic path. */
+        S get( Object value ) {
+            S s = current;
+            return s != null && s.accepts( value ) && s.isCurrent() ? s : null;
+        }
+
+        /** Whether the site may specialize again. */
+        boolean isOpen() {
+            return attempts < LIMIT;
+        }
+
+        /**
+            Install the specialization for a newly seen type.
+            @param s the specialization or null if the type has none
+        */
+        void install( S s ) {
+            attempts++;
+            current = s;
+        }
+    }
+
+    /**
+        A read of a public field or a property getter on the instances of a
+        class.
+    */
+    static final class Member extends Specialization
+    {
+        final Class<?> type;
+        final String name;
+        /** The field or, if null, the getter. */
+        private final Invocable field, getter;
+
+        private Member( Class<?> type, String name,
+            Invocable field, Invocable getter )
+        {
+            this.type = type;
+            this.name = name;
+            this.field = field;
+            this.getter = getter;
+        }
+
+        /**
+            The member read for the named field or property of an object, as
+            resolved by Reflect.getObjectFieldValue().
+            @return the member or null if the object is not a plain Java
+            object or has no such Java field or getter
+        */
+        static Member resolve( Object object, String name )
+            throws UtilEvalError
+        {
+            if ( object instanceof This || object instanceof Primitive
+                    || object instanceof Class )
+                return null;
+            Class<?> type = object.getClass();
+            if ( type.isArray() || Types.isPropertyType( type ) )
+                return null;
+            Invocable field = Reflect.resolveJavaField( type, name, false );
+            if ( field != null )
+                return new Member( type, name, field, null );
+            if ( Reflect.isGeneratedClass( type ) )
+                return null;
+            BshClassManager.MemberCache members =
+                BshClassManager.memberCache.get( type );
+            Invocable getter = members.hasMember( name )
+                ? members.findGetter( name ) : null;
+            return getter == null ? null
+                : new Member( type, name, null, getter );
+        }
+
+        boolean accepts( Object value ) {
+            return value.getClass() == type;
+        }
+
+        /** The value of the member of the object. */
+        Object get( Object object ) throws UtilEvalError {
+            if ( field != null )
+                return Reflect.getFieldValue( field, object, name );
+            return Reflect.getPropertyValue( getter, object, name );
+        }
+
+        /** An LHS for the field of the object or null for a property. */
+        LHS toLHS( Object object ) {
+            return field == null ? null : new LHS( object, field );
+        }
+    }
+
+    /**
+        A cast to a type of the values of a class, which are either kept as
+        they are or are primitives cast to another primitive type.
+    */
+    static final class Cast extends Specialization
+    {
+        final Class<?> toType;
+        /** The class of the values, the wrapper class for primitives. */
+        private final Class<?> from;
+        /** The primitive type of the values if they are primitives. */
+        private final Class<?> primitive;
+
+        private Cast( Class<?> toType, Class<?> from, Class<?> primitive )
+        {
+            this.toType = toType;
+            this.from = from;
+            this.primitive = primitive;
+        }
+
+        /**
+            The cast of a value to a type, as made by Types.castObject().
+            @return the cast or null if the value needs converting other
+            than by a primitive cast
+        */
+        static Cast resolve( Object value, Class<?> toType ) {
+            if ( value instanceof Primitive ) {
+                if ( value == Primitive.NULL || value == Primitive.VOID
+                        || !toType.isPrimitive() )
+                    return null;
+                Class<?> type = ((Primitive)value).getType();
+                if ( !type.isPrimitive() )
+                    return null;
+                return new Cast( toType,
+                    ((Primitive)value).getValue().getClass(), type );
+            }
+            Class<?> type = value.getClass();
+            if ( toType.isPrimitive() || type.isArray()
+                    || !toType.isAssignableFrom( type ) )
+                return null;
+            return new Cast( toType, type, null );
+        }
+
+        boolean accepts( Object value ) {
+            if ( primitive == null )
+                return value.getClass() == from;
+            return value instanceof Primitive
+                && value != Primitive.NULL && value != Primitive.VOID
+                && ((Primitive)value).getValue().getClass() == from;
+        }
+
+        /** Cast the value. */
+        Object cast( Object value ) throws UtilEvalError {
+            if ( primitive == null || primitive == toType )
+                return value;
+            return Primitive.castPrimitive(
+                toType, primitive, (Primitive)value, false, Types.CAST );
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+
+package bsh;
+
+/**
+    A typed String variable which appends to its value in place.  Repeated
+    += on the variable appends to a StringBuilder, which is only made into
+    the String value when the variable is read, so building a large string
+    in a loop takes linear rather than quadratic time.
+*/
+final class StringVariable extends Variable
+{
+    private static final long serialVersionUID = 1L;
+
+    /** The value while it is being appended to, the String value is null. */
+    private StringBuilder buffer;
+
+    StringVariable( String name, Object value, Modifiers modifiers )
+        throws UtilEvalError
+    {
+        super( name, String.class, value, modifiers );
+    }
+
+    /**
+        The variable named by a node which may be appended to in place, if
+        the node is a simple name which resolves to a non final String
+        variable.
+        @return the variable or null
+    */
+    static StringVariable assignable( Node node, CallStack callstack )
+        throws UtilEvalError
+    {
+        Variable var = PrimitiveVariable.local( node, callstack );
+        if ( var instanceof StringVariable && var.isLocal() )
+            return (StringVariable)var;
+        return null;
+    }
+
+    @Override
+    public void setValue( Object value, int context ) throws UtilEvalError
+    {
+        buffer = null;
+        super.setValue( value, context );
+    }
+
+    @Override
+    Object getValue() throws UtilEvalError
+    {
+        flush();
+        return super.getValue();
+    }
+
+    @Override
+    void redeclare( Object value ) throws UtilEvalError
+    {
+        buffer = null;
+        super.redeclare( value );
+    }
+
+    @Override
+    Variable copy()
+    {
+        flush();
+        try {
+            Variable var = new StringVariable( name, value, modifiers );
+            var.typeDescriptor = typeDescriptor;
+            return var;
+        } catch ( UtilEvalError e ) {
+            throw new InterpreterError( "Unable to copy variable: " + name, e );
+        }
+    }
+
+    /**
+        The buffer holding the value, to append the rhs of a += operator to.
+        The caller keeps the buffer and its length before the rhs is
+        evaluated, see append().
+        @return the buffer or null if the value is not a String
+    */
+    StringBuilder buffer()
+    {
+        if ( buffer == null && value instanceof String ) {
+            buffer = new StringBuilder( (String)value );
+            value = null;
+        }
+        return buffer;
+    }
+
+    /**
+        Append the rhs of a += operator to the value.  Evaluating the rhs may
+        have assigned the variable, then the value before it was evaluated is
+        the start of the buffer up to its length and the caller takes the
+        generic path.
+        @param buffer the buffer taken before the rhs was evaluated
+        @param length the length of the buffer then
+        @param rhs the value of the right hand side
+        @return false to take the generic path
+    */
+    boolean append( StringBuilder buffer, int length, Object rhs )
+    {
+        if ( this.buffer != buffer || buffer.length() != length )
+            return false;
+        buffer.append( String.valueOf( rhs ) );
+        return true;
+    }
+
+    /** Make the String value if the buffer was appended to. */
+    private void flush()
+    {
+        if ( buffer != null ) {
+            value = buffer.toString();
+            buffer = null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        flush();
+        return super.toString();
+    }
+}
@@ -58,6 +58,17 @@ public final class TargetError extends EvalError
         this("TargetError", t, node, callstack, false);
     }
 
+    /**
+        The stack trace of interest is the target's, the Java stack trace
+        of the error itself is only filled in when debugging.  Scripts
+        which throw and catch exceptions create many of these.
+    */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return Interpreter.isDebug() ? super.fillInStackTrace() : this;
+    }
+
     public synchronized Throwable getTarget()
     {
         // check for easy mistake
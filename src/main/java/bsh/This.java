@@ -200,8 +200,9 @@ public final class This implements java.io.Serializable, Runnable
             } catch ( EvalError ee ) {
                 // Ease debugging...
                 // XThis.this refers to the enclosing class instance
-                Interpreter.debug( "EvalError in scripted interface: ",
-                    This.this.toString(), ": ", ee );
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug( "EvalError in scripted interface: ",
+                        This.this.toString(), ": ", ee );
                 throw ee;
             }
         }
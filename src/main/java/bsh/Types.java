@@ -276,8 +276,8 @@ class Types
         @param rhsType assigning from rhsType to lhsType
     */
     static boolean isJavaAssignable( Class lhsType, Class rhsType ) {
-        return isJavaBaseAssignable( lhsType, rhsType )
-            || isJavaBoxTypesAssignable( lhsType, rhsType );
+        return lhsType != null && conversion( lhsType, rhsType )
+            .isAssignable( JAVA_BOX_TYPES_ASSIGABLE );
     }
 
     /**
@@ -286,6 +286,14 @@ class Types
      @param rhsType may be null to indicate primitive null value
     */
     static boolean isJavaBaseAssignable( Class<?> lhsType, Class<?> rhsType )
+    {
+        return lhsType != null && conversion( lhsType, rhsType )
+            .isAssignable( JAVA_BASE_ASSIGNABLE );
+    }
+
+    /** Uncached isJavaBaseAssignable(), see Conversion. */
+    static boolean javaBaseAssignable(
+        Class<?> lhsType, Class<?> rhsType )
     {
         /*
             Assignment to loose type, defer to bsh extensions
@@ -322,6 +330,14 @@ class Types
     */
     static boolean isJavaBoxTypesAssignable(
         Class lhsType, Class rhsType )
+    {
+        return lhsType != null && conversion( lhsType, rhsType )
+            .isAssignable( JAVA_BOX_TYPES_ASSIGABLE );
+    }
+
+    /** Uncached isJavaBoxTypesAssignable(), see Conversion. */
+    static boolean javaBoxTypesAssignable(
+        Class<?> lhsType, Class<?> rhsType )
     {
         // Assignment to loose type... defer to bsh extensions
         if ( lhsType == null )
@@ -350,7 +366,7 @@ class Types
         if ( Primitive.wrapperMap.get( lhsType ) == rhsType )
             return true;
 
-        return isJavaBaseAssignable(lhsType, rhsType);
+        return javaBaseAssignable(lhsType, rhsType);
     }
 
     /**
@@ -359,15 +375,8 @@ class Types
      */
     static boolean isBshAssignable( Class toType, Class fromType )
     {
-        try {
-            return castObject(
-                toType, fromType, null/*fromValue*/,
-                ASSIGNMENT, true/*checkOnly*/
-            ) == VALID_CAST;
-        } catch ( UtilEvalError e ) {
-            // This should not happen with checkOnly true
-            throw new InterpreterError("err in cast check: "+e, e);
-        }
+        return toType == null || conversion( toType, fromType )
+            .isAssignable( BSH_ASSIGNABLE );
     }
 
     /** Find array element type for class.
@@ -545,117 +554,231 @@ class Types
         if ( toType == Void.TYPE )
             throw new InterpreterError("loose toType should be null");
 
-        // assignment to loose type, void type, or exactly same type
-        if ( toType == null || arrayElementType(toType) == arrayElementType(fromType) )
-            return checkOnly ? VALID_CAST :
-                fromValue;
+        // assignment to loose type or exactly same type
+        if ( toType == null || toType == fromType )
+            return checkOnly ? VALID_CAST : fromValue;
 
-        if ( null != fromType && fromType.isArray() )
-            if ( operation == Types.CAST
-                    || isJavaAssignable(Collection.class, toType)
-                    || isJavaAssignable(Map.class, toType) )
-                return checkOnly ? VALID_CAST : BshArray.castArray(
-                        toType, fromType, fromValue );
+        Conversion conversion = conversion( toType, fromType );
+        if ( checkOnly )
+            return conversion.isValid( operation ) ? VALID_CAST : INVALID_CAST;
 
-        // Casting to primitive type
-        if ( toType.isPrimitive() )
+        switch ( conversion.getKind( operation ) )
         {
-            if ( fromType == Void.TYPE || fromType == null
-                || fromType.isPrimitive() )
-            {
-                // Both primitives, do primitive cast
+            case Conversion.IDENTITY:
+                return fromValue;
+            case Conversion.ARRAY:
+                return BshArray.castArray( toType, fromType, fromValue );
+            case Conversion.PRIMITIVE:
                 return Primitive.castPrimitive(
-                    toType, fromType, (Primitive)fromValue,
-                    checkOnly, operation );
-            } else
-            {
-                if ( Primitive.isWrapperType( fromType ) )
-                {
-                    // wrapper to primitive
-                    // Convert value to Primitive and check/cast it.
-
-                    //Object r = checkOnly ? VALID_CAST :
-                    Class unboxedFromType = Primitive.unboxType( fromType );
-                    Primitive primFromValue;
-                    if ( checkOnly )
-                        primFromValue = null; // must be null in checkOnly
-                    else
-                        primFromValue = (Primitive)Primitive.wrap(
-                            fromValue, unboxedFromType );
-
-                    return Primitive.castPrimitive(
-                        toType, unboxedFromType, primFromValue,
-                        checkOnly, operation );
-                } else
-                {
-                    // Cannot cast from arbitrary object to primitive
-                    if ( checkOnly )
-                        return INVALID_CAST;
-                    else
-                        throw castError( toType, fromType, operation );
-                }
+                    toType, fromType, (Primitive)fromValue, false, operation );
+            case Conversion.UNBOX:
+                // wrapper to primitive
+                Class<?> unboxedFromType = Primitive.unboxType( fromType );
+                return Primitive.castPrimitive( toType, unboxedFromType,
+                    (Primitive)Primitive.wrap( fromValue, unboxedFromType ),
+                    false, operation );
+            case Conversion.BOX:
+                // primitive to wrapper type
+                return Primitive.castWrapper( Primitive.unboxType( toType ),
+                    ((Primitive)fromValue).getValue() );
+            case Conversion.BOX_OBJECT:
+                // primitive (not null or void) to Object.class type
+                return ((Primitive)fromValue).getValue();
+            case Conversion.PROXY:
+                return ((bsh.This)fromValue).getInterface( toType );
+            case Conversion.NUMBER:
+                return Primitive.castWrapper( toType, fromValue );
+            default:
+                throw castError( toType, fromType, operation );
+        }
+    }
+
+    /**
+        The conversion for the given types, cached per pair of classes.
+        @param toType the class type of the cast result
+        @param fromType the class type of the value or null for Primitive.NULL
+    */
+    static Conversion conversion( Class<?> toType, Class<?> fromType )
+    {
+        Conversions conversions = CONVERSIONS.get( toType );
+        return fromType == null ? conversions.fromNull
+            : conversions.get( fromType );
+    }
+
+    /** The conversions to a class, keyed by the class converted from. */
+    private static final ClassValue<Conversions> CONVERSIONS
+        = new ClassValue<Conversions>() {
+            @Override
+            protected Conversions computeValue( Class<?> toType ) {
+                return new Conversions( toType );
             }
+        };
+
+    /**
+        The conversions to a class from other classes.  Class values are
+        attached to the class they are computed for, the conversions to and
+        from a class are dropped along with it and do not keep its class
+        loader reachable.
+    */
+    private static final class Conversions extends ClassValue<Conversion>
+    {
+        private final Class<?> toType;
+        /** The conversion of Primitive.NULL. */
+        private final Conversion fromNull;
+
+        Conversions( Class<?> toType ) {
+            this.toType = toType;
+            this.fromNull = new Conversion( toType, null );
         }
 
-        // Else, casting to reference type
+        @Override
+        protected Conversion computeValue( Class<?> fromType ) {
+            return new Conversion( toType, fromType );
+        }
+    }
 
-        // Casting from primitive or void (to reference type)
-        if ( fromType == Void.TYPE || fromType == null
-            || fromType.isPrimitive() )
+    /**
+        The plan of castObject() for converting values of a type to another
+        type.  It is decided from the types alone, once per pair of types,
+        along with the assignability of the types in each round of method
+        resolution.  Casts of primitives still depend on the value, see
+        Primitive.castPrimitive().
+    */
+    static final class Conversion
+    {
+        /** Kinds of conversion, the steps taken by castObject(). */
+        static final int IDENTITY = 0, ARRAY = 1, PRIMITIVE = 2, UNBOX = 3,
+            BOX = 4, BOX_OBJECT = 5, PROXY = 6, NUMBER = 7, INVALID = 8;
+
+        /** The kind of conversion for a CAST and an ASSIGNMENT. */
+        private final int[] kinds = new int[2];
+        /** Whether the conversion is possible for a CAST and an ASSIGNMENT. */
+        private final boolean[] valid = new boolean[2];
+        /** Bits of the assignable rounds. */
+        private final int rounds;
+
+        /**
+            @param toType the class type of the cast result
+            @param fromType the class type of the value, Void.TYPE for
+                Primitive.VOID or null for Primitive.NULL
+        */
+        Conversion( Class<?> toType, Class<?> fromType )
         {
-            // cast from primitive to wrapper type
-            if ( Primitive.isWrapperType( toType )
-                && fromType != Void.TYPE && fromType != null )
+            for ( int operation : new int[] { CAST, ASSIGNMENT } ) {
+                kinds[operation] = kindOf( toType, fromType, operation );
+                valid[operation] = isValid(
+                    kinds[operation], toType, fromType, operation );
+            }
+            int rounds = 0;
+            if ( javaBaseAssignable( toType, fromType ) )
+                rounds |= 1 << JAVA_BASE_ASSIGNABLE;
+            if ( javaBoxTypesAssignable( toType, fromType ) )
+                rounds |= 1 << JAVA_BOX_TYPES_ASSIGABLE;
+            if ( valid[ASSIGNMENT] )
+                rounds |= 1 << BSH_ASSIGNABLE;
+            this.rounds = rounds;
+        }
+
+        /** The kind of conversion for the operation. */
+        int getKind( int operation ) {
+            return kinds[operation];
+        }
+
+        /** Whether the conversion is possible for the operation. */
+        boolean isValid( int operation ) {
+            return valid[operation];
+        }
+
+        /** Whether the types are assignable in the round. */
+        boolean isAssignable( int round ) {
+            return ( rounds & 1 << round ) != 0;
+        }
+
+        private static int kindOf(
+            Class<?> toType, Class<?> fromType, int operation )
+        {
+            // assignment to void type, or exactly same type
+            if ( arrayElementType(toType) == arrayElementType(fromType) )
+                return IDENTITY;
+
+            if ( null != fromType && fromType.isArray() )
+                if ( operation == Types.CAST
+                        || javaBoxTypesAssignable(Collection.class, toType)
+                        || javaBoxTypesAssignable(Map.class, toType) )
+                    return ARRAY;
+
+            // Casting to primitive type
+            if ( toType.isPrimitive() )
             {
-                // primitive to wrapper type
-                return checkOnly ? VALID_CAST :
-                    Primitive.castWrapper(
-                        Primitive.unboxType(toType),
-                        ((Primitive)fromValue).getValue() );
+                // Both primitives, do primitive cast
+                if ( fromType == Void.TYPE || fromType == null
+                    || fromType.isPrimitive() )
+                    return PRIMITIVE;
+                // Cannot cast from arbitrary object to primitive
+                return Primitive.isWrapperType( fromType ) ? UNBOX : INVALID;
             }
 
-            // Primitive (not null or void) to Object.class type
-            if ( toType == Object.class
-                && fromType != Void.TYPE && fromType != null )
+            // Else, casting to reference type
+
+            // Casting from primitive or void (to reference type)
+            if ( fromType == Void.TYPE || fromType == null
+                || fromType.isPrimitive() )
             {
-                // box it
-                return checkOnly ? VALID_CAST :
-                    ((Primitive)fromValue).getValue();
+                if ( fromType != Void.TYPE && fromType != null ) {
+                    if ( Primitive.isWrapperType( toType ) )
+                        return BOX;
+                    if ( toType == Object.class )
+                        return BOX_OBJECT;
+                }
+                // Primitive to arbitrary object type.
+                // Allow Primitive.castToType() to handle it as well as cases of
+                // Primitive.NULL and Primitive.VOID
+                return PRIMITIVE;
             }
 
-            // Primitive to arbitrary object type.
-            // Allow Primitive.castToType() to handle it as well as cases of
-            // Primitive.NULL and Primitive.VOID
-            return Primitive.castPrimitive(
-                toType, fromType, (Primitive)fromValue, checkOnly, operation );
-        }
+            // If type already assignable no cast necessary
+            // We do this last to allow various errors above to be caught.
+            // e.g cast Primitive.Void to Object would pass this
+            if ( toType.isAssignableFrom( fromType ) )
+                return IDENTITY;
 
-        // If type already assignable no cast necessary
-        // We do this last to allow various errors above to be caught.
-        // e.g cast Primitive.Void to Object would pass this
-        if ( toType.isAssignableFrom( fromType ) )
-            return checkOnly ? VALID_CAST :
-                fromValue;
-
-        // Can we use the proxy mechanism to cast a bsh.This to
-        // the correct interface?
-        if ( toType.isInterface()
-            && bsh.This.class.isAssignableFrom( fromType )
-        )
-            return checkOnly ? VALID_CAST :
-                ((bsh.This)fromValue).getInterface( toType );
+            // Can we use the proxy mechanism to cast a bsh.This to
+            // the correct interface?
+            if ( toType.isInterface()
+                && bsh.This.class.isAssignableFrom( fromType ) )
+                return PROXY;
 
-        // Both numeric wrapper types?
-        // Try numeric style promotion wrapper cast
-        if ( Primitive.isWrapperType( toType )
-            && Primitive.isWrapperType( fromType ) )
-            return checkOnly ? VALID_CAST :
-                Primitive.castWrapper( toType, fromValue );
+            // Both numeric wrapper types?
+            // Try numeric style promotion wrapper cast
+            if ( Primitive.isWrapperType( toType )
+                && Primitive.isWrapperType( fromType ) )
+                return NUMBER;
 
-        if ( checkOnly )
-            return INVALID_CAST;
-        else
-            throw castError( toType, fromType , operation  );
+            return INVALID;
+        }
+
+        private static boolean isValid( int kind,
+            Class<?> toType, Class<?> fromType, int operation )
+        {
+            try {
+                switch ( kind ) {
+                    case PRIMITIVE:
+                        return Primitive.castPrimitive( toType, fromType,
+                            null, true, operation ) == VALID_CAST;
+                    case UNBOX:
+                        return Primitive.castPrimitive( toType,
+                            Primitive.unboxType( fromType ),
+                            null, true, operation ) == VALID_CAST;
+                    case INVALID:
+                        return false;
+                    default:
+                        return true;
+                }
+            } catch ( UtilEvalError e ) {
+                // This should not happen with checkOnly true
+                throw new InterpreterError("err in cast check: "+e, e);
+            }
+        }
     }
 
     /**
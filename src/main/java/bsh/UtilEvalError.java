@@ -73,7 +73,7 @@ public class UtilEvalError extends Exception
     public EvalError toEvalError(
         String msg, SimpleNode node, CallStack callstack  )
     {
-        if ( Interpreter.DEBUG.get() )
+        if ( Interpreter.isDebug() )
             printStackTrace();
 
         if ( msg == null )
@@ -88,5 +88,16 @@ public class UtilEvalError extends Exception
         return toEvalError( null, node, callstack );
     }
 
+    /**
+        The error is internal, it is either handled or rethrown as an
+        EvalError which is where its context is taken.  The Java stack
+        trace is only filled in when debugging.
+    */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return Interpreter.isDebug() ? super.fillInStackTrace() : this;
+    }
+
 }
 
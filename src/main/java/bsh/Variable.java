@@ -35,6 +35,8 @@ public class Variable implements java.io.Serializable
     Object value;
     Modifiers modifiers;
     LHS lhs;
+    /** Set when the declaring namespace is sealed, see NameSpace.seal(). */
+    boolean sealed;
 
     Variable( String name, Class<?> type, LHS lhs )
     {
@@ -73,6 +75,26 @@ public class Variable implements java.io.Serializable
         this.setValue( value, DECLARATION );
     }
 
+    /**
+        Create a variable of the type.  Variables of type int, long and
+        double hold their value unboxed, see PrimitiveVariable, and String
+        variables append in place, see StringVariable.
+    */
+    static Variable create( String name, Class<?> type, Object value,
+        Modifiers modifiers ) throws UtilEvalError
+    {
+        if ( type == Integer.TYPE )
+            return new PrimitiveVariable.IntVariable( name, value, modifiers );
+        if ( type == Long.TYPE )
+            return new PrimitiveVariable.LongVariable( name, value, modifiers );
+        if ( type == Double.TYPE )
+            return new PrimitiveVariable.DoubleVariable(
+                name, value, modifiers );
+        if ( type == String.class )
+            return new StringVariable( name, value, modifiers );
+        return new Variable( name, type, value, modifiers );
+    }
+
     /**
         Set the value of the typed variable.
         @param value should be an object or wrapped bsh Primitive type.
@@ -82,6 +104,10 @@ public class Variable implements java.io.Serializable
     public void setValue( Object value, int context )
         throws UtilEvalError
     {
+        // prevent assignment to variables of a sealed namespace
+        if (sealed)
+            throw new UtilEvalError("Cannot assign variable "+name
+                +" of a sealed namespace.");
 
         // prevent final variable re-assign
         if (hasModifier("final")) {
@@ -110,6 +136,38 @@ public class Variable implements java.io.Serializable
 
     }
 
+    /**
+        Declare the variable again with a new value, as for the variable of
+        the next iteration of a loop. Final variables may be redeclared.
+    */
+    void redeclare( Object value ) throws UtilEvalError
+    {
+        this.value = null;
+        setValue( value, DECLARATION );
+    }
+
+    /**
+        Copy of this variable which may be assigned independently of it.
+        Used when the variable table of a forked namespace is copied on write.
+    */
+    Variable copy()
+    {
+        Variable var = new Variable( name, type, lhs );
+        var.typeDescriptor = typeDescriptor;
+        var.value = value;
+        var.modifiers = modifiers;
+        return var;
+    }
+
+    /**
+        The variable holds its own value, which may be assigned, and is not
+        final.  Such a variable may be updated in place.
+    */
+    boolean isLocal() {
+        return !sealed && lhs == null
+            && ( modifiers == null || !modifiers.hasModifier("final") );
+    }
+
     void validateFinalIsSet(boolean isStatic) {
         if (!hasModifier("final") || this.value != null)
             return;
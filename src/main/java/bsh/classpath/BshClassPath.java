@@ -42,14 +42,20 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import bsh.ClassPathException;
@@ -91,7 +97,11 @@ public class BshClassPath
     private Map classSource;
     /**  The packageMap and classSource maps have been built. */
     private boolean mapsInitialized;
+    /** The scanned path components in order, null until scanned. */
+    private List<Scan> scans;
 
+    /** Names of the explicitly set class sources. */
+    private Set<String> setClassNames;
     private UnqualifiedNameTable unqNameTable;
 
     /**
@@ -138,16 +148,25 @@ public class BshClassPath
     public void add( URL [] urls ) {
         path.addAll( Arrays.asList(urls) );
         synchronized (this) {
-            if ( mapsInitialized )
-                map( urls );
+            if ( scans != null ) {
+                List<Scan> added = scan( urls );
+                scans.addAll( added );
+                if ( mapsInitialized )
+                    added.forEach( this::map );
+            }
         }
     }
 
     public void add( URL url ) throws IOException {
         path.add(url);
         synchronized (this) {
-            if ( mapsInitialized )
-                map( url );
+            if ( scans != null ) {
+                Scan scan = new Scan( url );
+                scans.add( scan );
+                report( scan );
+                if ( mapsInitialized )
+                    map( scan );
+            }
         }
     }
 
@@ -209,6 +228,8 @@ public class BshClassPath
     synchronized public void setClassSource( String className, ClassSource cs )
     {
         classSource.put( className, cs );
+        setClassNames.add( className );
+        unqNameTable = null;
     }
 
     /**
@@ -257,7 +278,7 @@ public class BshClassPath
 
         // initialize ourself
         if ( !mapsInitialized )
-            map( (URL[])path.toArray( new URL[0] ) );
+            scans().forEach( this::map );
 
         if ( topPath && !mapsInitialized )
             endClassMapping();
@@ -265,6 +286,36 @@ public class BshClassPath
         mapsInitialized = true;
     }
 
+    /**
+        If the class path is not scanned, list the classes of its components
+        and those of the component paths without mapping them.  Unqualified
+        names are resolved from the scans alone.
+        @param topPath indicates that this is the top level classpath
+        component and it should send the startClassMapping message
+    */
+    protected synchronized void insureScanned( boolean topPath )
+    {
+        boolean scanning = topPath && scans == null;
+        if ( scanning )
+            startClassMapping();
+
+        if ( compPaths != null )
+            for (int i=0; i< compPaths.size(); i++)
+                ((BshClassPath)compPaths.get(i)).insureScanned( false );
+
+        scans();
+
+        if ( scanning )
+            endClassMapping();
+    }
+
+    /** The scans of the path components, scanning them if not done yet. */
+    private List<Scan> scans() {
+        if ( scans == null )
+            scans = scan( (URL[])path.toArray( new URL[0] ) );
+        return scans;
+    }
+
     /**
         Get the full path including component paths.
         (component paths listed first, in order)
@@ -294,51 +345,58 @@ public class BshClassPath
     /**
         Support for super import "*";
         Get the full name associated with the unqualified name in this
-        classpath.  Returns either the String name or an AmbiguousName object
-        encapsulating the various names.
+        classpath.  The name is looked up in the tables of the scanned
+        components of this path and of the component paths, without mapping
+        the classes.  Adding a component scans only the new component.
+        @return the class name or null if there is none
+        @throws ClassPathException if the name is ambiguous
     */
     public String getClassNameByUnqName( String name )
         throws ClassPathException
     {
-        insureInitialized();
-        UnqualifiedNameTable unqNameTable = getUnqualifiedNameTable();
+        insureScanned( true );
+        Set<String> names = new LinkedHashSet<>();
+        addClassNamesByUnqName( name, names );
 
-        Object obj = unqNameTable.get( name );
-        if ( obj instanceof AmbiguousName )
+        if ( names.size() > 1 )
             throw new ClassPathException("Ambigous class names: "+
-                ((AmbiguousName)obj).get() );
+                new ArrayList<>( names ) );
 
-        return (String)obj;
+        return names.isEmpty() ? null : names.iterator().next();
     }
 
-    /*
-        Note: we could probably do away with the unqualified name table
-        in favor of a second name source
-    */
-    private UnqualifiedNameTable getUnqualifiedNameTable() {
-        if ( unqNameTable == null )
-            unqNameTable = buildUnqualifiedNameTable();
-        return unqNameTable;
+    private synchronized void addClassNamesByUnqName( String name,
+        Set<String> names )
+    {
+        if ( compPaths != null )
+            for (int i=0; i<compPaths.size(); i++)
+                ((BshClassPath)compPaths.get(i)).addClassNamesByUnqName(
+                    name, names );
+        for ( Scan scan : scans() )
+            if ( scan.table != null )
+                scan.table.get( name, names );
+        getUnqualifiedNameTable().get( name, names );
     }
 
-    private UnqualifiedNameTable buildUnqualifiedNameTable()
+    private synchronized void addUnqualifiedNames( Set<String> names )
     {
-        UnqualifiedNameTable unqNameTable = new UnqualifiedNameTable();
-
-        // add component names
         if ( compPaths != null )
-            for (int i=0; i<compPaths.size(); i++) {
-                Set s = ((BshClassPath)compPaths.get(i)).classSource.keySet();
-                Iterator it = s.iterator();
-                while(it.hasNext())
-                    unqNameTable.add( (String)it.next() );
-            }
-
-        // add ours
-        Iterator it = classSource.keySet().iterator();
-        while(it.hasNext())
-            unqNameTable.add( (String)it.next() );
+            for (int i=0; i<compPaths.size(); i++)
+                ((BshClassPath)compPaths.get(i)).addUnqualifiedNames( names );
+        for ( Scan scan : scans() )
+            if ( scan.table != null )
+                scan.table.addNames( names );
+        getUnqualifiedNameTable().addNames( names );
+    }
 
+    /**
+        The table of the explicitly set class sources, e.g. generated classes,
+        the scanned classes are in the tables of their scans.
+    */
+    private UnqualifiedNameTable getUnqualifiedNameTable() {
+        if ( unqNameTable == null )
+            unqNameTable = new UnqualifiedNameTable(
+                setClassNames.toArray( new String[setClassNames.size()] ) );
         return unqNameTable;
     }
 
@@ -354,48 +412,128 @@ public class BshClassPath
                 removeInnerClassNames( getClassesForPackage( pack ) ) );
         }
 
-        if ( nameCompletionIncludesUnqNames )
-            names.addAll( getUnqualifiedNameTable().keySet() );
+        if ( nameCompletionIncludesUnqNames ) {
+            Set<String> unqNames = new HashSet<>();
+            addUnqualifiedNames( unqNames );
+            names.addAll( unqNames );
+        }
 
         return (String [])names.toArray(new String[0]);
     }
 
     /**
-        call map(url) for each url in the array
+        Scan the urls in parallel and report the outcome in order.
+        @return the scans in the order of the urls
     */
-    synchronized void map( URL [] urls )
+    private List<Scan> scan( URL [] urls )
     {
-        for(int i=0; i< urls.length; i++)
+        Stream<URL> stream = Arrays.stream( urls );
+        if ( urls.length > 1 )
+            stream = stream.parallel();
+        List<Scan> scans = stream.map( Scan::new )
+            .collect( Collectors.toCollection( ArrayList::new ) );
+        for(int i=0; i< scans.size(); i++)
             try{
-                map( urls[i] );
+                report( scans.get(i) );
             } catch ( IOException e ) {
                 String s = "Error constructing classpath: " +urls[i]+": "+e;
                 errorWhileMapping( s );
             }
+        return scans;
     }
 
-    synchronized void map( URL url )
-        throws IOException
+    /**
+        call map(url) for each url in the array
+    */
+    synchronized void map( URL [] urls )
     {
-        if ("jrt".equals(url.getProtocol())) {
-            classMapping("FileSystem: "+url );
-            map( searchJrtFSForClasses( url ), new JrtClassSource(url) );
-        } else  if ("jar".equals(url.getProtocol())) {
-            classMapping("FileSystem: "+url );
-            map( searchJarFSForClasses( url ), new JarClassSource(url) );
-        } else {
-            String name = url.getFile();
-            File f = new File( name );
-
-            if ( f.isDirectory() ) {
-                classMapping( "Directory "+ f.toString() );
-                map( traverseDirForClasses( f ), new DirClassSource(f) );
-            } else if ( isArchiveFileName( name ) ) {
-                classMapping("Archive: "+url );
-                map( searchArchiveForClasses( url ), new JarClassSource(url) );
+        scan( urls ).forEach( this::map );
+    }
+
+    /**
+        Give the mapping feedback of a scan.
+        @throws IOException if the component could not be read
+    */
+    private void report( Scan scan ) throws IOException {
+        if ( scan.message != null )
+            classMapping( scan.message );
+        if ( scan.failure instanceof IOException )
+            throw (IOException) scan.failure;
+        if ( scan.failure != null )
+            throw (RuntimeException) scan.failure;
+        if ( scan.classes == null )
+            errorWhileMapping( "Not a classpath component: "+ scan.url.getFile() );
+    }
+
+    private void map( Scan scan ) {
+        if ( scan.classes != null )
+            map( scan.classes, scan.source );
+    }
+
+    /**
+        The classes of a class path component, listed without mapping them
+        so that components may be scanned concurrently.  The classes of
+        archives and of the runtime image are read from the ClassPathIndex
+        when the archive did not change, they are indexed in the order of
+        the unqualified name table of the scan.
+    */
+    private static final class Scan
+    {
+        final URL url;
+        /** The mapping feedback message. */
+        String message;
+        Object source;
+        /** The class names or null if the url is no class path component. */
+        String [] classes;
+        /** The classes by unqualified name, sharing the class names. */
+        UnqualifiedNameTable table;
+        Exception failure;
+
+        Scan( URL url ) {
+            this.url = url;
+            try {
+                scan();
+                if ( classes != null )
+                    table = new UnqualifiedNameTable( classes );
+            } catch ( IOException | RuntimeException e ) {
+                classes = null;
+                failure = e;
+            }
+        }
+
+        private void scan() throws IOException {
+            if ("jrt".equals(url.getProtocol())) {
+                message = "FileSystem: "+url;
+                source = new JrtClassSource(url);
+                String home = System.getProperty("java.home");
+                classes = ClassPathIndex.classes( url+" "+home,
+                    new File( home, "lib"+File.separator+"modules" ),
+                    () -> UnqualifiedNameTable.sort(
+                        searchJrtFSForClasses( url ) ) );
+            } else  if ("jar".equals(url.getProtocol())) {
+                message = "FileSystem: "+url;
+                source = new JarClassSource(url);
+                classes = ClassPathIndex.classes( url.toString(),
+                    archiveFile( url ),
+                    () -> UnqualifiedNameTable.sort(
+                        searchJarFSForClasses( url ) ) );
             } else {
-                String s = "Not a classpath component: "+ name ;
-                errorWhileMapping( s );
+                String name = url.getFile();
+                File f = new File( name );
+
+                if ( f.isDirectory() ) {
+                    message = "Directory "+ f.toString();
+                    source = new DirClassSource(f);
+                    classes = traverseDirForClasses( f );
+                } else if ( isArchiveFileName( name ) ) {
+                    message = "Archive: "+url;
+                    source = new JarClassSource(url);
+                    File file = archiveFile( url );
+                    classes = ClassPathIndex.classes(
+                        null == file ? name : file.getAbsolutePath(), file,
+                        () -> UnqualifiedNameTable.sort(
+                            searchArchiveForClasses( url ) ) );
+                }
             }
         }
     }
@@ -409,9 +547,9 @@ public class BshClassPath
 
     private void mapClass( String className, Object source )
     {
-        // add to package map
-        String [] sa = splitClassname( className );
-        String pack = sa[0];
+        // add to package map, the names mapped are canonical
+        int i = className.lastIndexOf( '.' );
+        String pack = i == -1 ? "<unpackaged>" : className.substring( 0, i );
         Set set = (Set)packageMap.get( pack );
         if ( set == null ) {
             set = new HashSet();
@@ -441,8 +579,10 @@ public class BshClassPath
     */
     synchronized private void clearCachedStructures() {
         mapsInitialized = false;
+        scans = null;
         packageMap = new HashMap();
         classSource = new HashMap();
+        setClassNames = new HashSet<>();
         unqNameTable = null;
         nameSpaceChanged();
     }
@@ -542,23 +682,51 @@ public class BshClassPath
     }
 
     /** Search Archive for classes.
+     * Archive files are listed from their central directory, other archives
+     * are read through.
      * @param the archive file location
      * @return array of class names found
      * @throws IOException */
     static String [] searchArchiveForClasses( URL url ) throws IOException {
         List<String> list = new ArrayList<>();
-        ZipInputStream zip = new ZipInputStream(url.openStream());
-
-        ZipEntry ze;
-        while( zip.available() == 1 )
-            if ( (ze = zip.getNextEntry()) != null
-                    && isClassFileName( ze.getName() ) )
-                list.add( canonicalizeClassName( ze.getName() ) );
-        zip.close();
-
+        File file = archiveFile( url );
+        if ( file != null && file.isFile() ) try (ZipFile zip = new ZipFile(file)) {
+            for ( Enumeration<? extends ZipEntry> e = zip.entries();
+                    e.hasMoreElements(); ) {
+                ZipEntry ze = e.nextElement();
+                if ( !ze.isDirectory() && isClassFileName( ze.getName() ) )
+                    list.add( canonicalizeClassName( ze.getName() ) );
+            }
+            return list.toArray( new String[list.size()] );
+        } catch ( ZipException e ) {
+            list.clear(); // not a plain zip, e.g. prefixed by a header
+        }
+        try (ZipInputStream zip = new ZipInputStream(url.openStream())) {
+            for ( ZipEntry ze; (ze = zip.getNextEntry()) != null; )
+                if ( isClassFileName( ze.getName() ) )
+                    list.add( canonicalizeClassName( ze.getName() ) );
+        }
         return list.toArray( new String[list.size()] );
     }
 
+    /** The local file of an archive url.
+     * @param url a file: url or a jar: url of an entry in a local archive
+     * @return the archive file or null if it is not local */
+    static File archiveFile( URL url ) {
+        String spec = url.toExternalForm();
+        if ( spec.startsWith( "jar:" ) ) {
+            int entry = spec.indexOf( "!/" );
+            spec = spec.substring( 4, entry < 0 ? spec.length() : entry );
+        }
+        if ( !spec.startsWith( "file:" ) )
+            return null;
+        try {
+            return new File( new URI( spec ) );
+        } catch ( URISyntaxException | IllegalArgumentException e ) {
+            return new File( spec.substring( 5 ) );
+        }
+    }
+
     public static boolean isClassFileName( String name ){
         return name.toLowerCase().endsWith(".class");
             //&& (name.indexOf('$')==-1) );
@@ -828,27 +996,110 @@ public class BshClassPath
     }
 
 
-    /*
-        Note: we could probably do away with the unqualified name table
-        in favor of a second name source
+    /**
+        The classes of a path by unqualified name.  The class names are kept
+        sorted by their unqualified part and looked up by binary search,
+        comparing the unqualified part in place instead of holding a map
+        entry and a substring per class.
     */
-    static class UnqualifiedNameTable extends HashMap {
-        void add( String fullname ) {
-            String name = splitClassname( fullname )[1];
-            Object have = super.get( name );
+    static final class UnqualifiedNameTable {
+        private final String [] names;
 
-            if ( have == null )
-                super.put( name, fullname );
-            else
-                if ( have instanceof AmbiguousName )
-                    ((AmbiguousName)have).add( fullname );
-                else  // String
-                {
-                    AmbiguousName an = new AmbiguousName();
-                    an.add( (String)have );
-                    an.add( fullname );
-                    super.put( name, an );
-                }
+        /**
+            @param classNames the class names, which are sorted in place if
+            they are not sorted yet and are kept by the table
+        */
+        UnqualifiedNameTable( String [] classNames ) {
+            names = sort( classNames );
+        }
+
+        /**
+            Sort class names by their unqualified part, the order of a table.
+            @param classNames the class names, sorted in place
+            @return the class names
+        */
+        static String [] sort( String [] classNames ) {
+            int i = 1;
+            while ( i < classNames.length
+                    && compare( classNames[i-1], classNames[i] ) <= 0 )
+                i++;
+            if ( i >= classNames.length )
+                return classNames;
+            // sort with the unqualified parts located once per name
+            Entry [] entries = new Entry[ classNames.length ];
+            for ( i=0; i<entries.length; i++ )
+                entries[i] = new Entry( classNames[i] );
+            Arrays.sort( entries, UnqualifiedNameTable::compare );
+            for ( i=0; i<entries.length; i++ )
+                classNames[i] = entries[i].name;
+            return classNames;
+        }
+
+        private static int compare( Entry a, Entry b ) {
+            int c = compare( a.name, a.start, b.name, b.start );
+            return c != 0 ? c : a.name.compareTo( b.name );
+        }
+
+        private static int compare( String a, String b ) {
+            int c = compare( a, start( a ), b, start( b ) );
+            return c != 0 ? c : a.compareTo( b );
+        }
+
+        /** A class name with the start of its unqualified part. */
+        private static final class Entry {
+            final String name;
+            final int start;
+
+            Entry( String name ) {
+                this.name = name;
+                this.start = start( name );
+            }
+        }
+
+        /** Add the class names with the unqualified name. */
+        void get( String name, Collection<String> found ) {
+            int lo = 0, hi = names.length;
+            while ( lo < hi ) {
+                int mid = (lo + hi) >>> 1;
+                if ( compare( names[mid], name, 0 ) < 0 )
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            for ( int i=lo; i<names.length
+                    && compare( names[i], name, 0 ) == 0; i++ )
+                found.add( names[i] );
+        }
+
+        /** Add the unqualified names. */
+        void addNames( Collection<String> found ) {
+            for ( String name : names )
+                found.add( name.substring( start( name ) ) );
+        }
+
+        /** Start of the unqualified part of a class name. */
+        private static int start( String className ) {
+            return className.lastIndexOf( '.' ) + 1;
+        }
+
+        /**
+            Compare the unqualified part of a class name to a name starting
+            at an offset.
+        */
+        private static int compare( String className, String name, int from )
+        {
+            return compare( className, start( className ), name, from );
+        }
+
+        private static int compare( String a, int from, String b, int bFrom )
+        {
+            int n1 = a.length() - from, n2 = b.length() - bFrom;
+            for ( int i=0, n=Math.min( n1, n2 ); i<n; i++ ) {
+                int c = a.charAt( from+i ) - b.charAt( bFrom+i );
+                if ( c != 0 )
+                    return c;
+            }
+            return n1 - n2;
         }
     }
 
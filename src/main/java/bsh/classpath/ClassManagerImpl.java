@@ -70,12 +70,9 @@ import bsh.classpath.BshClassPath.JarClassSource;
 
     Note on jdk1.2 dependency:
 
-    We are forced to use weak references here to accommodate all of the
-    fleeting namespace listeners.  (NameSpaces must be informed if the class
-    space changes so that they can un-cache names).  I had the interesting
-    thought that a way around this would be to implement BeanShell's own
-    garbage collector...  Then I came to my senses and said - screw it,
-    class re-loading will require 1.2.
+    We use weak references for the class loader change listeners so that
+    they may fall out of scope.  NameSpaces no longer listen, they validate
+    their caches against the version stamp of the class manager instead.
 
     ---------------------
 
@@ -157,11 +154,13 @@ public class ClassManagerImpl extends BshClassManager
 
         // check negative cache
         if ( absoluteNonClasses.contains(name) ) {
-            Interpreter.debug("absoluteNonClass list hit: ", name);
+            if ( Interpreter.isDebug() )
+                Interpreter.debug("absoluteNonClass list hit: ", name);
             return null;
         }
 
-        Interpreter.debug("Trying to load class: ", name);
+        if ( Interpreter.isDebug() )
+            Interpreter.debug("Trying to load class: ", name);
 
         // Check explicitly mapped (reloaded) class...
         final ClassLoader overlayLoader = getLoaderForClass( name );
@@ -169,7 +168,8 @@ public class ClassManagerImpl extends BshClassManager
             try {
                 c = overlayLoader.loadClass(name);
             } catch ( Exception e ) {
-                Interpreter.debug("overlay loader failed for '", "' - ", e);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug("overlay loader failed for '", "' - ", e);
             }
             // Should be there since it was explicitly mapped
             // throw an error?
@@ -272,6 +272,17 @@ public class ClassManagerImpl extends BshClassManager
         return url;
     }
 
+    /**
+        The base loader unless an external loader is searched as well.
+    */
+    @Override
+    protected ClassLoader getResourceLoader()
+    {
+        if ( baseLoader == null )
+            return super.getResourceLoader();
+        return externalClassLoader == null ? baseLoader : null;
+    }
+
     /**
         Get a resource stream using the BeanShell classpath
         @param path should be an absolute path
@@ -320,7 +331,8 @@ public class ClassManagerImpl extends BshClassManager
         baseClassPath = new BshClassPath("baseClassPath");
         baseLoader = null;
         loaderMap = new HashMap();
-        classLoaderChanged(); // calls clearCaches() for us.
+        clearCaches();
+        classLoaderChanged();
     }
 
     /**
@@ -332,6 +344,7 @@ public class ClassManagerImpl extends BshClassManager
         baseClassPath.setPath( cp );
         initBaseLoader();
         loaderMap = new HashMap();
+        clearCaches();
         classLoaderChanged();
     }
 
@@ -484,21 +497,19 @@ public class ClassManagerImpl extends BshClassManager
     public void doSuperImport()
         throws UtilEvalError
     {
-        // Should we prevent it from happening twice?
-
+        // The class path is mapped and its name tables are built when the
+        // first unqualified name is looked up.
         try {
-            getClassPath().insureInitialized();
-            // prime the lookup table
-            getClassNameByUnqName( "" ) ;
-
-            // always true now
-            //getClassPath().setNameCompletionIncludeUnqNames(true);
-
+            getClassPath();
         } catch ( ClassPathException e ) {
             throw new UtilEvalError("Error importing classpath "+ e, e);
         }
 
-        superImport = true;
+        if ( !superImport ) {
+            superImport = true;
+            // unqualified names not found before may resolve now
+            classLoaderChanged();
+        }
     }
 
     @Override
@@ -522,7 +533,7 @@ public class ClassManagerImpl extends BshClassManager
         // clean up old listeners
         Reference deadref;
         while ( (deadref = refQueue.poll()) != null ) {
-            if ( !listeners.removeElement( deadref ) )
+            if ( !listeners.removeElement( deadref ) && Interpreter.isDebug() )
                 Interpreter.debug(
                     "tried to remove non-existent weak ref: ", deadref);
         }
@@ -564,15 +575,16 @@ public class ClassManagerImpl extends BshClassManager
     }
 
     /**
-        Clear global class cache and notify namespaces to clear their
-        class caches.
+        Advance the version stamp, which invalidates the class caches of
+        namespaces, and notify any registered listeners.
 
         The listener list is implemented with weak references so that we
-        will not keep every namespace in existence forever.
+        will not keep every listener in existence forever.
     */
     @Override
     protected void classLoaderChanged()
     {
+        super.classLoaderChanged();
         Vector toRemove = new Vector(); // safely remove
         for ( Enumeration e = listeners.elements(); e.hasMoreElements(); )
         {
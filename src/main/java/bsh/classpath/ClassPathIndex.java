@@ -0,0 +1,222 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+
+package bsh.classpath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+    On disk index of the classes in class path archives, which spares
+    reading through the archives on every start.  An index is kept per
+    component, keyed by its path and checked against the size and
+    modification time of the archive file, a changed archive is scanned
+    again.
+    <p>
+
+    The index directory is named by the system property bsh.classpath.index
+    and defaults to .bsh/classpath in the user home, an empty property
+    disables the index.  The index is a cache only, failing to read or
+    write it scans the archive as if there was none.
+    <p>
+
+    Note that indexing writes a file per archive to the index directory,
+    which outlives the process.  Archives under java.io.tmpdir are not
+    indexed as they rarely survive to be read again, and index files not
+    read for {@value #EXPIRE_DAYS} days are deleted whenever an index is
+    written.
+*/
+final class ClassPathIndex
+{
+    /** Format of the index files, 2 lists the names in table order. */
+    private static final int VERSION = 2;
+
+    /** Days after which an unused index file is deleted. */
+    static final int EXPIRE_DAYS = 30;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    /** Archives in this directory are not indexed, null for none. */
+    static volatile File temporary = temporaryDirectory();
+
+    /** The index directory or null if there is no index. */
+    static volatile File directory = defaultDirectory();
+
+    private ClassPathIndex() {}
+
+    /** Lists the classes of a class path component. */
+    interface Scanner
+    {
+        String [] scan() throws IOException;
+    }
+
+    private static File defaultDirectory() {
+        try {
+            String dir = System.getProperty( "bsh.classpath.index" );
+            if ( dir == null )
+                return new File( System.getProperty( "user.home" ),
+                    ".bsh" + File.separator + "classpath" );
+            return dir.isEmpty() ? null : new File( dir );
+        } catch ( SecurityException e ) {
+            return null;
+        }
+    }
+
+    private static File temporaryDirectory() {
+        try {
+            String dir = System.getProperty( "java.io.tmpdir" );
+            return dir == null ? null : new File( dir ).getCanonicalFile();
+        } catch ( IOException | SecurityException e ) {
+            return null;
+        }
+    }
+
+    /** Whether the file is in the temporary directory. */
+    private static boolean isTemporary( File file ) {
+        File tmp = temporary;
+        if ( tmp == null )
+            return false;
+        try {
+            return file.getCanonicalFile().toPath().startsWith( tmp.toPath() );
+        } catch ( IOException | SecurityException e ) {
+            return true;
+        }
+    }
+
+    /**
+        The classes of a class path component, read from the index if the
+        file of the component did not change since it was indexed.
+        @param key the component path
+        @param file the file whose size and modification time identify the
+        contents of the component, null to always scan
+        @param scanner lists the classes if they are not indexed
+        @return the class names
+    */
+    static String [] classes( String key, File file, Scanner scanner )
+        throws IOException
+    {
+        File dir = directory;
+        if ( dir == null || file == null || !file.isFile()
+                || isTemporary( file ) )
+            return scanner.scan();
+        long length = file.length(), modified = file.lastModified();
+        File index = new File( dir, UUID.nameUUIDFromBytes(
+            key.getBytes( StandardCharsets.UTF_8 ) ) + ".idx" );
+        String [] classes = read( index, key, length, modified );
+        if ( classes == null ) {
+            classes = scanner.scan();
+            write( index, key, length, modified, classes );
+            expire( dir );
+        }
+        return classes;
+    }
+
+    /**
+        Read an index.
+        @return the classes or null if there is no current index
+    */
+    private static String [] read( File index, String key,
+        long length, long modified )
+    {
+        if ( !index.isFile() )
+            return null;
+        try ( DataInputStream in = new DataInputStream(
+                new BufferedInputStream( new FileInputStream( index ) ) ) ) {
+            if ( in.readInt() != VERSION || !key.equals( in.readUTF() )
+                    || in.readLong() != length || in.readLong() != modified )
+                return null;
+            String [] classes = new String[ in.readInt() ];
+            for ( int i=0; i<classes.length; i++ )
+                classes[i] = in.readUTF();
+            // mark the index used, keeping it from expiring
+            long now = System.currentTimeMillis();
+            if ( now - index.lastModified() > DAY )
+                index.setLastModified( now );
+            return classes;
+        } catch ( IOException | RuntimeException e ) {
+            return null;
+        }
+    }
+
+    /**
+        Write an index, replacing the file only once it is complete so that
+        concurrent readers see either index.
+    */
+    private static void write( File index, String key,
+        long length, long modified, String [] classes )
+    {
+        Path tmp = null;
+        try {
+            Path dir = Files.createDirectories( index.toPath().getParent() );
+            tmp = Files.createTempFile( dir, "index", ".tmp" );
+            try ( DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream( Files.newOutputStream( tmp ) ) ) ) {
+                out.writeInt( VERSION );
+                out.writeUTF( key );
+                out.writeLong( length );
+                out.writeLong( modified );
+                out.writeInt( classes.length );
+                for ( String name : classes )
+                    out.writeUTF( name );
+            }
+            try {
+                Files.move( tmp, index.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE );
+            } catch ( AtomicMoveNotSupportedException e ) {
+                Files.move( tmp, index.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING );
+            }
+            tmp = null;
+        } catch ( IOException | RuntimeException e ) {
+            // no index, the component is scanned again next time
+        } finally {
+            if ( tmp != null )
+                tmp.toFile().delete();
+        }
+    }
+
+    /** Delete the index files which were not used for a while. */
+    private static void expire( File dir ) {
+        File [] files = dir.listFiles( (d, name) -> name.endsWith( ".idx" ) );
+        if ( files == null )
+            return;
+        long expired = System.currentTimeMillis() - EXPIRE_DAYS * DAY;
+        for ( File file : files )
+            if ( file.lastModified() < expired )
+                file.delete();
+    }
+}
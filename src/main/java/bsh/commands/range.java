@@ -0,0 +1,110 @@
+/*****************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one                *
+ * or more contributor license agreements.  See the NOTICE file              *
+ * distributed with this work for additional information                     *
+ * regarding copyright ownership.  The ASF licenses this file                *
+ * to you under the Apache License, Version 2.0 (the                         *
+ * "License"); you may not use this file except in compliance                *
+ * with the License.  You may obtain a copy of the License at                *
+ *                                                                           *
+ *     http://www.apache.org/licenses/LICENSE-2.0                            *
+ *                                                                           *
+ * Unless required by applicable law or agreed to in writing,                *
+ * software distributed under the License is distributed on an               *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY                    *
+ * KIND, either express or implied.  See the License for the                 *
+ * specific language governing permissions and limitations                   *
+ * under the License.                                                        *
+ *                                                                           *
+ *                                                                           *
+ * This file is part of the BeanShell Java Scripting distribution.           *
+ * Documentation and updates may be found at http://www.beanshell.org/       *
+ * Patrick Niemeyer (pat@pat.net)                                            *
+ * Author of Learning Java, O'Reilly & Associates                            *
+ *                                                                           *
+ *****************************************************************************/
+/**
+    A range of numbers from a value up to, but excluding, another value by
+    a step.  The range of ints is made for int arguments, of longs for long
+    arguments.  The numbers are computed as they are iterated, the enhanced
+    for statement takes them unboxed.
+    <p>
+
+    <pre>
+    for ( int i : range( 10 ) ) ...          // 0 to 9
+    for ( long n : range( 1L, 1L << 40, 1L << 20 ) ) ...
+    for ( int i : range( 10, 0, -2 ) ) ...   // 10, 8, 6, 4, 2
+    </pre>
+
+    @method Range range( int to )
+    @method Range range( int from, int to [, int step ] )
+    @method Range range( long from, long to [, long step ] )
+*/
+package bsh.commands;
+
+import bsh.CallStack;
+import bsh.Interpreter;
+import bsh.Range;
+
+public class range
+{
+    public static String usage() {
+        return "usage: range( int to )\n"
+            + "       range( int from, int to [, int step ] )\n"
+            + "       range( long from, long to [, long step ] )";
+    }
+
+    /**
+        Implement range( int to ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, int to )
+    {
+        return Range.of( 0, to, 1, false );
+    }
+
+    /**
+        Implement range( int from, int to ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, int from, int to )
+    {
+        return Range.of( from, to, 1, false );
+    }
+
+    /**
+        Implement range( int from, int to, int step ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, int from, int to, int step )
+    {
+        return Range.of( from, to, step, false );
+    }
+
+    /**
+        Implement range( long to ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, long to )
+    {
+        return Range.of( 0, to, 1, true );
+    }
+
+    /**
+        Implement range( long from, long to ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, long from, long to )
+    {
+        return Range.of( from, to, 1, true );
+    }
+
+    /**
+        Implement range( long from, long to, long step ) command.
+    */
+    public static Range invoke(
+        Interpreter env, CallStack callstack, long from, long to, long step )
+    {
+        return Range.of( from, to, step, true );
+    }
+}
@@ -66,8 +66,9 @@ public class BshCanvas extends JComponent {
             try {
                 ths.invokeMethod( "paint", new Object[] { g } );
             } catch(EvalError e) {
-                Interpreter.debug(
-                    "BshCanvas: method invocation error:", e);
+                if ( Interpreter.isDebug() )
+                    Interpreter.debug(
+                        "BshCanvas: method invocation error:", e);
             }
         }
     }
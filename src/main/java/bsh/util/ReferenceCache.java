@@ -1,4 +1,3 @@
-
 /** Copyright 2018 Nick nickl- Lombard
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -14,30 +13,42 @@
  * limitations under the License. */
 package bsh.util;
 
-import static java.util.Objects.requireNonNull;
-
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 
-/** Asynchronous reference cache with weak, soft and hard reference support.
+/** Reference cache with weak, soft and hard reference support.
  * Implementations supply values via the abstract create method, which is
- * called from a future asynchronously. Garbage collected references are
- * monitored and removed from the cache once cleared.
+ * called once per key even when threads ask for the key concurrently.
+ * Lookups of cached values allocate nothing. Garbage collected references
+ * are monitored by a reaper thread shared by all caches and are removed
+ * from the cache once cleared. A cache may be bounded, in which case the
+ * least recently used entries are evicted.
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of cached values */
 public abstract class ReferenceCache<K,V> {
-    private final ConcurrentMap<CacheReference<K>,
-                         Future<CacheReference<V>>> cache;
-    private final ReferenceFactory<K,V> keyFactory;
-    private final ReferenceFactory<K,V> valueFactory;
-    private final ReferenceFactory<K,V> lookupFactory;
-    private final ReferenceQueueMonitor<? super Object> queue;
+    /** Value of entries whose value was created null. */
+    private static final Object NONE = new Object();
+    /** Key of lookups, reused by the lookups of a thread. */
+    private static final ThreadLocal<Lookup> LOOKUP =
+        ThreadLocal.withInitial(Lookup::new);
+
+    /** Entries by cache key, the key or its reference. */
+    private final ConcurrentMap<CacheKey, Entry> cache;
+    private final Type keyType;
+    private final Type valueType;
+    private final int maximumSize;
+    /** Clock hand over the entries for evicting them, guarded by this. */
+    private Iterator<Entry> hand;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     /** Definition of reference types. */
     public static enum Type { Weak, Soft, Hard }
@@ -54,14 +65,25 @@ public abstract class ReferenceCache<K,V> {
      * @param valueType the type of value reference
      * @param initialSize initial cache size */
     public ReferenceCache(Type keyType, Type valueType, int initialSize) {
-        keyFactory = toFactory(keyType);
-        valueFactory = toFactory(valueType);
-        lookupFactory = new HardReferenceFactory();
+        this(keyType, valueType, initialSize, 0);
+    }
+
+    /** New cache of key type and value type references bounded in size.
+     * When more than maximum size entries are cached the least recently
+     * used entries are evicted.
+     * @param keyType the type of key reference
+     * @param valueType the type of value reference
+     * @param initialSize initial cache size
+     * @param maximumSize the maximum number of entries or 0 for unbounded */
+    public ReferenceCache(Type keyType, Type valueType, int initialSize,
+            int maximumSize) {
+        if (initialSize < 0 || maximumSize < 0)
+            throw new IllegalArgumentException("Illegal cache size: "
+                + initialSize + ", " + maximumSize);
+        this.keyType = keyType;
+        this.valueType = valueType;
+        this.maximumSize = maximumSize;
         cache = new ConcurrentHashMap<>(initialSize);
-        queue = new ReferenceQueueMonitor<>();
-        Thread t = new Thread(queue);
-        t.setDaemon(true);
-        t.start();
     }
 
     /** Implementations create a value to associated with the supplied key.
@@ -71,40 +93,33 @@ public abstract class ReferenceCache<K,V> {
 
     /** Get a value from the cache for associated with the supplied key.
      * New entries will be initialized if they don't exist or if they were
-     * cleared and will block to wait for a value to return.
-     * For asynchronous non blocking value creation use init.
+     * cleared and will block to wait for a value to return. Exceptions
+     * thrown by create are rethrown, and nothing is cached for the key.
      * @param key associated with cache value
      * @return value associated with the key */
     public V get(K key) {
         if (null == key)
             return null;
-        CacheReference<K> refKey = lookupFactory.createKey(key, queue);
-        if (cache.containsKey(refKey)) {
-            V value = dereferenceValue(cache.get(refKey));
-            if (null != value)
-                return value;
-            cache.remove(refKey);
+        Lookup lookup = LOOKUP.get();
+        Entry e = cache.get(lookup.of(key));
+        lookup.clear();
+        if (null != e) {
+            V v = dereference(e.value);
+            if (null != v) {
+                if (!e.used)
+                    e.used = true;
+                hits.increment();
+                return v;
+            }
         }
-        init(key);
-        return dereferenceValue(cache.get(refKey));
+        return load(key);
     }
 
-    /** Asynchronously initialize a new cache value to associate with key.
+    /** Initialize a new cache value to associate with key.
      * If key is null or key already exist will do nothing.
-     * Wraps the create method in a future task and starts a new process.
      * @param key associated with cache value */
     public void init(K key) {
-        if (null == key)
-            return;
-        CacheReference<K> refKey = keyFactory.createKey(key, queue);
-        if (cache.containsKey(refKey))
-            return;
-        FutureTask<CacheReference<V>> task = new FutureTask<>(()-> {
-            V created = requireNonNull(create(key));
-            return valueFactory.createValue(created, queue);
-        });
-        cache.put(refKey, task);
-        task.run();
+        get(key);
     }
 
     /** Remove cache entry associated with the given key.
@@ -113,232 +128,369 @@ public abstract class ReferenceCache<K,V> {
     public boolean remove(K key) {
         if (null == key)
             return false;
-        CacheReference<K> keyRef = lookupFactory.createKey(key, queue);
-        return CacheKey.class.cast(keyRef).removeCacheEntry();
+        return null != cache.remove(new Lookup().of(key));
     }
 
     /** Returns the number of cached entries in the cache.
      * @return the number of entries cached */
     public int size() { return cache.size(); }
 
-
     /** Clears the cache and removes all of the cached entries.
      * The cache will be empty after this call returns. */
-    public void clear() { cache.clear(); }
+    public synchronized void clear() {
+        cache.clear();
+        hand = null;
+    }
 
-    /** Create a reference factory of the given type.
-     * @param type type of reference factory
-     * @return a reference factory */
-    private final ReferenceFactory<K,V> toFactory(Type type) {
-        switch (type) {
-            case Hard : return new HardReferenceFactory();
-            case Weak : return new WeakReferenceFactory();
-            case Soft : return new SoftReferenceFactory();
-            default : return null;
+    /** The number of lookups which found a cached value.
+     * @return the hit count */
+    public long hitCount() { return hits.sum(); }
+
+    /** The number of lookups which created the value.
+     * @return the miss count */
+    public long missCount() { return misses.sum(); }
+
+    /** The number of entries evicted to keep the cache within its maximum
+     * size or removed after their key or value was garbage collected.
+     * @return the eviction count */
+    public long evictionCount() { return evictions.sum(); }
+
+    /** Find or create the value of a key which was not found cached.
+     * The entry of the key holds a pending creation while the value is
+     * created, threads asking for the key meanwhile wait for it.
+     * @param key associated with cache value
+     * @return the value, null if it was created null */
+    private V load(K key) {
+        final CacheKey ref = key(key);
+        final Pending<V> pending = new Pending<>();
+        Entry entry = new Entry(ref, pending);
+        for (;;) {
+            Entry other = cache.putIfAbsent(ref, entry);
+            if (null == other) {
+                if (maximumSize > 0 && cache.size() > maximumSize)
+                    evict(entry);
+                break;
+            }
+            Object value = other.value;
+            if (value instanceof Pending) {
+                @SuppressWarnings("unchecked")
+                Pending<V> creating = (Pending<V>) value;
+                /* a create asking for its own key gets an uncached value */
+                if (creating.owner == Thread.currentThread())
+                    return create(key);
+                if (creating.await())
+                    return creating.value;
+                /* the creation failed and was removed, try again */
+                continue;
+            }
+            V v = dereference(value);
+            if (null != v) {
+                hits.increment();
+                return v;
+            }
+            /* created null or cleared, create it again */
+            if (Entry.VALUE.compareAndSet(other, value, pending)) {
+                entry = other;
+                break;
+            }
         }
+        misses.increment();
+        final V created;
+        try {
+            created = create(key);
+        } catch (RuntimeException | Error e) {
+            cache.remove(entry.key, entry);
+            pending.fail();
+            throw e;
+        }
+        entry.value = null == created ? NONE
+            : reference(valueType, created, entry);
+        pending.complete(created);
+        return created;
     }
 
-    /** Dereference a referenced cache value to retrieve the value.
-     * @param refValue referenced value
-     * @return dereferenced value */
-    private V dereferenceValue(CacheReference<V> refValue) {
-        return refValue.get();
+    /** Evict the entries under the clock hand which were not used since
+     * the hand last passed, the others are marked unused.
+     * @param keep the new entry which is not evicted */
+    private synchronized void evict(Entry keep) {
+        for (int n = 2 * cache.size(); n > 0
+                && cache.size() > maximumSize; n--) {
+            if (null == hand || !hand.hasNext())
+                hand = cache.values().iterator();
+            if (!hand.hasNext())
+                return;
+            Entry e = hand.next();
+            if (e.used || e == keep || e.value instanceof Pending)
+                e.used = false;
+            else if (cache.remove(e.key, e))
+                evictions.increment();
+        }
     }
 
-    /** Retrieve a referenced value from a future and dereference it.
-     * @param futureValue a future value
-     * @return dereferenced value */
-    private V dereferenceValue(Future<CacheReference<V>> futureValue) {
-        try {
-            return dereferenceValue(futureValue.get());
-        } catch (final Throwable e) {
+    /** Remove the entry of a reference cleared by the garbage collector.
+     * @param ref the cleared key or value reference
+     * @param entry the entry of a value or null for a key */
+    private void reap(Object ref, Entry entry) {
+        boolean removed = null == entry
+            ? null != cache.remove(ref)
+            : entry.value == ref && cache.remove(entry.key, entry);
+        if (removed)
+            evictions.increment();
+    }
+
+    /** The value of an entry.
+     * @param value of the entry
+     * @return the value or null if pending, created null or cleared */
+    @SuppressWarnings("unchecked")
+    private V dereference(Object value) {
+        if (NONE == value || value instanceof Pending)
             return null;
+        return Type.Hard == valueType
+            ? (V) value : ((Reference<V>) value).get();
+    }
+
+    /** Create the cache key of a key.
+     * @param key to reference
+     * @return the cache key */
+    private CacheKey key(K key) {
+        switch (keyType) {
+            case Weak : return new WeakCacheReference<>(this, key, null);
+            case Soft : return new SoftCacheReference<>(this, key, null);
+            default : return new HardKey(key);
         }
     }
 
+    /** Create a value reference of the given type.
+     * @param type type of reference
+     * @param value to reference
+     * @param entry the entry of the value
+     * @return a reference or for hard references the value */
+    private Object reference(Type type, V value, Entry entry) {
+        switch (type) {
+            case Weak : return new WeakCacheReference<>(this, value, entry);
+            case Soft : return new SoftCacheReference<>(this, value, entry);
+            default : return value;
+        }
+    }
 
-    // Member classes
+    /** Whether a key equals the key of a cache key.
+     * @param key to compare
+     * @param other the cache key to compare with
+     * @return true if equal */
+    private static boolean matches(Object key, Object other) {
+        if (!(other instanceof CacheKey))
+            return false;
+        Object k = ((CacheKey) other).get();
+        return key == k || null != k && key.equals(k);
+    }
 
 
-    /** A generic type for all types of cache references.
-     * @param <T> the type of the value */
-    private interface CacheReference<T> {
-        /** Method to dereference the referenced value.
-         * @return the dereferenced value */
-        T get();
-    }
+    // Member classes
 
-    /** Defines a reference factory with create key and create value methods. */
-    private interface ReferenceFactory<K,V> {
-        /** Create a referenced cache key.
-         * @param key to reference
-         * @param queue associated reference queue
-         * @return cache key type reference */
-        CacheReference<K> createKey(K key, ReferenceQueue<? super K> queue);
-
-        /** Create a referenced cache value.
-         * @param value to reference
-         * @param queue associated reference queue
-         * @return cache value type reference */
-        CacheReference<V> createValue(V value, ReferenceQueue<? super V> queue);
+
+    /** A cache entry, the value of the cache map. */
+    private static final class Entry {
+        static final AtomicReferenceFieldUpdater<Entry, Object> VALUE =
+            AtomicReferenceFieldUpdater.newUpdater(
+                Entry.class, Object.class, "value");
+        final CacheKey key;
+        /** The value or its reference, a pending creation or none. */
+        volatile Object value;
+        /** Whether the entry was used since the clock hand passed. */
+        volatile boolean used;
+
+        Entry(CacheKey key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
     }
 
-    /** A generic type for all types of cache key references.
-     * Provides equality based on the hash code of the actual key without
-     * needing to dereference the referenced key. Also implements remove
-     * key from cache.
+    /** The creation of a value which other threads may wait for.
      * @param <T> the type of the value */
-    private abstract class CacheKey<T> implements CacheReference<T> {
-        private final int hashCode;
+    private static final class Pending<T> {
+        final Thread owner = Thread.currentThread();
+        T value;
+        private boolean done;
+        private boolean failed;
+
+        /** Wait for the creation to end.
+         * @return true if the value was created, false if create failed */
+        synchronized boolean await() {
+            boolean interrupted = false;
+            while (!done) try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            return !failed;
+        }
 
-        /** Create a new cache key and capture its hash code.
-         * @param key to provide equality for */
-        public CacheKey(T key) {
-            hashCode = key.hashCode();
+        /** Complete the creation, waking waiting threads.
+         * @param created the value */
+        synchronized void complete(T created) {
+            value = created;
+            done = true;
+            notifyAll();
         }
 
-        /** Provides dereference for the key.
-         * {@inheritDoc} */
-        abstract public T get();
+        /** End a failed creation, waking waiting threads. */
+        synchronized void fail() {
+            failed = true;
+            done = true;
+            notifyAll();
+        }
+    }
+
+    /** The key of a cache entry, the key or a reference of it.
+     * Cache keys capture the hash code of the key, and are equal if their
+     * keys are, once the key of a reference is cleared it only equals
+     * itself. */
+    private interface CacheKey {
+        /** The key.
+         * @return the key or null if its reference was cleared */
+        Object get();
+    }
+
+    /** Strongly referenced cache key. */
+    private static final class HardKey implements CacheKey {
+        private final Object key;
+        private final int hash;
 
-        /** Remove cache entry associated with this cache key.
-         * @return true if there was an entry to remove */
-        public boolean removeCacheEntry() {
-            return null != ReferenceCache.this.cache.remove(this);
+        HardKey(Object key) {
+            this.key = key;
+            this.hash = key.hashCode();
         }
 
-        /** Compares the captured hash code with object hash code for equality.
-         *  {@inheritDoc} */
         @Override
-        public boolean equals(final Object obj) {
-            return hashCode == obj.hashCode();
-        }
+        public Object get() { return key; }
 
-        /** Return the captured hash code for the referenced key.
-         * {@inheritDoc} */
         @Override
-        public int hashCode() { return hashCode; }
-    }
+        public int hashCode() { return hash; }
 
-    /** Hard or strongly referenced key and value factory implementation. */
-    private class HardReferenceFactory implements ReferenceFactory<K,V> {
-        /** Provides a cache key for an unreferenced key.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<K> createKey(
-                final K key, ReferenceQueue<? super K> queue) {
-            return new CacheKey<K>(key) {
-                @Override
-                public K get() { return key; }
-            };
+        public boolean equals(Object obj) {
+            return this == obj || matches(key, obj);
         }
+    }
+
+    /** Key of the lookups of a thread, which the cache map compares with the
+     * cache keys of the entries, it holds the key only during a lookup. */
+    private static final class Lookup {
+        private Object key;
+        private int hash;
+
+        /** Look up the given key.
+         * @param key to look up
+         * @return this lookup */
+        Lookup of(Object key) {
+            this.hash = key.hashCode();
+            this.key = key;
+            return this;
+        }
+
+        /** Release the key looked up, keeping it from being collected. */
+        void clear() {
+            this.key = null;
+        }
+
+        @Override
+        public int hashCode() { return hash; }
 
-        /** Provides a cache value for an unreferenced value.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<V> createValue(
-                final V value, ReferenceQueue<? super V> queue) {
-            return new CacheReference<V>() {
-                @Override
-                public V get() { return value; }
-            };
+        public boolean equals(Object obj) {
+            return matches(key, obj);
         }
     }
 
-    /** Weakly referenced key and value factory implementation. */
-    private class WeakReferenceFactory implements ReferenceFactory<K,V> {
-        /** Cache value implementation of a weak reference. */
-        private class WeakReferenceValue<T> extends WeakReference<T>
-                implements CacheReference<T> {
-            WeakReferenceValue(T value, ReferenceQueue<? super T> queue) {
-                super(value, queue);
-            }
+    /** Weak or soft key or value reference which is reaped once cleared. */
+    private interface CacheReference {
+        /** Remove the entry of the cleared reference from its cache. */
+        void reap();
+    }
+
+    /** Weak reference of a cache key or value. */
+    private static final class WeakCacheReference<T> extends WeakReference<T>
+            implements CacheKey, CacheReference {
+        private final ReferenceCache<?,?> cache;
+        private final int hash;
+        private final Entry entry;
+
+        WeakCacheReference(ReferenceCache<?,?> cache, T referent,
+                Entry entry) {
+            super(referent, Reaper.QUEUE);
+            this.cache = cache;
+            this.hash = null == entry ? referent.hashCode() : 0;
+            this.entry = entry;
         }
 
-        /** Provides a weakly referenced cache key.
-         * Key removes itself from the cache when cleared.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<K> createKey(
-                final K key, final ReferenceQueue<? super K> queue) {
-            return new CacheKey<K>(key) {
-                final Reference<K> ref = new WeakReference<K>(key, queue) {
-                    @Override
-                    public void clear() {
-                        removeCacheEntry();
-                        super.clear();
-                    }
-                };
-                @Override
-                public K get() { return ref.get(); }
-            };
-        }
+        public void reap() { cache.reap(this, entry); }
+
+        @Override
+        public int hashCode() { return hash; }
 
-        /** Provides a weakly referenced cache value.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<V> createValue(
-                V value, ReferenceQueue<? super V> queue) {
-            return new WeakReferenceValue<>(value, queue);
+        public boolean equals(Object obj) {
+            Object key = get();
+            return this == obj || null != key && matches(key, obj);
         }
     }
 
-    /** Softly referenced key and value factory implementation. */
-   private class SoftReferenceFactory implements ReferenceFactory<K,V> {
-       /** Cache value implementation of a soft reference. */
-        private class SoftReferenceValue<T> extends SoftReference<T>
-                implements CacheReference<T> {
-            SoftReferenceValue(T value, ReferenceQueue<? super T> queue) {
-                super(value, queue);
-            }
+    /** Soft reference of a cache key or value. */
+    private static final class SoftCacheReference<T> extends SoftReference<T>
+            implements CacheKey, CacheReference {
+        private final ReferenceCache<?,?> cache;
+        private final int hash;
+        private final Entry entry;
+
+        SoftCacheReference(ReferenceCache<?,?> cache, T referent,
+                Entry entry) {
+            super(referent, Reaper.QUEUE);
+            this.cache = cache;
+            this.hash = null == entry ? referent.hashCode() : 0;
+            this.entry = entry;
         }
 
-        /** Provides a softly referenced cache key.
-         * Key removes itself from the cache when cleared.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<K> createKey(
-                final K key, final ReferenceQueue<? super K> queue) {
-            return new CacheKey<K>(key) {
-                final Reference<K> ref = new SoftReference<K>(key, queue) {
-                    @Override
-                    public void clear() {
-                        removeCacheEntry();
-                        super.clear();
-                    }
-                };
-                @Override
-                public K get() { return ref.get(); }
-            };
-        }
+        public void reap() { cache.reap(this, entry); }
 
-        /** Provides a softly referenced cache value.
-         *  {@inheritDoc} */
         @Override
-        public CacheReference<V> createValue(
-                V value, ReferenceQueue<? super V> queue) {
-            return new SoftReferenceValue<>(value, queue);
+        public int hashCode() { return hash; }
+
+        @Override
+        public boolean equals(Object obj) {
+            Object key = get();
+            return this == obj || null != key && matches(key, obj);
         }
     }
 
-   /** Runnable monitor of the reference queue associated to all references.
-    * Registered reference objects are appended to this queue by the garbage
-    * collector after the appropriate reachability changes were detected.
-    * Ensures that all references are cleared and removed from the cache.
-    * @param <T> the type of the reference value */
-    private class ReferenceQueueMonitor<T> extends ReferenceQueue<T>
-            implements Runnable {
-        /** Uses the parent's remove method which is blocking until a cleared
+    /** Daemon thread shared by all caches which monitors the reference queue
+     * of all weak and soft references. Registered reference objects are
+     * appended to this queue by the garbage collector after the appropriate
+     * reachability changes were detected. Ensures that the entries of
+     * cleared references are removed from their cache. */
+    private static final class Reaper extends Thread {
+        static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+        static {
+            new Reaper().start();
+        }
+
+        private Reaper() {
+            super("ReferenceCache reaper");
+            setDaemon(true);
+        }
+
+        /** Uses the queue's remove method which is blocking until a cleared
          * reference is added to the queue.
-         * Calls the overwritten clear method of the associated reference which
-         * will remove the key from the cache.
          *  {@inheritDoc} */
         @Override
         public void run() {
             for (;;) try {
-                Reference<? extends T> ref = super.remove();
-                if (ref != null) ref.clear();
-            } catch (InterruptedException e) { /* ignore try again */ System.out.println(e+" ooops");}
+                ((CacheReference) QUEUE.remove()).reap();
+            } catch (InterruptedException e) { /* ignore try again */ }
         }
     }
 }
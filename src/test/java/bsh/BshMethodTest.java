@@ -70,4 +70,24 @@ public class BshMethodTest {
        Assert.assertEquals("Equal classes should have equal hashcodes",
              method2.hashCode(), method1.hashCode());
     }
+
+    /**
+     * Overload resolution follows methods declared after earlier lookups.
+     */
+    @Test
+    public void testGetMethod_redeclaredOverloads() throws Exception {
+       final Interpreter bsh = new Interpreter();
+       bsh.eval("f(Object o) { return 1; }");
+       Assert.assertEquals(1, bsh.eval("f(\"a\");"));
+       bsh.eval("f(String s) { return 2; }");
+       Assert.assertEquals(2, bsh.eval("f(\"a\");"));
+       Assert.assertEquals(1, bsh.eval("f(1);"));
+       bsh.eval("f(String s) { return 3; }");
+       Assert.assertEquals(3, bsh.eval("f(\"a\");"));
+       bsh.eval("f(int... i) { return i.length; }");
+       Assert.assertEquals(4, bsh.eval("f(1, 2, 3, 4);"));
+       Assert.assertEquals(0, bsh.eval("f();"));
+       Assert.assertNull(bsh.getNameSpace().getMethod("f",
+             new Class[] {String.class, String.class}));
+    }
 }
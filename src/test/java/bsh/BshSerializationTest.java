@@ -20,6 +20,7 @@
 
 package bsh;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -76,4 +77,20 @@ public class BshSerializationTest {
         originalInterpreter.close();
         deserInterpreter.close();
     }
+
+    /**
+     * Tests that typed primitive variables updated in place are serialized
+     * with their current value
+     * @throws Exception in case of failure
+     */
+    @Test
+    public void testUpdatedPrimitiveVariableSerialization() throws Exception {
+        final Interpreter originalInterpreter = new Interpreter();
+        originalInterpreter.eval("int i = 0; long l = 0; double d = 0;"
+            + "for (int k = 0; k < 10; k++) { i++; l += k; d += 0.5; }");
+        final Interpreter deserInterpreter = TestUtil.serDeser(originalInterpreter);
+        assertEquals("10 45 5.0", deserInterpreter.eval("i + \" \" + l + \" \" + d"));
+        originalInterpreter.close();
+        deserInterpreter.close();
+    }
 }
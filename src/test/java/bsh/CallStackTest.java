@@ -23,6 +23,8 @@ package bsh;
 import org.junit.Assert;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.containsString;
+
 public class CallStackTest {
 
     /**
@@ -37,4 +39,47 @@ public class CallStackTest {
         final CallStack stack = TestUtil.serDeser(new CallStack(nameSpace));
         Assert.assertEquals("test", stack.top().get("test", null));
     }
+
+    @Test
+    public void copy_is_a_snapshot_of_the_stack() throws Exception {
+        final NameSpace global = new NameSpace(null, new BshClassManager(), "global");
+        final NameSpace a = new NameSpace(global, "a"), b = new NameSpace(global, "b");
+        final CallStack stack = new CallStack(global);
+        stack.push(a);
+        final CallStack copy = stack.copy();
+        stack.swap(b);
+        stack.push(a);
+        stack.set(1, global);
+        Assert.assertEquals(2, copy.depth());
+        Assert.assertSame(a, copy.top());
+        Assert.assertSame(global, copy.get(1));
+        Assert.assertSame(NameSpace.JAVACODE, copy.get(2));
+        Assert.assertEquals(3, stack.depth());
+        Assert.assertSame(global, stack.get(1));
+        Assert.assertSame(global, stack.get(2));
+        Assert.assertSame(a, copy.pop());
+        Assert.assertSame(a, stack.top());
+    }
+
+    @Test
+    public void errors_keep_the_script_stack_where_they_occurred() throws Exception {
+        final Interpreter interpreter = new Interpreter();
+        interpreter.eval("inner() { return undefined.call(); }");
+        interpreter.eval("outer() { return inner(); }");
+        try {
+            interpreter.eval("outer();");
+            Assert.fail("expected evaluation error");
+        } catch (EvalError e) {
+            Assert.assertThat(e.getScriptStackTrace(), containsString("Called from method: inner"));
+            Assert.assertThat(e.getScriptStackTrace(), containsString("Called from method: outer"));
+        }
+        try {
+            interpreter.eval("thrower() { throw new IllegalStateException(\"x\"); } thrower();");
+            Assert.fail("expected target error");
+        } catch (TargetError e) {
+            Assert.assertThat(e.getScriptStackTrace(), containsString("Called from method: thrower"));
+            Assert.assertEquals(0, e.getStackTrace().length);
+            Assert.assertTrue(e.getTarget().getStackTrace().length > 0);
+        }
+    }
 }
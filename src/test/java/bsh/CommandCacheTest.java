@@ -0,0 +1,112 @@
+package bsh;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(FilteredTestRunner.class)
+public class CommandCacheTest {
+
+    private static BshMethod command(Interpreter interpreter, String name)
+            throws Exception {
+        return (BshMethod) interpreter.getNameSpace().getCommand(
+            name, new Class<?>[0], interpreter);
+    }
+
+    private static Interpreter interpreter(ClassLoader loader) throws Exception {
+        final Interpreter interpreter = new Interpreter();
+        interpreter.setClassLoader(loader);
+        interpreter.eval("importCommands(\"/cmds\");");
+        return interpreter;
+    }
+
+    private static void write(Path file, String text) throws Exception {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void interpreters_share_the_parsed_commands() throws Exception {
+        final Interpreter a = new Interpreter(), b = new Interpreter();
+        final BshMethod first = command(a, "object");
+        final BshMethod second = command(b, "object");
+        assertNotSame(first, second);
+        assertSame(first.methodBody, second.methodBody);
+        assertEquals(2, b.eval("o = object(); o.x = 2; o.x;"));
+    }
+
+    @Test
+    public void unknown_commands_are_not_found_again() throws Exception {
+        for (int i = 0; i < 2; i++) try {
+            new Interpreter().eval("noSuchCommand();");
+            fail("expected command not found");
+        } catch (EvalError e) {
+            assertThat(e.getMessage(), containsString("Command not found"));
+        }
+    }
+
+    @Test
+    public void changed_scripts_are_parsed_again() throws Exception {
+        final Path dir = Files.createTempDirectory("commands");
+        final Path cmds = Files.createDirectory(dir.resolve("cmds"));
+        final Path greet = cmds.resolve("greet.bsh");
+        final Path added = cmds.resolve("added.bsh");
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { dir.toUri().toURL() }, getClass().getClassLoader())) {
+            write(greet, "greet() { return \"hello\"; }");
+            assertEquals("hello", interpreter(loader).eval("greet();"));
+            assertSame(command(interpreter(loader), "greet").methodBody,
+                command(interpreter(loader), "greet").methodBody);
+            write(greet, "greet() { return \"good morning\"; }");
+            assertEquals("good morning", interpreter(loader).eval("greet();"));
+
+            final Interpreter interpreter = interpreter(loader);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    interpreter.eval("added();");
+                    fail("expected command not found");
+                } catch (EvalError e) {
+                    assertThat(e.getMessage(), containsString("Command not found"));
+                }
+                write(added, "added() { return 1; }");
+            }
+            interpreter.setClassLoader(loader);
+            assertEquals(1, interpreter.eval("added();"));
+        } finally {
+            for (Path file : new Path[] { greet, added, cmds, dir })
+                Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void script_errors_name_the_script() throws Exception {
+        final Path dir = Files.createTempDirectory("commands");
+        final Path cmds = Files.createDirectory(dir.resolve("cmds"));
+        final Path broken = cmds.resolve("broken.bsh");
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { dir.toUri().toURL() }, getClass().getClassLoader())) {
+            write(broken, "broken() { return 1 }");
+            for (int i = 0; i < 2; i++) try {
+                interpreter(loader).eval("broken();");
+                fail("expected parse error");
+            } catch (EvalError e) {
+                assertThat(e.getMessage(), containsString("Error loading script"));
+                assertThat(e.getMessage(), containsString("/cmds/broken.bsh"));
+            }
+        } finally {
+            for (Path file : new Path[] { broken, cmds, dir })
+                Files.deleteIfExists(file);
+        }
+    }
+}
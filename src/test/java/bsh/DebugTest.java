@@ -0,0 +1,219 @@
+package bsh;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(FilteredTestRunner.class)
+public class DebugTest {
+
+    private static final String SCRIPT =
+        "m(int n) { return Math.abs(n) + new StringBuilder(\"x\").length(); }"
+        + "t = 0; for (int i = 0; i < 200; i++) t += m(-i); t;";
+
+    /** The bytes allocated by the current thread or -1 if not measurable. */
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        final com.sun.management.ThreadMXBean sun =
+            (com.sun.management.ThreadMXBean) bean;
+        if (!sun.isThreadAllocatedMemorySupported()
+                || !sun.isThreadAllocatedMemoryEnabled())
+            return -1;
+        return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void debug_is_switched_per_thread() throws Exception {
+        final AtomicBoolean other = new AtomicBoolean(true);
+        try {
+            Interpreter.DEBUG.set(true);
+            assertTrue(Interpreter.isDebug());
+            final Thread thread = new Thread(() -> other.set(Interpreter.isDebug()));
+            thread.start();
+            thread.join();
+            assertFalse(other.get());
+        } finally {
+            Interpreter.DEBUG.set(false);
+        }
+        assertFalse(Interpreter.isDebug());
+        Interpreter.DEBUG.remove();
+        assertFalse(Interpreter.isDebug());
+    }
+
+    @Test
+    public void debug_on_logs_the_evaluation() throws Exception {
+        final ByteArrayOutputStream off = new ByteArrayOutputStream();
+        final ByteArrayOutputStream on = new ByteArrayOutputStream();
+        try (Interpreter bsh = new Interpreter(new StringReader(""),
+                System.out, new PrintStream(off), false)) {
+            bsh.eval(SCRIPT);
+        }
+        assertEquals(0, off.size());
+        try (Interpreter bsh = new Interpreter(new StringReader(""),
+                System.out, new PrintStream(on), false)) {
+            Interpreter.DEBUG.set(true);
+            bsh.eval(SCRIPT);
+        } finally {
+            Interpreter.DEBUG.set(false);
+        }
+        assertThat(on.toString(), containsString("// Debug: invokeLocalMethod: m"));
+        assertThat(on.toString(), containsString("// Debug: Invoking method (entry): "));
+    }
+
+    /** Counts the messages built with it. */
+    public static class Probe {
+        int printed;
+
+        @Override
+        public String toString() {
+            printed++;
+            return "probe";
+        }
+    }
+
+    @Test
+    public void debug_off_builds_no_messages() throws Exception {
+        final Probe probe = new Probe();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try (Interpreter bsh = new Interpreter(new StringReader(""),
+                System.out, new PrintStream(err), false)) {
+            bsh.set("probe", probe);
+            final String script = "l = new ArrayList(); l.add(probe); l.size();";
+            // debugging on another thread takes the logging guards past
+            // the global check, this thread still has debug off
+            final CountDownLatch on = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            final Thread thread = new Thread(() -> {
+                Interpreter.DEBUG.set(true);
+                on.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    Interpreter.DEBUG.set(false);
+                }
+            });
+            thread.start();
+            try {
+                on.await();
+                assertFalse(Interpreter.isDebug());
+                bsh.eval(script);
+            } finally {
+                done.countDown();
+                thread.join();
+            }
+            assertEquals(0, probe.printed);
+            assertEquals(0, err.size());
+            try {
+                Interpreter.DEBUG.set(true);
+                bsh.eval(script);
+            } finally {
+                Interpreter.DEBUG.set(false);
+            }
+            assertThat(probe.printed, greaterThan(0));
+        }
+    }
+
+    @Test
+    public void threads_dying_with_debug_on_are_released() throws Exception {
+        final Thread thread = new Thread(() -> Interpreter.DEBUG.set(true));
+        thread.start();
+        thread.join();
+        assertFalse(Interpreter.isDebug());
+        assertThat(Arrays.asList(Interpreter.debugging), not(hasItem(thread)));
+    }
+
+    /** Evaluations of a script with debug off, reports the bytes allocated
+     * per evaluation while another thread has debug on. */
+    @Test
+    @Category(Benchmark.class)
+    public void debug_off_allocation_benchmark() throws Exception {
+        assumeTrue(allocatedBytes() >= 0);
+        try (Interpreter bsh = new Interpreter(new StringReader(""),
+                System.out, new PrintStream(new ByteArrayOutputStream()), false)) {
+            for (int i = 0; i < 300; i++)
+                bsh.eval(SCRIPT);
+            final long baseline = allocatedPerEval(bsh);
+            final CountDownLatch on = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            final Thread thread = new Thread(() -> {
+                Interpreter.DEBUG.set(true);
+                on.countDown();
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    Interpreter.DEBUG.set(false);
+                }
+            });
+            thread.start();
+            final long allocated;
+            try {
+                on.await();
+                allocated = allocatedPerEval(bsh);
+            } finally {
+                done.countDown();
+                thread.join();
+            }
+            System.out.println("debug off: " + baseline
+                + " bytes per evaluation, with debug on elsewhere: "
+                + allocated + " bytes per evaluation");
+        }
+    }
+
+    /** The least bytes allocated per evaluation of the script over a few
+     * rounds of evaluations. */
+    private static long allocatedPerEval(Interpreter bsh) throws EvalError {
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            final long start = allocatedBytes();
+            for (int i = 0; i < 20; i++)
+                bsh.eval(SCRIPT);
+            least = Math.min(least, (allocatedBytes() - start) / 20);
+        }
+        return least;
+    }
+
+    @Test
+    public void trace_mode_reports_statements_to_the_listener() throws Exception {
+        final List<String> statements = new ArrayList<>();
+        final Interpreter interpreter = new Interpreter();
+        interpreter.setTraceListener((file, line, text) ->
+            statements.add(file + ":" + line + ":" + text.trim()));
+        final boolean trace = Interpreter.TRACE;
+        try {
+            Interpreter.TRACE = true;
+            interpreter.eval("x = 1;\ny = x + 1;");
+        } finally {
+            Interpreter.TRACE = trace;
+        }
+        assertEquals(2, statements.size());
+        assertThat(statements.get(0), containsString(":1:x = 1"));
+        assertThat(statements.get(1), containsString(":2:y = x + 1"));
+    }
+}
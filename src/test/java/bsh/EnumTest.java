@@ -8,6 +8,7 @@ import static bsh.TestUtil.eval;
 import static bsh.TestUtil.script;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.arrayContaining;
@@ -266,6 +267,26 @@ public class EnumTest {
         }
     }
 
+    @Test
+    public void enum_switch_labels_name_constants() throws Exception {
+        try (final Interpreter bsh = new Interpreter()) {
+            bsh.eval(script(
+                "enum Name { VAL1, VAL2 }",
+                "VAL1 = Name.VAL2;",
+                "switch (Name.VAL1) {",
+                    "case VAL1:",
+                        "r = 'val1';",
+                        "break;",
+                    "case VAL2:",
+                        "r = 'val2';",
+                        "break;",
+                "}"
+            ));
+            assertThat("val1 switched", bsh.eval("r;"), equalTo("val1"));
+            assertThat("constants not imported", bsh.eval("VAL2;"), nullValue());
+        }
+    }
+
     @Test
     public void enum_args_constructor_required() throws Exception {
         thrown.expect(EvalError.class);
@@ -105,6 +105,36 @@ public class InterpreterConcurrencyTest {
     }
 
 
+    @Test
+    public void multi_threaded_sealed_namespace() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Interpreter global = new Interpreter();
+        global.eval(script(
+                "final int OFFSET = 1000;",
+                "int offset(v) {",
+                "   return v + OFFSET;",
+                "}"
+            ));
+        final NameSpace sealed = global.getNameSpace().seal();
+        final Runnable runnable = new Runnable() {
+            public void run() {
+                final int value = counter.incrementAndGet();
+                try (final Interpreter child = new Interpreter(
+                        new java.io.StringReader(""), System.out, System.err,
+                        false, new NameSpace(sealed, "child"))) {
+                    child.set("value", value);
+                    assertEquals(value + 1000, child.eval("offset(value);"));
+                    assertEquals("a", child.eval("dirname(\"a/b\");"));
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        measureConcurrentTime(runnable, 30, 30, 100);
+        global.close();
+    }
+
+
     private This createCallable() throws Exception {
         try (final Interpreter interpreter = new Interpreter()) {
             return (This) interpreter.eval(script);
@@ -230,4 +230,24 @@ public class InterpreterTest {
         }
      }
 
+    @Test
+    public void fork_interpreter_isolates_global_namespace() throws Exception {
+        try (Interpreter bsh = new Interpreter()) {
+            bsh.eval("import java.util.concurrent.*; int count = 1; "
+                + "int next() { return ++count; }");
+            Interpreter fork = bsh.fork();
+            assertTrue(fork.getClassManager() == bsh.getClassManager());
+            assertEquals(2, fork.eval("next();"));
+            assertEquals(3, fork.eval("next();"));
+            assertEquals(1, bsh.eval("count;"));
+            fork.eval("import javax.swing.*; int other = 5; "
+                + "String name() { return \"fork\"; }");
+            assertEquals(java.util.concurrent.TimeUnit.class, fork.eval("TimeUnit.class;"));
+            assertEquals(Primitive.VOID, bsh.getNameSpace().getVariable("other"));
+            assertNull(bsh.getNameSpace().getMethod("name", new Class[0]));
+            assertEquals(2, bsh.eval("next();"));
+            assertEquals(3, fork.eval("count;"));
+        }
+    }
+
 }
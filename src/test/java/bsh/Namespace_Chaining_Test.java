@@ -23,11 +23,17 @@ package bsh;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.awt.GridBagConstraints;
+import java.awt.geom.Rectangle2D;
 import java.io.StringReader;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * <a href="http://code.google.com/p/beanshell2/issues/detail?id=74">Namespace chaining issue</a>
@@ -96,12 +102,225 @@ public class Namespace_Chaining_Test {
         child2.close();
     }
 
+    @Test
+    public void sealed_namespace_shared_by_children() throws Exception {
+        Interpreter root = new Interpreter();
+        root.eval("int bar=42; int foo() { return bar; }");
+        assertFalse(root.getNameSpace().isSealed());
+        root.getNameSpace().seal();
+        assertTrue(root.getNameSpace().isSealed());
+
+        Interpreter child = new Interpreter(new StringReader(""), System.out, System.err, false, new NameSpace(root.getNameSpace(), "child"));
+        assertEquals(42, child.eval("foo();"));
+        child.eval("baz = bar + 1;");
+        assertEquals(43, child.eval("baz;"));
+        assertEquals(Primitive.VOID, root.getNameSpace().getVariable("baz"));
+        // commands are loaded on demand into the sealed namespace
+        assertEquals("a", child.eval("dirname(\"a/b\");"));
+        assertEquals("c", child.eval("dirname(\"c/d\");"));
+
+        root.close();
+        child.close();
+    }
+
+    @Test
+    public void sealed_namespace_rejects_mutation() throws Exception {
+        Interpreter root = new Interpreter();
+        root.eval("int bar=42;");
+        NameSpace sealed = root.getNameSpace().seal();
+        Interpreter child = new Interpreter(new StringReader(""), System.out, System.err, false, new NameSpace(sealed, "child"));
+
+        try {
+            child.eval("bar = 1;");
+            fail("assigned variable of sealed namespace");
+        } catch (EvalError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sealed"));
+        }
+        try {
+            root.eval("int foo = 1;");
+            fail("declared variable in sealed namespace");
+        } catch (EvalError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sealed"));
+        }
+        try {
+            sealed.setVariable("foo", 1, false);
+            fail("set variable in sealed namespace");
+        } catch (UtilEvalError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sealed"));
+        }
+        try {
+            sealed.importPackage("java.awt");
+            fail("imported package into sealed namespace");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sealed"));
+        }
+        try {
+            root.eval("void foo() {}");
+            fail("declared method in sealed namespace");
+        } catch (EvalError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("sealed"));
+        }
+        assertEquals(42, root.eval("bar;"));
+        final NameSpace copy = sealed.copy();
+        assertFalse(copy.isSealed());
+        copy.setVariable("bar", 1, false);
+        assertEquals(1, Primitive.unwrap(copy.getVariable("bar")));
+        assertEquals(42, root.eval("bar;"));
+
+        root.close();
+        child.close();
+    }
+
+    @Test
+    public void forked_namespace_copy_on_write() throws Exception {
+        final NameSpace root = new NameSpace(null, "root");
+        final NameSpace origin = new NameSpace(root, "origin");
+        origin.setLocalVariable("bar", 42, false);
+        final NameSpace fork = origin.fork();
+        assertTrue(fork.getParent() == root);
+        assertEquals(42, fork.getVariable("bar"));
+
+        fork.setVariable("bar", 4711, false);
+        fork.setLocalVariable("baz", 1, false);
+        assertEquals(4711, fork.getVariable("bar"));
+        assertEquals(42, origin.getVariable("bar"));
+        assertEquals(Primitive.VOID, origin.getVariable("baz"));
+
+        origin.setVariable("bar", 5, false);
+        assertEquals(4711, fork.getVariable("bar"));
+        origin.unsetVariable("bar");
+        assertEquals(4711, fork.getVariable("bar"));
+
+        fork.importClass("java.awt.List");
+        assertTrue(fork.getClass("List") == java.awt.List.class);
+        assertTrue(origin.getClass("List") == java.util.List.class);
+    }
+
+    @Test
+    public void forked_sealed_namespace() throws Exception {
+        Interpreter root = new Interpreter();
+        root.eval("int bar=42; int foo() { return bar; }");
+        final NameSpace sealed = root.getNameSpace().seal();
+        Interpreter fork = new Interpreter(new StringReader(""), System.out, System.err, false, sealed.fork());
+        assertFalse(fork.getNameSpace().isSealed());
+        fork.eval("bar = 4711;");
+        assertEquals(4711, fork.eval("foo();"));
+        assertEquals(42, root.eval("foo();"));
+        root.close();
+        fork.close();
+    }
+
+    @Test
+    public void namespace_versions_invalidate_caches() throws Exception {
+        final NameSpace ns = new NameSpace(null, "root");
+        final long version = ns.getVersion();
+        assertTrue(ns.getClass("List") == java.util.List.class);
+        ns.importClass("java.awt.List");
+        assertTrue(ns.getVersion() > version);
+        assertTrue(ns.getClass("List") == java.awt.List.class);
+
+        final BshClassManager bcm = ns.getClassManager();
+        final long classVersion = bcm.getVersion();
+        bcm.setClassLoader(getClass().getClassLoader());
+        assertTrue(bcm.getVersion() > classVersion);
+        assertTrue(ns.getClass("List") == java.awt.List.class);
+    }
+
+    @Test
+    public void negative_class_cache_invalidated_by_class_loader() throws Exception {
+        final int[] probes = new int[1];
+        final NameSpace ns = new NameSpace(null, "root");
+        final BshClassManager bcm = ns.getClassManager();
+        bcm.setClassLoader(new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.endsWith("NoSuchClass"))
+                    probes[0]++;
+                return super.loadClass(name, resolve);
+            }
+        });
+        assertNull(ns.getClass("NoSuchClass"));
+        final int firstProbes = probes[0];
+        assertTrue(firstProbes > 0);
+        for (int i = 0; i < 100; i++)
+            assertNull(ns.getClass("NoSuchClass"));
+        assertEquals(firstProbes, probes[0]);
+
+        bcm.setClassLoader(new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals("NoSuchClass"))
+                    return String.class;
+                return super.loadClass(name, resolve);
+            }
+        });
+        assertTrue(ns.getClass("NoSuchClass") == String.class);
+    }
+
+    @Test
+    public void name_resolution_plans_follow_changes() throws Exception {
+        final Interpreter bsh = new Interpreter();
+        bsh.eval("import java.awt.GridBagConstraints;");
+        bsh.eval("both() { return GridBagConstraints.BOTH; }");
+        bsh.eval("out() { return Rectangle2D.OUT_TOP; }");
+        bsh.eval("x(o) { return o.x; }");
+        bsh.eval("mk() { BOTH = 42; return this; }");
+        assertEquals(GridBagConstraints.BOTH, bsh.eval("both();"));
+        assertEquals(GridBagConstraints.BOTH, bsh.eval("both();"));
+        // variables still take precedence over a planned class name
+        bsh.eval("GridBagConstraints = mk();");
+        assertEquals(42, bsh.eval("both();"));
+        bsh.eval("unset(\"GridBagConstraints\");");
+        assertEquals(GridBagConstraints.BOTH, bsh.eval("both();"));
+        // imports are followed
+        try {
+            bsh.eval("out();");
+            fail("Rectangle2D is not imported");
+        } catch (EvalError e) {
+            assertThat(e.getMessage(), containsString("Rectangle2D"));
+        }
+        bsh.eval("import java.awt.geom.*;");
+        assertEquals(Rectangle2D.OUT_TOP, bsh.eval("out();"));
+        // member steps are guarded by type
+        assertEquals(3, bsh.eval("x(new java.awt.Point(3, 4));"));
+        assertEquals(5, bsh.eval("x(Collections.singletonMap(\"x\", 5));"));
+        assertEquals(6, bsh.eval("x(new java.awt.Point(6, 4));"));
+    }
+
+    @Test
+    public void imported_members_follow_imports() throws Exception {
+        final Interpreter bsh = new Interpreter();
+        final NameSpace ns = bsh.getNameSpace();
+        assertNull(ns.getMethod("getX", new Class<?>[0]));
+        ns.importObject(new java.awt.Point(1, 2));
+        assertEquals(1.0, bsh.eval("getX();"));
+        assertEquals(1.0, bsh.eval("getX();"));
+        ns.importObject(new java.awt.Point(5, 6));
+        assertEquals(5.0, bsh.eval("getX();"));
+        try {
+            bsh.eval("abs(-2);");
+            fail("Math is not imported");
+        } catch (EvalError e) {
+            assertThat(e.getMessage(), containsString("abs"));
+        }
+        ns.importStatic(Math.class);
+        ns.importStatic(Math.class);
+        assertEquals(2, bsh.eval("abs(-2);"));
+        assertEquals(Math.PI, bsh.eval("PI;"));
+    }
+
     @Test
     public void check_ExternalNameSpace() throws Exception {
         final ExternalNameSpace externalNameSpace = new ExternalNameSpace();
         externalNameSpace.setVariable("a", Primitive.NULL, false);
         assertTrue("map should contain variable 'a'", externalNameSpace.getMap().containsKey("a"));
         assertNull("variable 'a' should have value <NULL>", externalNameSpace.getMap().get("a"));
+        try {
+            externalNameSpace.seal();
+            fail("expected external namespace not to seal");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("Cannot seal external map namespace"));
+        }
     }
 
 }
@@ -0,0 +1,71 @@
+package bsh;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(FilteredTestRunner.class)
+public class OptimizerTest {
+
+    private static Object optimizedEval(String script) throws Exception {
+        final Interpreter interpreter = new Interpreter();
+        interpreter.setOptimize(true);
+        return interpreter.eval(script);
+    }
+
+    private static SimpleNode optimize(String statement) throws Exception {
+        final Parser parser = new Parser(new StringReader(statement));
+        parser.Line();
+        final Interpreter interpreter = new Interpreter();
+        return Optimizer.optimize(parser.popNode(),
+            new CallStack(interpreter.getNameSpace()), interpreter);
+    }
+
+    @Test
+    public void constant_expressions_are_folded() throws Exception {
+        final SimpleNode node = optimize("x = 60 * 60 * 24;");
+        final Node rhs = node.jjtGetChild(1).jjtGetChild(0);
+        assertThat(rhs.jjtGetChild(0), instanceOf(BSHLiteral.class));
+        assertEquals(new Primitive(86400), ((BSHLiteral) rhs.jjtGetChild(0)).value);
+        assertEquals(Boolean.TRUE,
+            optimizedEval("return \"prefix\" + \"-\" + \"x\" == \"prefix-x\";"));
+    }
+
+    @Test
+    public void final_constants_are_propagated() throws Exception {
+        assertEquals(Boolean.TRUE, optimizedEval(
+            "{ final String P = \"a\"; final long L = 2; P + L == \"a2\"; }"));
+        assertEquals(9, optimizedEval(
+            "{ final int X = 5; foo(int X) { return X; } foo(9); }"));
+        assertEquals(3, optimizedEval(
+            "{ final int X = 5; class A { int X = 3; int f() { return X; } } new A().f(); }"));
+    }
+
+    @Test
+    public void dead_branches_are_eliminated() throws Exception {
+        final SimpleNode block = optimize(
+            "{ final boolean DEBUG = false; if (DEBUG) print(1); if (!DEBUG) x = 1; else x = 2; x; }");
+        assertEquals(3, block.jjtGetNumChildren());
+        assertThat(block.jjtGetChild(1), instanceOf(BSHAssignment.class));
+        assertEquals(1, optimizedEval(
+            "{ final boolean DEBUG = false; if (DEBUG) undefined(); if (!DEBUG) x = 1; x; }"));
+    }
+
+    @Test
+    public void failing_expressions_fail_when_evaluated() throws Exception {
+        final SimpleNode node = optimize("x = 1 / 0;");
+        assertThat(node.jjtGetChild(1).jjtGetChild(0), instanceOf(BSHBinaryExpression.class));
+        try {
+            optimizedEval("x = 1 / 0;");
+            fail("expected division by zero");
+        } catch (TargetError e) {
+            assertThat(e.getTarget(), instanceOf(ArithmeticException.class));
+        }
+    }
+}
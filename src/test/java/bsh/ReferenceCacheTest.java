@@ -8,13 +8,21 @@ import bsh.util.ReferenceCache;
 import static bsh.util.ReferenceCache.Type.Hard;
 import static bsh.util.ReferenceCache.Type.Soft;
 import static bsh.util.ReferenceCache.Type.Weak;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Rule;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 @RunWith(FilteredTestRunner.class)
 public class ReferenceCacheTest {
@@ -110,5 +118,107 @@ public class ReferenceCacheTest {
         assertThat(cache.size(), equalTo(0));
         System.gc();
     }
-}
 
+    @Test
+    public void keys_with_equal_hash_codes_are_distinct() throws Exception {
+        ReferenceCache<String,String> cache = new ReferenceCache<String,String>(Weak, Hard){
+            protected String create(String key) { return key + "!"; }};
+
+        assertThat("Aa".hashCode(), equalTo("BB".hashCode()));
+        assertThat(cache.get("Aa"), equalTo("Aa!"));
+        assertThat(cache.get("BB"), equalTo("BB!"));
+        assertThat(cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void collected_weak_keys_are_removed() throws Exception {
+        ReferenceCache<Object,String> cache = new ReferenceCache<Object,String>(Weak, Hard){
+            protected String create(Object key) { return "bar"; }};
+        for (int i = 0; i < 100; i++)
+            cache.init(new Object());
+        Object kept = new Object();
+        cache.init(kept);
+
+        for (int i = 0; i < 100 && cache.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.get(kept), equalTo("bar"));
+        assertThat(cache.evictionCount(), equalTo(100L));
+    }
+
+    @Test
+    public void values_are_created_once_per_key() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ReferenceCache<String,String> cache = new ReferenceCache<String,String>(Hard, Hard){
+            protected String create(String key) {
+                created.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) { /* ignore */ }
+                return key + "!";
+            }};
+        List<Thread> threads = new ArrayList<>();
+        List<String> values = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 4; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) { /* ignore */ }
+                values.add(cache.get("foo"));
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+
+        assertThat(created.get(), equalTo(1));
+        assertThat(values, contains("foo!", "foo!", "foo!", "foo!"));
+        assertThat(cache.missCount(), equalTo(1L));
+    }
+
+    @Test
+    public void bounded_cache_evicts_least_recently_used() throws Exception {
+        ReferenceCache<String,String> cache = new ReferenceCache<String,String>(Hard, Hard, 0, 2){
+            protected String create(String key) { return key + "!"; }};
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");
+        cache.get("c");
+
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.evictionCount(), equalTo(1L));
+        assertThat(cache.hitCount(), equalTo(1L));
+        assertThat(cache.missCount(), equalTo(3L));
+        cache.get("a");
+        cache.get("c");
+        assertThat(cache.hitCount(), equalTo(3L));
+        cache.get("b");
+        assertThat(cache.missCount(), equalTo(4L));
+    }
+
+    @Test
+    public void failing_create_is_rethrown_and_not_cached() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        ReferenceCache<String,String> cache = new ReferenceCache<String,String>(Weak, Soft){
+            protected String create(String key) {
+                if (created.incrementAndGet() == 1)
+                    throw new IllegalStateException("failed " + key);
+                return key + "!";
+            }};
+        try {
+            cache.get("foo");
+            fail("expected create to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("failed foo"));
+        }
+        assertThat(cache.size(), equalTo(0));
+        assertThat(cache.get("foo"), equalTo("foo!"));
+        assertThat(cache.size(), equalTo(1));
+        assertThat(created.get(), equalTo(2));
+    }
+}
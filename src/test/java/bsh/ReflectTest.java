@@ -7,14 +7,17 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -537,4 +540,78 @@ public class ReflectTest {
         });
         assertEquals("most specific char[] class", 1, value);
     }
+
+    public static class Bean {
+        private static String label = "static";
+        private int count;
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+        public boolean isEmpty() { return count == 0; }
+        public int getBroken() { throw new IllegalStateException("broken"); }
+        public static String getLabel() { return label; }
+    }
+
+    @Test
+    public void property_accessors_read_and_write() throws Exception {
+        assertEquals("true,3,5,false,static", eval(
+            "import bsh.ReflectTest.Bean;",
+            "b = new Bean();",
+            "e = b.empty;",
+            "b.count = 3;",
+            "c = b.count;",
+            "Bean[] bs = { b };",
+            "bs[0]{\"count\"} = 5L;",
+            "return e + \",\" + c + \",\" + bs[0].count + \",\" + b.empty"
+                + " + \",\" + Bean.class{\"label\"};"
+        ));
+    }
+
+    @Test
+    public void property_accessor_exceptions_are_reported() throws Exception {
+        try {
+            eval("b = new bsh.ReflectTest.Bean();", "b.broken;");
+            fail("expected getter exception");
+        } catch (EvalError e) {
+            assertThat(e.getMessage(), containsString("broken"));
+        }
+    }
+
+    @Test
+    public void map_and_list_index_access() throws Exception {
+        assertEquals("1,null,2,1", eval(
+            "m = new HashMap(); m.put(\"a\", 1); m.put(\"n\", null);",
+            "l = new ArrayList(); l.add(1); l.add(2);",
+            "s = m{\"a\"} + \",\" + m{\"n\"};",
+            "s += \",\" + l[-1];",
+            "l[-1] = 1;",
+            "return s + \",\" + l[1];"
+        ));
+    }
+
+    public interface Labelled {
+        String LABEL = "labelled";
+        String getName();
+    }
+
+    public static class Base implements Labelled {
+        public String getName() { return "base"; }
+    }
+
+    public static class Derived extends Base {
+        public boolean isReady() { return true; }
+    }
+
+    @Test
+    public void member_cache_resolves_inherited_members_by_name() {
+        final BshClassManager.MemberCache members =
+            BshClassManager.memberCache.get(Derived.class);
+        assertFalse(members.hasMember("undefined"));
+        assertNull(members.findGetter("undefined"));
+        assertTrue(members.hasField("LABEL"));
+        assertEquals(Labelled.class, members.findField("LABEL").getDeclaringClass());
+        assertSame(BshClassManager.memberCache.get(Base.class)
+            .findMethod("getName"), members.findGetter("name"));
+        assertSame(members.findMethod("isReady"), members.findGetter("ready"));
+        assertEquals(2, members.memberCount("getName"));
+    }
 }
@@ -0,0 +1,97 @@
+package bsh;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(FilteredTestRunner.class)
+public class SpecializationTest {
+
+    public static class Holder {
+        private int secret = 7;
+    }
+
+    @Test
+    public void field_reads_follow_the_receiver_class() throws Exception {
+        final Interpreter interpreter = new Interpreter();
+        interpreter.set("items", new Object[] {
+            new Point(1, 2), new Point(3, 4), new Rectangle(5, 6, 7, 8),
+            new java.util.HashMap<String, Integer>() {{ put("x", 9); }},
+            new Point(10, 11) });
+        assertEquals("1,3,5,9,10,", interpreter.eval(
+            "s = \"\"; for (i = 0; i < items.length; i++) s += items[i].x + \",\"; s;"));
+        interpreter.eval("o = object(); o.x = 12; items[3] = o;");
+        assertEquals("1,3,5,12,10,", interpreter.eval(
+            "s = \"\"; for (i = 0; i < items.length; i++) s += items[i].x + \",\"; s;"));
+        assertEquals("2,2,2,12,2,", interpreter.eval(
+            "for (i = 0; i < items.length; i++) if (i != 3) items[i].x = 2;"
+            + "s = \"\"; for (i = 0; i < items.length; i++) s += items[i].x + \",\"; s;"));
+    }
+
+    @Test
+    public void property_reads_follow_the_receiver_class() throws Exception {
+        final Interpreter interpreter = new Interpreter();
+        interpreter.set("items", new Object[] {
+            new java.util.Date(1), new java.sql.Timestamp(2), new java.util.Date(3) });
+        assertEquals(6L, interpreter.eval(
+            "long t = 0; for (i = 0; i < items.length; i++) t += items[i].time; t;"));
+    }
+
+    @Test
+    public void casts_follow_the_value_class() throws Exception {
+        assertEquals("3,2,99,7,s,",  TestUtil.eval(
+            "Object[] vs = { 3, 2.5, 'c', 7L, \"s\" };",
+            "s = \"\";",
+            "for (v : vs) s += (v instanceof String ? (String) v : \"\" + (int) v) + \",\";",
+            "s;"));
+        try {
+            TestUtil.eval(
+                "Object[] vs = { \"a\", \"b\", 1 };",
+                "for (v : vs) s = (String) v;");
+            fail("expected class cast exception");
+        } catch (TargetError e) {
+            assertThat(e.getTarget(), instanceOf(ClassCastException.class));
+        }
+    }
+
+    @Test
+    public void variable_names_fall_back_to_name_resolution() throws Exception {
+        assertEquals("1,1,Class Identifier: java.lang.String", TestUtil.eval(
+            "f() { return String; }",
+            "String = 1;",
+            "s = f() + \",\" + f();",
+            "unset(\"String\");",
+            "s + \",\" + f();"));
+    }
+
+    @Test
+    public void specializations_follow_accessibility() throws Exception {
+        assumeTrue("testing illegal access assumes accessibility",
+            Capabilities.haveAccessibility());
+        final boolean current = Capabilities.haveAccessibility();
+        final Interpreter interpreter = new Interpreter();
+        interpreter.set("hs", new Holder[] { new Holder() });
+        interpreter.eval("secret() { return hs[0].secret; }");
+        try {
+            Capabilities.setAccessibility(true);
+            assertEquals(7, interpreter.eval("secret();"));
+            Capabilities.setAccessibility(false);
+            try {
+                interpreter.eval("secret();");
+                fail("expected private field to be inaccessible");
+            } catch (EvalError e) {
+                // expected
+            }
+        } finally {
+            Capabilities.setAccessibility(current);
+        }
+    }
+}
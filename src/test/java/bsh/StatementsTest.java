@@ -1,9 +1,11 @@
 package bsh;
 
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import static bsh.TestUtil.eval;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -55,4 +57,128 @@ public class StatementsTest {
         assertThat("not default branch", ret, equalTo("not default"));
     }
 
+    @Test
+    public void switch_dispatch_on_constant_labels() throws Exception {
+        final Object result = eval(
+            "String route(v) {",
+            "   s = '';",
+            "   switch (v) {",
+            "       case -1: s += 'm';",
+            "       case 'A': s += 'a'; break;",
+            "       case 66: case 1 + 1: s += 'b';",
+            "       case 100000: s += 'c'; break;",
+            "       case 7: return \"r\";",
+            "       default: s += 'd';",
+            "   }",
+            "   return s;",
+            "}",
+            "r = '';",
+            "for (v : new Object[] { -1, 65, 'B', 2, 100000, 7, 3, 2L, 'x' })",
+            "   r += route(v) + ',';",
+            "return r;");
+        assertEquals("ma,a,bc,bc,c,r,d,bc,d,", result);
+    }
+
+    @Test
+    public void switch_dispatch_takes_default_ahead_of_match() throws Exception {
+        final Object result = eval(
+            "r = '';",
+            "for (v : new String[] { \"a\", \"b\", \"c\" })",
+            "   switch (v) {",
+            "       case \"a\": r += 'a'; break;",
+            "       default: r += 'd';",
+            "       case \"b\": r += 'b'; break;",
+            "   }",
+            "return r;");
+        assertEquals("adbdb", result);
+    }
+
+    @Test
+    public void loop_iterations_have_fresh_scopes() throws Exception {
+        final Object result = eval(
+            "import java.util.concurrent.Callable;",
+            "r = '';",
+            "for (x : new int[] {1, 2, 3}) { r += y == void ? 'f' : 's'; int y = x; }",
+            "for (int i = 0; i < 3; i++) { r += z == void ? 'f' : 's'; int z = i; }",
+            "for (final int x : new int[] {1, 2}) r += x;",
+            "calls = new ArrayList();",
+            "for (final String s : new String[] { \"a\", \"b\" })",
+            "    calls.add(new Callable() { Object call() { return s; } });",
+            "for (c : calls) r += c.call();",
+            "return r;");
+        assertEquals("ffffff12ab", result);
+    }
+
+    @Test
+    public void primitive_variables_update_in_place() throws Exception {
+        final Object result = eval(
+            "int i = 2147483646; long l = 1; double d = 0.5; r = \"\";",
+            "i++; r += i; i++; r += \",\" + i;",
+            "for (int k = 1; k <= 20; k++) { l *= k; d += k; }",
+            "r += \",\" + l + \",\" + d;",
+            "int j = 7; j += j++; r += \",\" + j;",
+            "int m = 7; m /= 2; m %= 2; boolean gt = l > i; boolean lt = m < 2; r += \",\" + m + \",\" + lt + gt;",
+            "return r;");
+        assertEquals("2147483647,-2147483648,2432902008176640000,210.5,"
+            + "14,1,truetrue", result);
+    }
+
+    @Test(expected = EvalError.class)
+    public void primitive_variable_overflow_is_not_narrowed() throws Exception {
+        eval("int o = 2147483647;", "o += 1;");
+    }
+
+    @Test
+    public void updated_primitive_variables_print_their_value() throws Exception {
+        final Interpreter bsh = new Interpreter();
+        bsh.eval("int i = 1; long l = 2; double d = 0.5; i++; l += 3; d *= 3;");
+        final NameSpace ns = bsh.getNameSpace();
+        assertThat(ns.getVariableImpl("i", false).toString(), containsString("value:2,"));
+        assertThat(ns.getVariableImpl("l", false).toString(), containsString("value:5,"));
+        assertThat(ns.getVariableImpl("d", false).toString(), containsString("value:1.5,"));
+    }
+
+    @Test
+    public void string_concatenation_chains() throws Exception {
+        assertEquals("3a34", eval("return 1 + 2 + \"a\" + 3 + 4;"));
+        assertEquals("anullc1.02true",
+            eval("return \"a\" + null + 'c' + 1.0f + 2L + true;"));
+        assertEquals("anullb", eval("String x = null;", "return \"a\" + x + \"b\";"));
+    }
+
+    @Test
+    public void string_variable_appends_in_place() throws Exception {
+        final Object result = eval(
+            "String s = \"q\";",
+            "for (int i = 0; i < 3; i++) { s += \"a\" + i; s += ','; }",
+            "r = s;",
+            "s = \"a\"; s += (s = \"x\"); r += s;",
+            "s = \"a\"; s += (s += \"b\"); r += s;",
+            "s += s.length(); r += s;",
+            "return r;");
+        assertEquals("qa0,a1,a2,axaabaab3", result);
+    }
+
+    /** Loops of 10M iterations declaring a local per iteration, reports
+     * the time and the number of garbage collections each takes. */
+    @Test
+    @Category(Benchmark.class)
+    public void loop_iterations_benchmark() throws Exception {
+        final String[][] loops = {
+            { "for", "for (int i = 0; i < n; i++) { int y = i; }" },
+            { "while", "int i = 0; while (i < n) { int y = i; i++; }" },
+            { "enhanced for", "int[] a = new int[1000];"
+                + " for (int k = 0; k < n / 1000; k++) for (int x : a) { int y = x; }" } };
+        for (final String[] loop : loops) {
+            final Interpreter bsh = new Interpreter();
+            bsh.set("n", 10000000);
+            TestUtil.cleanUp();
+            final long collections = Benchmark.collections();
+            final long start = System.nanoTime();
+            bsh.eval(loop[1]);
+            System.out.println(loop[0] + " loop of 10M iterations: "
+                + (System.nanoTime() - start) / 1000000 + " ms, "
+                + (Benchmark.collections() - collections) + " GCs");
+        }
+    }
 }
@@ -2,6 +2,7 @@ package bsh;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
@@ -273,4 +274,36 @@ public class TryStatementTest {
         assertEquals("return from finally", result);
     }
 
+    /** Scripts throwing and catching exceptions, reports the best time per
+     * iteration and the number of garbage collections for each. */
+    @Test
+    @Category(Benchmark.class)
+    public void try_catch_benchmark() throws Exception {
+        final Interpreter bsh = new Interpreter();
+        bsh.eval("thrower() { throw new IllegalStateException(\"x\"); }"
+            + "dtry(n) { if (n == 0) { try { thrower(); }"
+            + " catch (IllegalStateException e) { return 1; } } return dtry(n - 1); }"
+            + "plain() { try { return 1; } catch (Exception e) { return 0; } }");
+        final String[][] loops = {
+            { "throw and catch", "for (i = 0; i < 2000; i++) {"
+                + " try { thrower(); } catch (IllegalStateException e) { } }" },
+            { "throw 20 script calls deep", "for (i = 0; i < 2000; i++) { dtry(20); }" },
+            { "java method throws", "for (i = 0; i < 2000; i++) { try { Integer.parseInt(\"x\"); }"
+                + " catch (NumberFormatException e) { } }" },
+            { "try block that doesn't throw", "for (i = 0; i < 2000; i++) { plain(); }" } };
+        final long[] best = new long[loops.length];
+        final long[] collections = new long[loops.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int round = 0; round < 15; round++)
+            for (int k = 0; k < loops.length; k++) {
+                final long gcs = Benchmark.collections();
+                final long start = System.nanoTime();
+                bsh.eval(loops[k][1]);
+                best[k] = Math.min(best[k], (System.nanoTime() - start) / 2000);
+                collections[k] += Benchmark.collections() - gcs;
+            }
+        for (int k = 0; k < loops.length; k++)
+            System.out.println(loops[k][0] + ": " + best[k] + " ns per iteration, "
+                + collections[k] + " GCs in 30000 iterations");
+    }
 }
@@ -0,0 +1,70 @@
+package bsh;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(FilteredTestRunner.class)
+public class TypesTest {
+
+    @Test
+    public void conversions_are_cached_per_pair_of_types() {
+        assertSame(Types.conversion(Long.TYPE, Integer.TYPE),
+            Types.conversion(Long.TYPE, Integer.TYPE));
+        assertSame(Types.conversion(String.class, null),
+            Types.conversion(String.class, null));
+        assertTrue(Types.isJavaBaseAssignable(Long.TYPE, Integer.TYPE));
+        assertFalse(Types.isJavaBaseAssignable(Integer.TYPE, Long.TYPE));
+        assertFalse(Types.isJavaBaseAssignable(Integer.class, Integer.TYPE));
+        assertTrue(Types.isJavaBoxTypesAssignable(Integer.class, Integer.TYPE));
+        assertTrue(Types.isJavaAssignable(Number.class, Double.TYPE));
+        assertTrue(Types.isJavaBaseAssignable(String.class, null));
+        assertFalse(Types.isJavaBoxTypesAssignable(int[].class, null));
+        assertTrue(Types.isBshAssignable(List.class, Object[].class));
+        assertTrue(Types.isBshAssignable(Runnable.class, This.class));
+        assertFalse(Types.isBshAssignable(Integer.TYPE, String.class));
+        assertTrue(Types.isSignatureAssignable(new Class<?>[] {Integer.TYPE},
+            new Class<?>[] {Long.TYPE}, Types.JAVA_BASE_ASSIGNABLE));
+    }
+
+    @Test
+    public void cast_object_follows_the_conversion() throws Exception {
+        assertEquals(new Primitive(2L), Types.castObject(
+            new Primitive(2), Long.TYPE, Types.ASSIGNMENT));
+        assertEquals(new Primitive(3), Types.castObject(
+            Integer.valueOf(3), Integer.TYPE, Types.ASSIGNMENT));
+        assertEquals(Long.valueOf(4), Types.castObject(
+            new Primitive(4), Long.class, Types.ASSIGNMENT));
+        assertEquals(Integer.valueOf(5), Types.castObject(
+            new Primitive(5), Object.class, Types.ASSIGNMENT));
+        assertEquals(Byte.valueOf((byte) 6), Types.castObject(
+            Integer.valueOf(6), Byte.class, Types.CAST));
+        assertThat(Types.castObject(new String[] {"a"}, List.class,
+            Types.ASSIGNMENT), instanceOf(ArrayList.class));
+        assertSame(Primitive.NULL, Types.castObject(
+            Primitive.NULL, String.class, Types.ASSIGNMENT));
+        try {
+            Types.castObject("s", Integer.TYPE, Types.ASSIGNMENT);
+            fail("expected assignment error");
+        } catch (UtilEvalError e) {
+            assertThat(e.getMessage(), containsString("Can't assign"));
+        }
+        try {
+            Types.castObject("s", Integer.class, Types.CAST);
+            fail("expected class cast exception");
+        } catch (UtilTargetError e) {
+            assertThat(e.getCause(), instanceOf(ClassCastException.class));
+        }
+    }
+}
@@ -18,11 +18,16 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.net.URL;
 import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -253,5 +258,119 @@ public class BshClassPathTest {
         assertEquals("abc.ABC", BshClassPath.canonicalizeClassName("modules/some.mod/abc.ABC"));
     }
 
+    private static void writeArchive(File file, String... entries) throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                zip.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void classpath_archives_are_indexed() throws Exception {
+        File dir = Files.createTempDirectory("classpath").toFile();
+        File archive = new File(dir, "lib.jar");
+        File index = new File(dir, "index");
+        File stale = new File(index, "stale.idx");
+        File current = ClassPathIndex.directory;
+        File temporary = ClassPathIndex.temporary;
+        ClassPathIndex.directory = index;
+        try {
+            writeArchive(archive, "a/", "a/B.class", "C.class", "META-INF/x.txt");
+            BshClassPath bcp = new BshClassPath("archive",
+                new URL[] { archive.toURI().toURL() });
+            assertEquals(new HashSet<>(Arrays.asList("a.B")), bcp.getClassesForPackage("a"));
+            assertFalse("temporary archives are not indexed", index.exists());
+
+            ClassPathIndex.temporary = null;
+            bcp = new BshClassPath("archive", new URL[] { archive.toURI().toURL() });
+            assertEquals(new HashSet<>(Arrays.asList("a.B")), bcp.getClassesForPackage("a"));
+            assertThat(bcp.getClassSource("C"), instanceOf(JarClassSource.class));
+            assertThat(index.list(), arrayWithSize(1));
+            assertThat(ClassPathIndex.classes(archive.getAbsolutePath(), archive, () -> {
+                    throw new AssertionError("index not used"); }),
+                arrayContaining("a.B", "C"));
+
+            assertTrue(stale.createNewFile());
+            stale.setLastModified(System.currentTimeMillis()
+                - (ClassPathIndex.EXPIRE_DAYS + 1) * 24L * 60 * 60 * 1000);
+            writeArchive(archive, "a/B.class", "a/D.class", "C.class");
+            archive.setLastModified(archive.lastModified() - 10000);
+            bcp = new BshClassPath("archive", new URL[] { archive.toURI().toURL() });
+            assertEquals(new HashSet<>(Arrays.asList("a.B", "a.D")), bcp.getClassesForPackage("a"));
+            assertFalse("unused index expired", stale.exists());
+            assertThat(index.list(), arrayWithSize(1));
+        } finally {
+            ClassPathIndex.directory = current;
+            ClassPathIndex.temporary = temporary;
+            File [] files = index.listFiles();
+            if (files != null)
+                for (File file : files)
+                    file.delete();
+            index.delete();
+            archive.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void classpath_components_are_mapped_in_order() throws Exception {
+        File dir = Files.createTempDirectory("classpath").toFile();
+        File first = new File(dir, "first.jar"), second = new File(dir, "second.zip");
+        try {
+            writeArchive(first, "a/B.class");
+            writeArchive(second, "a/B.class", "a/C.class");
+            URL [] urls = { first.toURI().toURL(), second.toURI().toURL() };
+            BshClassPath bcp = new BshClassPath("ordered", urls);
+            assertEquals(new HashSet<>(Arrays.asList("a.B", "a.C")), bcp.getClassesForPackage("a"));
+            assertEquals(urls[0], ((JarClassSource) bcp.getClassSource("a.B")).getURL());
+            assertEquals(urls[1], ((JarClassSource) bcp.getClassSource("a.C")).getURL());
+        } finally {
+            first.delete();
+            second.delete();
+            dir.delete();
+        }
+    }
+    @Test
+    public void classpath_unq_name_table_compares_unqualified_names() throws Exception {
+        String [] names = { "c.B", "a.BC", "a.B$C", "B", "a.B", "b.A", "a.b.AB" };
+        BshClassPath.UnqualifiedNameTable table = new BshClassPath.UnqualifiedNameTable(names);
+        assertThat(names, arrayContaining("b.A", "a.b.AB", "B", "a.B", "c.B", "a.B$C", "a.BC"));
+        List<String> found = new ArrayList<>();
+        table.get("B", found);
+        assertThat(found.toArray(), arrayContaining("B", "a.B", "c.B"));
+        found.clear();
+        table.get("B$C", found);
+        table.get("AB", found);
+        table.get("C", found);
+        table.get("", found);
+        assertThat(found.toArray(), arrayContaining("a.B$C", "a.b.AB"));
+        HashSet<String> unqNames = new HashSet<>();
+        table.addNames(unqNames);
+        assertEquals(new HashSet<>(Arrays.asList("A", "AB", "B", "B$C", "BC")), unqNames);
+    }
+
+    @Test
+    public void classpath_super_import_follows_added_paths() throws Exception {
+        File dir = Files.createTempDirectory("classpath").toFile();
+        File archive = new File(dir, "added.jar"), second = new File(dir, "second.jar");
+        try (final Interpreter bsh = new Interpreter()) {
+            writeArchive(archive, "added/UnqualifiedOnly.class");
+            writeArchive(second, "added/SecondOnly.class");
+            assertEquals(2, bsh.eval("import *; new StringTokenizer(\"a b\").countTokens();"));
+            ClassManagerImpl cm = (ClassManagerImpl) bsh.getNameSpace().getClassManager();
+            assertThat(cm.getClassNameByUnqName("UnqualifiedOnly"), nullValue());
+            cm.addClassPath(archive.toURI().toURL());
+            assertEquals("added.UnqualifiedOnly", cm.getClassNameByUnqName("UnqualifiedOnly"));
+            assertThat(cm.getClassNameByUnqName("SecondOnly"), nullValue());
+            cm.addClassPath(second.toURI().toURL());
+            assertEquals("added.SecondOnly", cm.getClassNameByUnqName("SecondOnly"));
+        } finally {
+            archive.delete();
+            second.delete();
+            dir.delete();
+        }
+    }
 }
 